@@ -0,0 +1,145 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.snapshot.SnapshotWriter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds synthetic orgs for the tests, benchmarks and load tools, and starts the application on them.
+ */
+public final class SyntheticOrg {
+    private static final String[] POSITIONS = { "Developer I", "Developer II", "Developer III", "Manager", "Director" };
+    private static final String[] DEPARTMENTS = { "Engineering", "Sales", "Finance", "Support" };
+    private static final int WIDE_FANOUT = 16;
+
+    public enum Shape {
+        /**
+         * Everyone reports straight to the root.
+         */
+        FLAT,
+        /**
+         * A single chain of managers, as deep as the org is large.
+         */
+        DEEP,
+        /**
+         * A tree in which employee i manages employees fanout * i + 1 to fanout * i + fanout, 16 unless given.
+         */
+        WIDE
+    }
+
+    private SyntheticOrg() {
+    }
+
+    public static String employeeId(int id) {
+        return "00000000-0000-0000-0000-" + String.format("%012d", id);
+    }
+
+    /**
+     * @return employee id with its names, position and department, and no direct reports.
+     */
+    public static Employee employee(int id) {
+        return employee("", id);
+    }
+
+    /**
+     * @return the employees of the org, with employee 0 at the root. Reports come before their managers, so each
+     * manager's count is complete when it is added to the org graph.
+     */
+    public static List<Employee> employees(Shape shape, int employeeCount) {
+        return employees(shape, employeeCount, WIDE_FANOUT, "");
+    }
+
+    /**
+     * @param fanout the direct reports of each manager in a {@link Shape#WIDE} org.
+     * @param prefix added to every employee id, so orgs loaded into the same repository don't collide.
+     */
+    public static List<Employee> employees(Shape shape, int employeeCount, int fanout, String prefix) {
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        for( int i = employeeCount - 1; i >= 0; i-- ) {
+            List<Employee> directReports = new ArrayList<>();
+            if( shape == Shape.FLAT && i == 0 ) {
+                for( int report = 1; report < employeeCount; report++ ) {
+                    directReports.add(reference(prefix, report));
+                }
+            } else if( shape == Shape.DEEP && i + 1 < employeeCount ) {
+                directReports.add(reference(prefix, i + 1));
+            } else if( shape == Shape.WIDE ) {
+                for( int report = i * fanout + 1; report <= i * fanout + fanout && report < employeeCount; report++ ) {
+                    directReports.add(reference(prefix, report));
+                }
+            }
+
+            Employee employee = employee(prefix, i);
+            employee.setDirectReports(directReports);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    /**
+     * Writes the employees to a binary snapshot in a temporary file, which the caller deletes.
+     */
+    public static Path writeSnapshot(List<Employee> employees) throws IOException {
+        Path path = Files.createTempFile("synthetic-org", ".snapshot");
+        try( SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(path)) ) {
+            for( Employee employee : employees ) {
+                writer.write(employee);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Starts the application without a web server, logging only warnings, so the benchmarks measure the services
+     * rather than the debug logging.
+     *
+     * @param profile the active profile, or "default".
+     * @param properties extra properties, as key=value.
+     */
+    public static ConfigurableApplicationContext start(String profile, String... properties) {
+        return new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .properties("logging.level.com.mindex=WARN", "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Starts the application with its web server on a random port, logging only warnings. The reactive profile serves
+     * it with WebFlux, any other with Spring MVC.
+     *
+     * @param profile the active profile, or "default".
+     */
+    public static WebServerApplicationContext startServer(String profile, String... properties) {
+        return (WebServerApplicationContext) new SpringApplicationBuilder(ChallengeApplication.class)
+                .profiles(profile)
+                .properties("server.port=0", "logging.level.com.mindex=WARN", "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    private static Employee employee(String prefix, int id) {
+        Employee employee = reference(prefix, id);
+        employee.setFirstName("First " + id);
+        employee.setLastName("Last " + id);
+        employee.setPosition(POSITIONS[id % POSITIONS.length]);
+        employee.setDepartment(DEPARTMENTS[id % DEPARTMENTS.length]);
+        return employee;
+    }
+
+    private static Employee reference(String prefix, int id) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(prefix + employeeId(id));
+        return employee;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mindex.challenge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a wide org into the repositories and the org graph, from the JSON snapshot and from the binary
+ * snapshot, on the Mongo repositories and the inprocess ones. The repositories are emptied before every load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataBootstrapBenchmark {
+
+    @Param({"10000", "100000"})
+    private int employeeCount;
+
+    @Param({"default", "inprocess"})
+    private String profile;
+
+    private Path jsonPath;
+    private Path snapshotPath;
+    private ConfigurableApplicationContext context;
+    private DataBootstrap dataBootstrap;
+    private EmployeeRepository employeeRepository;
+    private CompensationRepository compensationRepository;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        List<Employee> employees = SyntheticOrg.employees(SyntheticOrg.Shape.WIDE, employeeCount);
+        jsonPath = Files.createTempFile("synthetic-org", ".json");
+        new ObjectMapper().writeValue(jsonPath.toFile(), employees);
+        snapshotPath = SyntheticOrg.writeSnapshot(employees);
+
+        context = SyntheticOrg.start(profile);
+        dataBootstrap = context.getBean(DataBootstrap.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        compensationRepository = context.getBean(CompensationRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        employeeRepository.deleteAll();
+        compensationRepository.deleteAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(jsonPath);
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    @Benchmark
+    public int loadJson() throws IOException {
+        try( InputStream inputStream = Files.newInputStream(jsonPath) ) {
+            return dataBootstrap.load(inputStream);
+        }
+    }
+
+    @Benchmark
+    public int loadSnapshot() throws IOException {
+        return dataBootstrap.loadSnapshot(snapshotPath).getEmployeeCount();
+    }
+}
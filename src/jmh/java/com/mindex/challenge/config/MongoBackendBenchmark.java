@@ -0,0 +1,104 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Employee;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoBackend;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Measures the cost of the journal of the file backend under each fsync policy, and of the H2 MVStore backend, over the
+ * memory backend, for single employee inserts and for lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MongoBackendBenchmark {
+    private static final int EMPLOYEE_COUNT = 10000;
+
+    @Param({"memory", "always", "interval", "never", "h2"})
+    private String backend;
+
+    private Path journalPath;
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private int nextEmployee;
+    private int nextLookup;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        MongoBackend mongoBackend;
+        if( backend.equals("memory") ) {
+            mongoBackend = new MemoryBackend();
+        } else if( backend.equals("h2") ) {
+            journalPath = Files.createTempFile("challenge", ".mv.db");
+            mongoBackend = new H2Backend(journalPath.toString());
+        } else {
+            journalPath = Files.createTempFile("challenge", ".journal");
+            mongoBackend = new JournaledMemoryBackend(journalPath,
+                    JournaledMemoryBackend.FsyncPolicy.valueOf(backend.toUpperCase(Locale.ROOT)), 1000, 65536);
+        }
+
+        mongoServer = new MongoServer(mongoBackend);
+        mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb:/" + mongoServer.getLocalAddress());
+        mongoTemplate = new MongoTemplate(new SimpleMongoClientDbFactory(mongoClient, "benchmark"));
+        MongoConfig.createIndexes(mongoTemplate);
+
+        for( nextEmployee = 0; nextEmployee < EMPLOYEE_COUNT; nextEmployee++ ) {
+            mongoTemplate.insert(SyntheticOrg.employee(nextEmployee));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mongoClient.close();
+        mongoServer.shutdown();
+        if( journalPath != null ) {
+            Files.deleteIfExists(journalPath);
+        }
+    }
+
+    @Benchmark
+    public Employee insert() {
+        return mongoTemplate.insert(SyntheticOrg.employee(nextEmployee++));
+    }
+
+    @Benchmark
+    public Employee findByEmployeeId() {
+        // every lookup reads the next employee, so the trial isn't measuring a single hot document
+        nextLookup = (nextLookup + 1) % EMPLOYEE_COUNT;
+        return mongoTemplate.findOne(query(where("employeeId").is(SyntheticOrg.employeeId(nextLookup))), Employee.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.SyntheticOrg;
+import io.netty.channel.ChannelOption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how the Spring MVC and reactive stacks scale with the number of requests in flight when the server has the
+ * same small, fixed number of threads: 4 Tomcat request threads, or 4 Netty event loops.
+ *
+ * Each invocation sends a batch of requests for random employees of a wide org, keeping the given number in flight
+ * from a client with its own event loops and a connection for every request in flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WebStackBenchmark {
+    private static final int EMPLOYEE_COUNT = 10000;
+    private static final int SERVER_THREADS = 4;
+    private static final int REQUESTS = 1024;
+
+    @Param({"default", "reactive"})
+    private String profile;
+
+    @Param({"4", "64", "256"})
+    private int concurrency;
+
+    private Path snapshotPath;
+    private ConfigurableApplicationContext context;
+    private LoopResources clientLoops;
+    private WebClient webClient;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // read when the server's event loops are first created
+        System.setProperty("reactor.netty.ioWorkerCount", Integer.toString(SERVER_THREADS));
+
+        snapshotPath = SyntheticOrg.writeSnapshot(SyntheticOrg.employees(SyntheticOrg.Shape.WIDE, EMPLOYEE_COUNT));
+        WebServerApplicationContext server = SyntheticOrg.startServer(profile,
+                "challenge.snapshot.path=" + snapshotPath,
+                "server.tomcat.max-threads=" + SERVER_THREADS,
+                "server.tomcat.min-spare-threads=" + SERVER_THREADS,
+                // one connection per request in flight, so requests wait for a server thread rather than a connection
+                "server.tomcat.max-connections=" + Math.max(concurrency, 1024));
+        context = (ConfigurableApplicationContext) server;
+
+        clientLoops = LoopResources.create("benchmark-client", 4, true);
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.fixed("benchmark", concurrency))
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .runOn(clientLoops)
+                        .option(ChannelOption.TCP_NODELAY, true));
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + server.getWebServer().getPort())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        clientLoops.dispose();
+        context.close();
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public long readEmployee() {
+        return send("/employee/{id}");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public long readReportingStructure() {
+        return send("/employee/{id}/reporting-structure");
+    }
+
+    private long send(String uri) {
+        return Flux.range(0, REQUESTS)
+                .flatMap(i -> webClient.get()
+                        .uri(uri, SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(EMPLOYEE_COUNT)))
+                        .retrieve()
+                        .bodyToMono(String.class), concurrency)
+                .count()
+                .block();
+    }
+}
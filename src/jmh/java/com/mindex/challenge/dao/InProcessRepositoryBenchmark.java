@@ -0,0 +1,136 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.config.MongoConfig;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Compares the employee and compensation lookups of the inprocess repositories with the same queries sent through the
+ * Mongo wire protocol to the embedded server, with the indexes created by {@link MongoConfig}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class InProcessRepositoryBenchmark {
+    private static final LocalDate EFFECTIVE_DATE = LocalDate.of(2020, 1, 1);
+    private static final int BATCH_SIZE = 10;
+
+    @Param({"10000", "100000"})
+    private int documentCount;
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private InProcessEmployeeRepository employeeRepository;
+    private InProcessCompensationRepository compensationRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb:/" + mongoServer.getLocalAddress());
+        mongoTemplate = new MongoTemplate(new SimpleMongoClientDbFactory(mongoClient, "benchmark"));
+        MongoConfig.createIndexes(mongoTemplate);
+
+        employeeRepository = new InProcessEmployeeRepository();
+        compensationRepository = new InProcessCompensationRepository();
+
+        List<Employee> employees = new ArrayList<>(documentCount);
+        List<Compensation> compensations = new ArrayList<>(documentCount);
+        for( int i = 0; i < documentCount; i++ ) {
+            Employee employee = SyntheticOrg.employee(i);
+            employees.add(employee);
+
+            Compensation compensation = new Compensation();
+            compensation.setEmployee(employee);
+            compensation.setSalary(i);
+            compensation.setEffectiveDate(EFFECTIVE_DATE);
+            compensations.add(compensation);
+        }
+
+        mongoTemplate.insertAll(employees);
+        mongoTemplate.insertAll(compensations);
+        employeeRepository.insert(employees);
+        compensationRepository.insert(compensations);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Benchmark
+    public Employee findByEmployeeIdMongo() {
+        return mongoTemplate.findOne(query(where("employeeId").is(randomEmployeeId())), Employee.class);
+    }
+
+    @Benchmark
+    public Employee findByEmployeeIdInProcess() {
+        return employeeRepository.findByEmployeeId(randomEmployeeId());
+    }
+
+    @Benchmark
+    public List<Employee> findAllByEmployeeIdInMongo() {
+        return mongoTemplate.find(query(where("employeeId").in(randomEmployeeIds())), Employee.class);
+    }
+
+    @Benchmark
+    public List<Employee> findAllByEmployeeIdInInProcess() {
+        return employeeRepository.findAllByEmployeeIdIn(randomEmployeeIds());
+    }
+
+    @Benchmark
+    public List<Compensation> findCompensationsMongo() {
+        return mongoTemplate.find(query(where("employeeId").is(randomEmployeeId())), Compensation.class);
+    }
+
+    @Benchmark
+    public List<Compensation> findCompensationsInProcess() {
+        return compensationRepository.findPage(randomEmployeeId(), null, Integer.MAX_VALUE);
+    }
+
+    private String randomEmployeeId() {
+        return SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(documentCount));
+    }
+
+    private List<String> randomEmployeeIds() {
+        List<String> employeeIds = new ArrayList<>(BATCH_SIZE);
+        for( int i = 0; i < BATCH_SIZE; i++ ) {
+            employeeIds.add(randomEmployeeId());
+        }
+        return employeeIds;
+    }
+}
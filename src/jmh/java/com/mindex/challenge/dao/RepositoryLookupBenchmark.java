@@ -0,0 +1,112 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.config.MongoConfig;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Measures the latency of the employee and compensation key lookups as the collections grow, with and without the
+ * indexes created by {@link MongoConfig}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RepositoryLookupBenchmark {
+    private static final LocalDate EFFECTIVE_DATE = LocalDate.of(2020, 1, 1);
+    private static final int INSERT_BATCH_SIZE = 10000;
+
+    @Param({"1000", "10000", "100000", "300000"})
+    private int documentCount;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb:/" + mongoServer.getLocalAddress());
+        mongoTemplate = new MongoTemplate(new SimpleMongoClientDbFactory(mongoClient, "benchmark"));
+
+        if( indexed ) {
+            MongoConfig.createIndexes(mongoTemplate);
+        }
+
+        List<Employee> employees = new ArrayList<>(INSERT_BATCH_SIZE);
+        List<Compensation> compensations = new ArrayList<>(INSERT_BATCH_SIZE);
+        for( int i = 0; i < documentCount; i++ ) {
+            Employee employee = SyntheticOrg.employee(i);
+            employees.add(employee);
+
+            Compensation compensation = new Compensation();
+            compensation.setEmployee(employee);
+            compensation.setSalary(i);
+            compensation.setEffectiveDate(EFFECTIVE_DATE);
+            compensations.add(compensation);
+
+            if( employees.size() == INSERT_BATCH_SIZE || i == documentCount - 1 ) {
+                mongoTemplate.insertAll(employees);
+                mongoTemplate.insertAll(compensations);
+                employees.clear();
+                compensations.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdownNow();
+    }
+
+    @Benchmark
+    public Employee findByEmployeeId() {
+        return mongoTemplate.findOne(query(where("employeeId").is(randomEmployeeId())), Employee.class);
+    }
+
+    @Benchmark
+    public Compensation findByEmployeeIdAndEffectiveDate() {
+        return mongoTemplate.findOne(query(where("employeeId").is(randomEmployeeId()).and("effectiveDate").is(EFFECTIVE_DATE)),
+                Compensation.class);
+    }
+
+    private String randomEmployeeId() {
+        return SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(documentCount));
+    }
+}
@@ -0,0 +1,99 @@
+package com.mindex.challenge.data;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mindex.challenge.SyntheticOrg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson writing and reading an employee with 16 direct reports and a compensation, with an object mapper
+ * configured as Spring Boot configures the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private ObjectWriter employeeWriter;
+    private ObjectReader employeeReader;
+    private ObjectWriter compensationWriter;
+    private ObjectReader compensationReader;
+    private Employee employee;
+    private Compensation compensation;
+    private byte[] employeeJson;
+    private byte[] compensationJson;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        employeeWriter = objectMapper.writerFor(Employee.class);
+        employeeReader = objectMapper.readerFor(Employee.class);
+        compensationWriter = objectMapper.writerFor(Compensation.class);
+        compensationReader = objectMapper.readerFor(Compensation.class);
+
+        List<Employee> directReports = new ArrayList<>();
+        for( int i = 1; i <= 16; i++ ) {
+            Employee directReport = new Employee();
+            directReport.setEmployeeId(SyntheticOrg.employeeId(i));
+            directReports.add(directReport);
+        }
+
+        employee = new Employee();
+        employee.setEmployeeId(SyntheticOrg.employeeId(0));
+        employee.setFirstName("John");
+        employee.setLastName("Lennon");
+        employee.setPosition("Development Manager");
+        employee.setDepartment("Engineering");
+        employee.setDirectReports(directReports);
+
+        compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(100000.5);
+        compensation.setEffectiveDate(LocalDate.of(2020, 1, 1));
+
+        employeeJson = employeeWriter.writeValueAsBytes(employee);
+        compensationJson = compensationWriter.writeValueAsBytes(compensation);
+    }
+
+    @Benchmark
+    public byte[] writeEmployee() throws IOException {
+        return employeeWriter.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee readEmployee() throws IOException {
+        return employeeReader.readValue(employeeJson);
+    }
+
+    @Benchmark
+    public byte[] writeCompensation() throws IOException {
+        return compensationWriter.writeValueAsBytes(compensation);
+    }
+
+    @Benchmark
+    public Compensation readCompensation() throws IOException {
+        return compensationReader.readValue(compensationJson);
+    }
+}
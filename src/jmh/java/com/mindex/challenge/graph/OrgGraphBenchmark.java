@@ -0,0 +1,76 @@
+package com.mindex.challenge.graph;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sequential and parallel walks of a wide structure where most employees are shared by two managers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrgGraphBenchmark {
+    private static final int FANOUT = 16;
+
+    @Param({"100000", "1000000"})
+    private int employeeCount;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private OrgGraph orgGraph;
+    private String rootId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        orgGraph = new OrgGraph();
+
+        // the employees come reports first, so employee i is at employeeCount - 1 - i
+        List<Employee> employees = SyntheticOrg.employees(SyntheticOrg.Shape.WIDE, employeeCount, FANOUT, "");
+        Random random = new Random(42);
+        for( int i = employeeCount - 1; i >= 0; i-- ) {
+            // each manager also manages a random employee below its own reports, who is then shared
+            Employee employee = employees.get(employeeCount - 1 - i);
+            int next = i * FANOUT + FANOUT + 1;
+            if( next < employeeCount ) {
+                employee.getDirectReports().add(SyntheticOrg.employee(next + random.nextInt(employeeCount - next)));
+            }
+            orgGraph.put(employee);
+        }
+        rootId = SyntheticOrg.employeeId(0);
+
+        if( parallel ) {
+            orgGraph.enableParallel(0, 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        orgGraph.shutdown();
+    }
+
+    @Benchmark
+    public int countReports() {
+        return orgGraph.countReports(rootId);
+    }
+}
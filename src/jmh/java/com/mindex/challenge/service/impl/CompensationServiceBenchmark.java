@@ -0,0 +1,89 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationPage;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.CompensationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CompensationService#create} and a page of {@link CompensationService#search} for one employee, on
+ * the Mongo repositories and the inprocess ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompensationServiceBenchmark {
+    private static final int EMPLOYEE_COUNT = 1000;
+    private static final int COMPENSATIONS_PER_EMPLOYEE = 10;
+    private static final int PAGE_SIZE = 10;
+    private static final LocalDate EFFECTIVE_DATE = LocalDate.of(2000, 1, 1);
+
+    @Param({"default", "inprocess"})
+    private String profile;
+
+    private Path snapshotPath;
+    private ConfigurableApplicationContext context;
+    private CompensationService compensationService;
+    // compensations created so far, each on its own date for its employee
+    private int created;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        snapshotPath = SyntheticOrg.writeSnapshot(SyntheticOrg.employees(SyntheticOrg.Shape.WIDE, EMPLOYEE_COUNT));
+        context = SyntheticOrg.start(profile, "challenge.snapshot.path=" + snapshotPath);
+        compensationService = context.getBean(CompensationService.class);
+
+        for( created = 0; created < EMPLOYEE_COUNT * COMPENSATIONS_PER_EMPLOYEE; ) {
+            create();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    @Benchmark
+    public Compensation create() {
+        Employee employee = new Employee();
+        employee.setEmployeeId(SyntheticOrg.employeeId(created % EMPLOYEE_COUNT));
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(created);
+        compensation.setEffectiveDate(EFFECTIVE_DATE.plusDays(created / EMPLOYEE_COUNT));
+        created++;
+        return compensationService.create(compensation);
+    }
+
+    @Benchmark
+    public CompensationPage search() {
+        return compensationService.search(SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(EMPLOYEE_COUNT)), null, PAGE_SIZE);
+    }
+}
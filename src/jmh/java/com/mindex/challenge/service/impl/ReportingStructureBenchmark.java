@@ -0,0 +1,81 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EmployeeService#readReportingStructure} at the root of flat, deep and wide orgs loaded at startup,
+ * and for a random employee, both from the maintained report counts and with every count verified by a walk of the
+ * structure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportingStructureBenchmark {
+
+    @Param({"FLAT", "DEEP", "WIDE"})
+    private SyntheticOrg.Shape shape;
+
+    @Param({"1000", "10000", "100000"})
+    private int employeeCount;
+
+    @Param({"false", "true"})
+    private boolean verifyCounts;
+
+    private Path snapshotPath;
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private String rootId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        snapshotPath = SyntheticOrg.writeSnapshot(SyntheticOrg.employees(shape, employeeCount));
+        context = SyntheticOrg.start("default",
+                "challenge.snapshot.path=" + snapshotPath,
+                "challenge.reporting.verify-counts=" + verifyCounts,
+                // the deep org is one chain as long as the org is large
+                "challenge.reporting.max-depth=" + employeeCount);
+        employeeService = context.getBean(EmployeeService.class);
+        rootId = SyntheticOrg.employeeId(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    @Benchmark
+    public ReportingStructure readRoot() {
+        return employeeService.readReportingStructure(rootId);
+    }
+
+    @Benchmark
+    public ReportingStructure readRandom() {
+        return employeeService.readReportingStructure(SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(employeeCount)));
+    }
+}
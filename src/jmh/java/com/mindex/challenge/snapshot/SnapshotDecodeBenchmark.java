@@ -0,0 +1,96 @@
+package com.mindex.challenge.snapshot;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.graph.OrgGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding the employee snapshot from the JSON format with decoding it from the memory mapped binary format,
+ * each into a fresh org graph. Nothing is inserted into a repository; {@code DataBootstrapBenchmark} measures the
+ * whole load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SnapshotDecodeBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int employeeCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path jsonPath;
+    private Path binaryPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        List<Employee> employees = SyntheticOrg.employees(SyntheticOrg.Shape.WIDE, employeeCount);
+
+        jsonPath = Files.createTempFile("employees", ".json");
+        objectMapper.writeValue(jsonPath.toFile(), employees);
+        binaryPath = SyntheticOrg.writeSnapshot(employees);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jsonPath);
+        Files.deleteIfExists(binaryPath);
+    }
+
+    @Benchmark
+    public OrgGraph decodeJson() throws IOException {
+        OrgGraph orgGraph = new OrgGraph();
+        ObjectReader reader = objectMapper.readerFor(Employee.class);
+        try( InputStream inputStream = Files.newInputStream(jsonPath);
+             JsonParser parser = objectMapper.getFactory().createParser(inputStream) ) {
+            parser.nextToken();
+            while( parser.nextToken() == JsonToken.START_OBJECT ) {
+                orgGraph.put(reader.readValue(parser));
+            }
+        }
+        return orgGraph;
+    }
+
+    @Benchmark
+    public OrgGraph decodeBinary() throws IOException {
+        OrgGraph orgGraph = new OrgGraph();
+        SnapshotReader.read(binaryPath, new SnapshotHandler() {
+            @Override
+            public void employee(Employee employee) {
+                orgGraph.put(employee);
+            }
+
+            @Override
+            public void compensation(Compensation compensation) {
+            }
+        });
+        return orgGraph;
+    }
+}
@@ -1,39 +1,559 @@
 package com.mindex.challenge;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.SnapshotResult;
+import com.mindex.challenge.graph.OrgGraph;
+import com.mindex.challenge.service.impl.CompensationTimeline;
+import com.mindex.challenge.snapshot.SnapshotHandler;
+import com.mindex.challenge.snapshot.SnapshotIndex;
+import com.mindex.challenge.snapshot.SnapshotReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Loads the employee snapshot into the repository and the org graph.
+ *
+ * The snapshot is parsed one employee at a time by a reader thread, which hands employees to the calling thread in
+ * batches through a bounded queue. Parsing overlaps with inserting, and only a few batches of employees are held in
+ * memory however large the snapshot is. Inserts stay on the calling thread because repository calls from other
+ * threads can block on the application context while it is still starting.
+ *
+ * When a binary snapshot written by {@link com.mindex.challenge.service.SnapshotService} exists at
+ * challenge.snapshot.path it is loaded instead, along with the compensations it holds.
+ *
+ * In the lazy mode the binary snapshot is loaded by a background thread once the application is ready, so it serves
+ * requests straight away. An index of where each employee's records are is built first, and {@link #ensureLoaded}
+ * loads employees the background thread hasn't reached yet from there on demand. Each employee is claimed by whichever
+ * of the two gets to it first, and the other waits for it to be inserted along with its compensations. The JSON
+ * snapshot has no index, so a write to an employee it hasn't reached yet would conflict with it, and it is always
+ * loaded at startup.
+ *
+ * Employees and compensations already in the repository are skipped rather than failing the load, keeping the stored
+ * versions.
+ *
+ * If the repository already holds employees, as a durable backend does after a restart, nothing is loaded and the org
+ * graph is built from the repository instead.
+ */
 @Component
 public class DataBootstrap {
+    private static final Logger LOG = LoggerFactory.getLogger(DataBootstrap.class);
     private static final String DATASTORE_LOCATION = "/static/employee_database.json";
+    // tells the writer there are no more batches
+    private static final List<Employee> END = Collections.emptyList();
+
+    public enum Status {
+        LOADING, READY, FAILED
+    }
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private CompensationTimeline compensationTimeline;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Value("${challenge.bootstrap.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${challenge.bootstrap.queue-capacity:8}")
+    private int queueCapacity = 8;
+
+    @Value("${challenge.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${challenge.bootstrap.lazy:false}")
+    private boolean lazy;
+
+    private volatile Status status = Status.LOADING;
+    private volatile String source;
+    private volatile int employeeCount;
+    private volatile int compensationCount;
+    private volatile long durationMillis;
+
+    // only while loading lazily from the binary snapshot
+    private volatile SnapshotIndex snapshotIndex;
+    private final ConcurrentMap<String, Claim> claims = new ConcurrentHashMap<>();
+    private final AtomicInteger onDemandEmployeeCount = new AtomicInteger();
+    private final AtomicInteger onDemandCompensationCount = new AtomicInteger();
+
     @PostConstruct
     public void init() {
-        InputStream inputStream = this.getClass().getResourceAsStream(DATASTORE_LOCATION);
+        if( employeeRepository.count() > 0 ) {
+            // a durable backend still holds the employees from before the restart, along with any changes since
+            loadGraph();
+            return;
+        }
+
+        Path snapshot = snapshotPath.isEmpty() ? null : Paths.get(snapshotPath);
+        boolean binary = snapshot != null && Files.exists(snapshot);
+        source = binary ? snapshot.toString() : DATASTORE_LOCATION;
+
+        if( lazy && !binary ) {
+            LOG.warn("Loading {} at startup, as loading lazily needs a binary snapshot at challenge.snapshot.path", source);
+            lazy = false;
+        }
+
+        if( !lazy ) {
+            loadAll();
+        } else {
+            // the index is read without the repository, so it is safe to build while the context is starting
+            long start = System.nanoTime();
+            try {
+                snapshotIndex = SnapshotIndex.build(snapshot);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            LOG.info("Indexed {} employees in {} in {} ms", snapshotIndex.size(), source,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Starts loading lazily once the application is ready, because repository calls from other threads can block on
+     * the application context while it is still starting.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if( lazy && status == Status.LOADING ) {
+            Thread loader = new Thread(() -> {
+                try {
+                    loadAll();
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to load {}", source, e);
+                }
+            }, "bootstrap-loader");
+            loader.setDaemon(true);
+            loader.start();
+        }
+    }
+
+    /**
+     * Builds the org graph and the compensation timeline from what the repository already holds.
+     */
+    private void loadGraph() {
+        long start = System.nanoTime();
+        int count = 0;
+        try( CloseableIterator<Employee> employees = employeeRepository.streamAll() ) {
+            while( employees.hasNext() ) {
+                orgGraph.put(employees.next());
+                count++;
+            }
+        }
 
-        Employee[] employees = null;
+        source = "repository";
+        employeeCount = count;
 
+        count = 0;
+        try( CloseableIterator<Compensation> compensations = compensationRepository.streamAll(null) ) {
+            while( compensations.hasNext() ) {
+                compensationTimeline.add(compensations.next());
+                count++;
+            }
+        }
+        compensationCount = count;
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        status = Status.READY;
+        LOG.info("Loaded {} employees from the repository in {} ms", employeeCount, durationMillis);
+    }
+
+    private void loadAll() {
+        long start = System.nanoTime();
         try {
-            employees = objectMapper.readValue(inputStream, Employee[].class);
+            if( !DATASTORE_LOCATION.equals(source) ) {
+                SnapshotResult result = loadSnapshot(Paths.get(source));
+                employeeCount = result.getEmployeeCount() + onDemandEmployeeCount.get();
+                compensationCount = result.getCompensationCount() + onDemandCompensationCount.get();
+            } else {
+                try (InputStream inputStream = this.getClass().getResourceAsStream(DATASTORE_LOCATION)) {
+                    employeeCount = load(inputStream);
+                }
+            }
         } catch (IOException e) {
+            status = Status.FAILED;
             throw new RuntimeException(e);
+        } catch (RuntimeException | Error e) {
+            status = Status.FAILED;
+            throw e;
+        }
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        status = Status.READY;
+        // on demand loads check the status after claiming, so none can start once the claims are gone
+        snapshotIndex = null;
+        claims.clear();
+        LOG.info("Loaded {} employees and {} compensations from {} in {} ms", employeeCount, compensationCount, source, durationMillis);
+    }
+
+    /**
+     * Loads the employee, and every employee under it if withReports is set, from the snapshot if the background
+     * load hasn't inserted them yet. Does nothing unless the binary snapshot is being loaded lazily.
+     */
+    public void ensureLoaded(String employeeId, boolean withReports) {
+        SnapshotIndex index = snapshotIndex;
+        if( status != Status.LOADING || index == null || employeeId == null ) {
+            return;
+        }
+
+        Deque<String> pending = new ArrayDeque<>();
+        Set<String> seen = new HashSet<>();
+        pending.add(employeeId);
+        while( !pending.isEmpty() ) {
+            String id = pending.poll();
+            if( !seen.add(id) || !index.contains(id) ) {
+                continue;
+            }
+
+            Employee employee = loadOnDemand(index, id);
+            if( withReports ) {
+                // an employee loaded by someone else may have been updated since, so the graph is asked first
+                if( orgGraph.contains(id) ) {
+                    pending.addAll(orgGraph.directReportIds(id));
+                } else {
+                    if( employee == null ) {
+                        employee = readFromIndex(index, id);
+                    }
+                    if( employee.getDirectReports() != null ) {
+                        for( Employee directReport : employee.getDirectReports() ) {
+                            pending.add(directReport.getEmployeeId());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the employee if it was loaded now, or null if it was claimed by the background load or an earlier
+     * request, once they have inserted it.
+     */
+    private Employee loadOnDemand(SnapshotIndex index, String employeeId) {
+        Claim claim = new Claim();
+        Claim existing = claims.putIfAbsent(employeeId, claim);
+        if( existing != null ) {
+            existing.inserted.join();
+            return null;
+        }
+        if( status != Status.LOADING ) {
+            claim.inserted.complete(null);
+            return null;
         }
 
-        for (Employee employee : employees) {
+        try {
+            LOG.debug("Loading employee with id [{}] on demand", employeeId);
+            Employee employee = readFromIndex(index, employeeId);
+            orgGraph.put(employee);
             employeeRepository.insert(employee);
+            onDemandEmployeeCount.incrementAndGet();
+
+            List<Compensation> compensations = index.readCompensations(employeeId);
+            if( !compensations.isEmpty() ) {
+                compensationRepository.insert(compensations);
+                compensations.forEach(compensationTimeline::add);
+                onDemandCompensationCount.addAndGet(compensations.size());
+            }
+            claim.inserted.complete(null);
+            return employee;
+        } catch (IOException e) {
+            claim.inserted.completeExceptionally(e);
+            throw new RuntimeException(e);
+        } catch (RuntimeException | Error e) {
+            // waiters join the claim, so it is released whatever went wrong
+            claim.inserted.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Employee readFromIndex(SnapshotIndex index, String employeeId) {
+        try {
+            return index.readEmployee(employeeId);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
+
+    /**
+     * @param inputStream a JSON array of employees.
+     * @return the number of employees loaded.
+     */
+    int load(InputStream inputStream) throws IOException {
+        BlockingQueue<List<Employee>> batches = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> read(inputStream, batches, failure), "bootstrap-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        int count = 0;
+        try {
+            List<Employee> batch;
+            while( (batch = batches.take()) != END ) {
+                count += insertEmployees(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted loading the employee snapshot", e);
+        } finally {
+            // stops the reader if the writer gave up early
+            reader.interrupt();
+        }
+
+        Throwable readFailure = failure.get();
+        if( readFailure instanceof IOException ) {
+            throw (IOException) readFailure;
+        } else if( readFailure instanceof Error ) {
+            throw (Error) readFailure;
+        } else if( readFailure != null ) {
+            throw (RuntimeException) readFailure;
+        }
+
+        return count;
+    }
+
+    /**
+     * Loads the employees and compensations of a binary snapshot, inserting them in batches as they are decoded.
+     */
+    SnapshotResult loadSnapshot(Path path) throws IOException {
+        long start = System.nanoTime();
+        List<Employee> employees = new ArrayList<>(batchSize);
+        List<Compensation> compensations = new ArrayList<>(batchSize);
+        SnapshotResult result = new SnapshotResult();
+        // claims the employees of the current batch, skipping those already loaded on demand
+        Claim[] batchClaim = { new Claim() };
+        SnapshotIndex index = snapshotIndex;
+
+        try {
+            SnapshotReader.read(path, new SnapshotHandler() {
+                @Override
+                public void employee(Employee employee) {
+                    if( index != null && claims.putIfAbsent(employee.getEmployeeId(), batchClaim[0]) != null ) {
+                        return;
+                    }
+
+                    orgGraph.put(employee);
+                    employees.add(employee);
+                    if( employees.size() == batchSize ) {
+                        insertClaimed(index, employees, compensations, result);
+                        batchClaim[0].inserted.complete(null);
+                        batchClaim[0] = new Claim();
+                    }
+                }
+
+                @Override
+                public void compensation(Compensation compensation) {
+                    // loading lazily, every employee's compensations were inserted under its claim
+                    if( index != null && index.contains(compensation.getEmployeeId()) ) {
+                        return;
+                    }
+
+                    compensations.add(compensation);
+                    if( compensations.size() == batchSize ) {
+                        insertCompensations(compensations, result);
+                    }
+                }
+            });
+            insertClaimed(index, employees, compensations, result);
+            insertCompensations(compensations, result);
+            batchClaim[0].inserted.complete(null);
+        } catch (IOException | RuntimeException | Error e) {
+            batchClaim[0].inserted.completeExceptionally(e);
+            throw e;
+        }
+
+        result.setPath(path.toString());
+        result.setBytes(Files.size(path));
+        result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    /**
+     * Inserts the employees of a batch. Loading lazily, their compensations are read from the index and inserted with
+     * them, so nothing written for an employee once its claim is released can be overwritten by the snapshot.
+     */
+    private void insertClaimed(SnapshotIndex index, List<Employee> employees, List<Compensation> compensations, SnapshotResult result) {
+        if( index != null ) {
+            for( Employee employee : employees ) {
+                try {
+                    compensations.addAll(index.readCompensations(employee.getEmployeeId()));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        if( !employees.isEmpty() ) {
+            result.setEmployeeCount(result.getEmployeeCount() + insertEmployees(employees));
+            employees.clear();
+        }
+        insertCompensations(compensations, result);
+    }
+
+    /**
+     * Inserts a batch of employees, skipping those already stored. The org graph is given back the stored version of
+     * each employee skipped, in place of the snapshot's.
+     *
+     * @return the number of employees inserted.
+     */
+    private int insertEmployees(List<Employee> employees) {
+        Set<Integer> duplicates = employeeRepository.insertAllIgnoringDuplicates(employees);
+        for( int duplicate : duplicates ) {
+            String employeeId = employees.get(duplicate).getEmployeeId();
+            LOG.warn("Skipped employee [{}] in the snapshot, which is already stored", employeeId);
+
+            Employee stored = employeeRepository.findByEmployeeId(employeeId);
+            if( stored != null ) {
+                orgGraph.put(stored);
+            }
+        }
+        return employees.size() - duplicates.size();
+    }
+
+    /**
+     * Inserts a batch of compensations, skipping those already stored, and adds those inserted to the timeline.
+     */
+    private void insertCompensations(List<Compensation> compensations, SnapshotResult result) {
+        if( !compensations.isEmpty() ) {
+            Set<Integer> duplicates = compensationRepository.insertAllIgnoringDuplicates(compensations);
+            for( int i = 0; i < compensations.size(); i++ ) {
+                if( !duplicates.contains(i) ) {
+                    compensationTimeline.add(compensations.get(i));
+                }
+            }
+            result.setCompensationCount(result.getCompensationCount() + compensations.size() - duplicates.size());
+            compensations.clear();
+        }
+    }
+
+    /**
+     * Parses the JSON snapshot into batches, adding each employee to the org graph, and always ends with {@link #END}
+     * unless interrupted, so the writer is never left waiting on an empty queue.
+     */
+    private void read(InputStream inputStream, BlockingQueue<List<Employee>> batches, AtomicReference<Throwable> failure) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if( parser.nextToken() != JsonToken.START_ARRAY ) {
+                throw new IOException("Expected an array of employees in the snapshot");
+            }
+
+            ObjectReader reader = objectMapper.readerFor(Employee.class);
+            List<Employee> batch = new ArrayList<>(batchSize);
+            JsonToken token;
+            while( (token = parser.nextToken()) == JsonToken.START_OBJECT ) {
+                Employee employee = reader.readValue(parser);
+                orgGraph.put(employee);
+                batch.add(employee);
+
+                if( batch.size() == batchSize ) {
+                    batches.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if( token != JsonToken.END_ARRAY ) {
+                throw new IOException("Expected an employee or the end of the array in the snapshot but found " + token);
+            }
+            if( !batch.isEmpty() ) {
+                batches.put(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException | Error e) {
+            failure.set(e);
+        } finally {
+            end(batches);
+        }
+    }
+
+    private static void end(BlockingQueue<List<Employee>> batches) {
+        try {
+            batches.put(END);
+        } catch (InterruptedException e) {
+            // only the writer interrupts the reader, once it has stopped taking batches
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true while {@link #ensureLoaded(String, boolean)} may read from the snapshot and write to the repository.
+     */
+    public boolean isLoadingOnDemand() {
+        return status == Status.LOADING && snapshotIndex != null;
+    }
+
+    /**
+     * @return the number of employees in the snapshot loaded at startup.
+     */
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    /**
+     * @return the number of compensations in the snapshot loaded at startup.
+     */
+    public int getCompensationCount() {
+        return compensationCount;
+    }
+
+    /**
+     * @return the snapshot file or resource loaded at startup.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the time taken to load the snapshot at startup.
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * An employee's claim on being loaded either by the background load or on demand.
+     */
+    private static class Claim {
+        private final CompletableFuture<Void> inserted = new CompletableFuture<>();
+    }
 }
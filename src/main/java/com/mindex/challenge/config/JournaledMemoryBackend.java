@@ -0,0 +1,236 @@
+package com.mindex.challenge.config;
+
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.bwaldvogel.mongo.bson.Document;
+import de.bwaldvogel.mongo.exception.MongoServerException;
+import de.bwaldvogel.mongo.wire.bson.BsonDecoder;
+import de.bwaldvogel.mongo.wire.bson.BsonEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory backend that survives restarts by appending every write command to a journal file before executing it, and
+ * replaying the journal when it is opened.
+ *
+ * Write commands are journaled and executed one at a time, so the journal replays them in the order they were applied.
+ * A command is journaled even if it fails, since it may have been partly applied, and replaying it fails the same way.
+ * Reads are not journaled and don't wait for writes. How often the journal is forced to disk is set by the
+ * {@link FsyncPolicy}.
+ */
+public class JournaledMemoryBackend extends MemoryBackend {
+    private static final Logger LOG = LoggerFactory.getLogger(JournaledMemoryBackend.class);
+    private static final int REPLAY_BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> WRITE_COMMANDS = new HashSet<>(Arrays.asList("insert", "update", "delete",
+            "findandmodify", "createindexes", "dropindexes", "deleteindexes", "drop", "dropdatabase", "create",
+            "renamecollection"));
+
+    public enum FsyncPolicy {
+        /**
+         * Every write is forced to disk before it is acknowledged, so no acknowledged write is lost.
+         */
+        ALWAYS,
+        /**
+         * Writes are buffered and forced to disk on an interval, so a crash loses at most one interval of writes.
+         */
+        INTERVAL,
+        /**
+         * Every write is handed to the operating system but never forced, so it survives the process but not the
+         * machine crashing.
+         */
+        NEVER
+    }
+
+    private final Path path;
+    private final FsyncPolicy fsyncPolicy;
+    private final FileChannel fileChannel;
+    private final OutputStream output;
+    private final ScheduledExecutorService syncExecutor;
+    private final Object writeLock = new Object();
+
+    /**
+     * Opens the journal at the path, creating it if it doesn't exist, and replays it.
+     *
+     * @param fsyncIntervalMillis how often the journal is forced to disk with {@link FsyncPolicy#INTERVAL}.
+     * @param bufferSize the number of bytes of writes buffered with {@link FsyncPolicy#INTERVAL}.
+     */
+    public JournaledMemoryBackend(Path path, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, int bufferSize) throws IOException {
+        this.path = path;
+        this.fsyncPolicy = fsyncPolicy;
+
+        Path parent = path.toAbsolutePath().getParent();
+        if( parent != null ) {
+            Files.createDirectories(parent);
+        }
+
+        long length = replay();
+        fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        fileChannel.truncate(length);
+        fileChannel.position(length);
+
+        OutputStream channelOutput = Channels.newOutputStream(fileChannel);
+        output = fsyncPolicy == FsyncPolicy.INTERVAL ? new BufferedOutputStream(channelOutput, bufferSize) : channelOutput;
+
+        if( fsyncPolicy == FsyncPolicy.INTERVAL ) {
+            syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncExecutor.scheduleWithFixedDelay(this::syncQuietly, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            syncExecutor = null;
+        }
+    }
+
+    @Override
+    public Document handleCommand(Channel channel, String databaseName, String command, Document query) {
+        if( !WRITE_COMMANDS.contains(command.toLowerCase(Locale.ROOT)) ) {
+            return super.handleCommand(channel, databaseName, command, query);
+        }
+
+        synchronized( writeLock ) {
+            append(databaseName, command, query);
+            return super.handleCommand(channel, databaseName, command, query);
+        }
+    }
+
+    /**
+     * Forces every journaled write to disk.
+     */
+    public void sync() throws IOException {
+        synchronized( writeLock ) {
+            output.flush();
+            fileChannel.force(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        if( syncExecutor != null ) {
+            syncExecutor.shutdown();
+        }
+        try {
+            sync();
+            fileChannel.close();
+        } catch (IOException e) {
+            LOG.error("Failed to close journal {}", path, e);
+        }
+        super.close();
+    }
+
+    private void append(String databaseName, String command, Document query) {
+        Document record = new Document("db", databaseName)
+                .append("command", command)
+                .append("query", query);
+
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            BsonEncoder.encodeDocument(record, buffer);
+            buffer.readBytes(output, buffer.readableBytes());
+            if( fsyncPolicy == FsyncPolicy.ALWAYS ) {
+                fileChannel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write to journal " + path, e);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            LOG.error("Failed to sync journal {}", path, e);
+        }
+    }
+
+    /**
+     * Replays every complete record of the journal, reading it a buffer at a time rather than all at once. A record left
+     * partly written by a crash ends the journal.
+     *
+     * @return the length of the journal up to the end of the last complete record.
+     */
+    private long replay() throws IOException {
+        if( !Files.exists(path) ) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        long size = Files.size(path);
+        long length = 0;
+        int count = 0;
+        byte[] record = new byte[REPLAY_BUFFER_SIZE];
+        EmbeddedChannel channel = new EmbeddedChannel();
+        try( InputStream input = new BufferedInputStream(Files.newInputStream(path), REPLAY_BUFFER_SIZE) ) {
+            while( readFully(input, record, 0, Integer.BYTES) ) {
+                int recordLength = (record[0] & 0xff) | (record[1] & 0xff) << 8 | (record[2] & 0xff) << 16 | (record[3] & 0xff) << 24;
+                if( recordLength <= Integer.BYTES || recordLength > size - length ) {
+                    break;
+                }
+                if( recordLength > record.length ) {
+                    record = Arrays.copyOf(record, Math.max(recordLength, record.length * 2));
+                }
+                if( !readFully(input, record, Integer.BYTES, recordLength - Integer.BYTES) ) {
+                    break;
+                }
+
+                Document document = BsonDecoder.decodeBson(Unpooled.wrappedBuffer(record, 0, recordLength));
+                try {
+                    super.handleCommand(channel, (String) document.get("db"), (String) document.get("command"), (Document) document.get("query"));
+                } catch (MongoServerException e) {
+                    LOG.debug("Replayed command failed as it did originally: {}", e.getMessage());
+                }
+                length += recordLength;
+                count++;
+            }
+        } finally {
+            handleClose(channel);
+            channel.close();
+        }
+
+        if( length < size ) {
+            LOG.warn("Discarding {} bytes of a partly written record at the end of journal {}", size - length, path);
+        }
+        LOG.info("Replayed {} commands from journal {} in {} ms", count, path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return length;
+    }
+
+    /**
+     * @return false if the journal ended before the bytes were read.
+     */
+    private static boolean readFully(InputStream input, byte[] bytes, int offset, int length) throws IOException {
+        while( length > 0 ) {
+            int read = input.read(bytes, offset, length);
+            if( read < 0 ) {
+                return false;
+            }
+            offset += read;
+            length -= read;
+        }
+        return true;
+    }
+}
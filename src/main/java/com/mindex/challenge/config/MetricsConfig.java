@@ -0,0 +1,44 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.DataBootstrap;
+import com.mindex.challenge.metrics.RepositoryCallsInterceptor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RepositoryCallsInterceptor(meterRegistry));
+    }
+
+    /**
+     * Publishes how long the data took to load at startup, how much was loaded, and whether loading has finished.
+     */
+    @Bean
+    public MeterBinder bootstrapMetrics(DataBootstrap dataBootstrap) {
+        return registry -> {
+            TimeGauge.builder("bootstrap.duration", dataBootstrap, TimeUnit.MILLISECONDS, DataBootstrap::getDurationMillis)
+                    .register(registry);
+            Gauge.builder("bootstrap.employees", dataBootstrap, DataBootstrap::getEmployeeCount)
+                    .register(registry);
+            Gauge.builder("bootstrap.compensations", dataBootstrap, DataBootstrap::getCompensationCount)
+                    .register(registry);
+            Gauge.builder("bootstrap.ready", dataBootstrap, bootstrap -> bootstrap.getStatus() == DataBootstrap.Status.READY ? 1 : 0)
+                    .register(registry);
+        };
+    }
+}
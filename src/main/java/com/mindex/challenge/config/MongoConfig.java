@@ -1,23 +1,56 @@
 package com.mindex.challenge.config;
 
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoBackend;
 import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
 import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
 @EnableMongoRepositories(basePackageClasses = EmployeeRepository.class)
 @Configuration
+@Profile("!inprocess")
 public class MongoConfig{
+    @Value("${challenge.mongo.backend:memory}")
+    private String backend;
+
+    @Value("${challenge.mongo.file.path:data/challenge.journal}")
+    private String journalPath;
+
+    @Value("${challenge.mongo.file.fsync:interval}")
+    private String fsync;
+
+    @Value("${challenge.mongo.file.fsync-interval-ms:1000}")
+    private long fsyncIntervalMillis;
+
+    @Value("${challenge.mongo.file.buffer-size:65536}")
+    private int bufferSize;
+
     @Bean
     public MongoTemplate mongoTemplate(MongoClient mongoClient) {
-        return new MongoTemplate(mongoDbFactory(mongoClient));
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoDbFactory(mongoClient));
+        createIndexes(mongoTemplate);
+        return mongoTemplate;
     }
 
     @Bean
@@ -27,15 +60,65 @@ public class MongoConfig{
 
     @Bean(destroyMethod="shutdown")
     public MongoServer mongoServer() {
-        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        MongoServer mongoServer = new MongoServer(mongoBackend());
         mongoServer.bind();
         return mongoServer;
     }
 
+    /**
+     * @return the backend selected by challenge.mongo.backend: memory, which is lost on restart, file, which journals
+     * every write to challenge.mongo.file.path, or h2, which keeps the collections in an H2 MVStore file at
+     * challenge.mongo.file.path.
+     */
+    private MongoBackend mongoBackend() {
+        switch( backend.toLowerCase(Locale.ROOT) ) {
+            case "memory":
+                return new MemoryBackend();
+            case "file":
+                try {
+                    return new JournaledMemoryBackend(Paths.get(journalPath),
+                            JournaledMemoryBackend.FsyncPolicy.valueOf(fsync.toUpperCase(Locale.ROOT)),
+                            fsyncIntervalMillis,
+                            bufferSize);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to open journal " + journalPath, e);
+                }
+            case "h2":
+                try {
+                    Path storePath = Paths.get(journalPath).toAbsolutePath();
+                    Files.createDirectories(storePath.getParent());
+                    return new H2Backend(storePath.toString());
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to open H2 store " + journalPath, e);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown challenge.mongo.backend: " + backend);
+        }
+    }
+
     @Bean(destroyMethod="close")
     public MongoClient mongoClient() {
         return MongoClients.create("mongodb:/" + mongoServer().getLocalAddress());
     }
-}
 
+    /**
+     * Creates the indexes the repository lookups are keyed on, so they are served from the index rather than a scan of
+     * the collection, and so duplicate employees and compensations are rejected by the store.
+     *
+     * @param mongoOperations operations for the database to index.
+     */
+    public static void createIndexes(MongoOperations mongoOperations) {
+        mongoOperations.indexOps(Employee.class).ensureIndex(new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .unique());
+
+        mongoOperations.indexOps(Employee.class).ensureIndex(new Index()
+                .on("department", Sort.Direction.ASC));
+
+        mongoOperations.indexOps(Compensation.class).ensureIndex(new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("effectiveDate", Sort.Direction.ASC)
+                .unique());
+    }
+}
 
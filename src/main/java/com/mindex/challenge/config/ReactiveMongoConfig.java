@@ -0,0 +1,31 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.dao.ReactiveEmployeeRepository;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * Reactive client and repositories for the reactive profile, connected to the same embedded server as the blocking
+ * ones, which still create the indexes and load the data at startup.
+ */
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveEmployeeRepository.class)
+@Configuration
+@Profile("reactive")
+public class ReactiveMongoConfig {
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient) {
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, "test"));
+    }
+
+    @Bean(destroyMethod="close")
+    public MongoClient reactiveMongoClient(MongoServer mongoServer) {
+        return MongoClients.create("mongodb:/" + mongoServer.getLocalAddress());
+    }
+}
@@ -0,0 +1,40 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.DataBootstrap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class BootstrapController {
+    private static final Logger LOG = LoggerFactory.getLogger(BootstrapController.class);
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    /**
+     * Readiness of the data, separate from the application accepting requests: 503 until the snapshot is loaded.
+     */
+    @GetMapping("/bootstrap")
+    public ResponseEntity<Map<String, Object>> readStatus() {
+        LOG.debug("Received bootstrap status request");
+
+        DataBootstrap.Status status = dataBootstrap.getStatus();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status);
+        body.put("source", dataBootstrap.getSource());
+        body.put("employeeCount", dataBootstrap.getEmployeeCount());
+        body.put("compensationCount", dataBootstrap.getCompensationCount());
+        body.put("durationMillis", dataBootstrap.getDurationMillis());
+        return ResponseEntity.status(status == DataBootstrap.Status.READY ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(body);
+    }
+}
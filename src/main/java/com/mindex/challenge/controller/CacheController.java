@@ -0,0 +1,35 @@
+package com.mindex.challenge.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mindex.challenge.service.impl.EmployeeCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class CacheController {
+    private static final Logger LOG = LoggerFactory.getLogger(CacheController.class);
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @GetMapping("/cache/employee")
+    public Map<String, Object> readEmployeeCacheStats() {
+        LOG.debug("Received employee cache stats request");
+
+        CacheStats stats = employeeCache.stats();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", employeeCache.size());
+        body.put("hitCount", stats.hitCount());
+        body.put("missCount", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictionCount", stats.evictionCount());
+        return body;
+    }
+}
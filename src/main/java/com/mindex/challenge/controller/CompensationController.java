@@ -1,18 +1,28 @@
 package com.mindex.challenge.controller;
 
 import com.mindex.challenge.data.Compensation;
-import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.CompensationImportResult;
+import com.mindex.challenge.data.CompensationPage;
+import com.mindex.challenge.data.CompensationRollup;
 import com.mindex.challenge.service.CompensationService;
-import com.mindex.challenge.service.EmployeeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 public class CompensationController {
     private static final Logger LOG = LoggerFactory.getLogger(CompensationController.class);
 
@@ -26,10 +36,68 @@ public class CompensationController {
         return compensationService.create(compensation);
     }
 
-    @GetMapping("/compensation")
-    public List<Compensation> search(@RequestParam(value = "employeeId", required = false) String employeeId) {
+    @PostMapping(value = "/compensation/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    public CompensationImportResult importAll(InputStream inputStream) throws IOException {
+        LOG.debug("Received compensation bulk import request");
+
+        return compensationService.importAll(inputStream);
+    }
+
+    @GetMapping(value = "/compensation", params = {"!limit", "format!=ndjson"})
+    public ResponseEntity<StreamingResponseBody> search(@RequestParam(value = "employeeId", required = false) String employeeId) {
         LOG.debug("Received compensation search request with employee id [{}]", employeeId);
 
-        return compensationService.search(employeeId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> compensationService.writeAll(employeeId, false, outputStream));
+    }
+
+    @GetMapping(value = "/compensation/current", params = {"employeeId", "!department"})
+    public Compensation readAsOf(@RequestParam("employeeId") String employeeId,
+                                 @RequestParam(value = "asOf", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received current compensation request for employee id [{}] as of {}", employeeId, asOf);
+
+        return compensationService.readAsOf(employeeId, asOf == null ? LocalDate.now() : asOf);
+    }
+
+    @GetMapping(value = "/compensation/current", params = {"department", "!employeeId"})
+    public List<Compensation> readAsOfByDepartment(@RequestParam("department") String department,
+                                                   @RequestParam(value = "asOf", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received current compensation request for department [{}] as of {}", department, asOf);
+
+        return compensationService.readAsOfByDepartment(department, asOf == null ? LocalDate.now() : asOf);
+    }
+
+    @GetMapping("/compensation/rollup")
+    public List<CompensationRollup> readRollups(@RequestParam(value = "asOf", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received compensation rollup request as of {}", asOf);
+
+        return compensationService.readRollups(asOf == null ? LocalDate.now() : asOf);
+    }
+
+    @GetMapping("/compensation/rollup/{employeeId}")
+    public CompensationRollup readRollup(@PathVariable String employeeId,
+                                         @RequestParam(value = "asOf", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received compensation rollup request for employee id [{}] as of {}", employeeId, asOf);
+
+        return compensationService.readRollup(employeeId, asOf == null ? LocalDate.now() : asOf);
+    }
+
+    @GetMapping(value = "/compensation", params = {"limit", "format!=ndjson"})
+    public CompensationPage search(@RequestParam(value = "employeeId", required = false) String employeeId,
+                                   @RequestParam(value = "after", required = false) String after,
+                                   @RequestParam("limit") int limit) {
+        LOG.debug("Received compensation page request with employee id [{}], after [{}] and limit {}", employeeId, after, limit);
+
+        return compensationService.search(employeeId, after, limit);
+    }
+
+    @GetMapping(value = "/compensation", params = {"format=ndjson", "!limit"})
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(value = "employeeId", required = false) String employeeId) {
+        LOG.debug("Received compensation stream request with employee id [{}]", employeeId);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(outputStream -> compensationService.writeAll(employeeId, true, outputStream));
     }
 }
@@ -1,14 +1,23 @@
 package com.mindex.challenge.controller;
 
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePatch;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.service.EmployeeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
+@Profile("!reactive")
 public class EmployeeController {
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeController.class);
 
@@ -22,10 +31,17 @@ public class EmployeeController {
         return employeeService.create(employee);
     }
 
+    /**
+     * Answers with 304 Not Modified, without reading the employee, when the If-None-Match tag is its current version.
+     */
     @GetMapping("/employee/{id}")
-    public Employee read(@PathVariable String id) {
+    public Employee read(@PathVariable String id, WebRequest request) {
         LOG.debug("Received employee create request for id [{}]", id);
 
+        // the version is read first, so a change in between can only leave the tag older than the body
+        if( request.checkNotModified(employeeService.readVersion(id, false)) ) {
+            return null;
+        }
         return employeeService.read(id);
     }
 
@@ -37,10 +53,45 @@ public class EmployeeController {
         return employeeService.update(employee);
     }
 
+    @PatchMapping("/employee/{id}")
+    public Employee patch(@PathVariable String id, @RequestBody EmployeePatch patch) {
+        LOG.debug("Received employee patch request for id [{}]", id);
+
+        return employeeService.patch(id, patch);
+    }
+
+    /**
+     * Answers with 304 Not Modified, without counting the reports, when the If-None-Match tag is the current version
+     * of the employee and everyone under it.
+     */
     @GetMapping("/employee/{id}/reporting-structure")
-    public ReportingStructure readReportingStructure(@PathVariable String id) {
+    public ReportingStructure readReportingStructure(@PathVariable String id, WebRequest request) {
         LOG.debug("Received employee create request for id [{}]", id);
 
+        if( request.checkNotModified(employeeService.readVersion(id, true)) ) {
+            return null;
+        }
         return employeeService.readReportingStructure(id);
     }
+
+    @GetMapping(value = "/employee/{id}/reporting-structure", params = "expand=tree")
+    public ResponseEntity<StreamingResponseBody> readReportingTree(@PathVariable String id,
+                                                                   @RequestParam(value = "depth", required = false) Integer depth) {
+        LOG.debug("Received reporting tree request for id [{}] and depth {}", id, depth);
+
+        // read the structure up front so invalid employees and structures fail before the response starts
+        ReportingStructure reportingStructure = employeeService.readReportingStructure(id);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> employeeService.writeReportingTree(reportingStructure,
+                        depth == null ? Integer.MAX_VALUE : depth, outputStream));
+    }
+
+    @PostMapping("/employee/reporting-structure")
+    public List<ReportingStructure> readReportingStructures(@RequestBody List<String> ids) {
+        LOG.debug("Received reporting structure batch request for ids [{}]", ids);
+
+        return employeeService.readReportingStructures(ids);
+    }
 }
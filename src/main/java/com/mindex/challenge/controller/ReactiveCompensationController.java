@@ -0,0 +1,56 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.service.ReactiveCompensationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+
+/**
+ * Compensation endpoints of the reactive profile, with the same paths and bodies as the matching endpoints of
+ * {@link CompensationController}. A search is written as the compensations are read. Bulk imports, paged and ndjson
+ * searches, current compensation by department and rollups are not served, and a paged or ndjson search is rejected
+ * rather than answered with the whole search.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveCompensationController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveCompensationController.class);
+
+    @Autowired
+    private ReactiveCompensationService compensationService;
+
+    @PostMapping("/compensation")
+    public Mono<Compensation> create(@Valid @RequestBody Compensation compensation) {
+        LOG.debug("Received compensation create request for [{}]", compensation);
+
+        return compensationService.create(compensation);
+    }
+
+    @GetMapping(value = "/compensation", params = { "!limit", "!format" })
+    public Flux<Compensation> search(@RequestParam(value = "employeeId", required = false) String employeeId) {
+        LOG.debug("Received compensation search request with employee id [{}]", employeeId);
+
+        return compensationService.search(employeeId);
+    }
+
+    @GetMapping(value = "/compensation/current", params = "employeeId")
+    public Mono<Compensation> readAsOf(@RequestParam("employeeId") String employeeId,
+                                       @RequestParam(value = "asOf", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received current compensation request for employee id [{}] as of {}", employeeId, asOf);
+
+        return compensationService.readAsOf(employeeId, asOf == null ? LocalDate.now() : asOf);
+    }
+}
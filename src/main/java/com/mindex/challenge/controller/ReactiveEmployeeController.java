@@ -0,0 +1,63 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Employee endpoints of the reactive profile, with the same paths and bodies as {@link EmployeeController}. Patches,
+ * expanded reporting trees and batches of reporting structures are not served, and a request for an expanded tree is
+ * rejected rather than answered with the plain structure.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveEmployeeController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeController.class);
+
+    @Autowired
+    private ReactiveEmployeeService employeeService;
+
+    @PostMapping("/employee")
+    public Mono<Employee> create(@RequestBody Employee employee) {
+        LOG.debug("Received employee create request for [{}]", employee);
+
+        return employeeService.create(employee);
+    }
+
+    @GetMapping("/employee/{id}")
+    public Mono<Employee> read(@PathVariable String id, ServerWebExchange exchange) {
+        LOG.debug("Received employee read request for id [{}]", id);
+
+        // the version is read first, so a change in between can only leave the tag older than the body
+        return notModified(employeeService.readVersion(id, false), exchange)
+                .flatMap(notModified -> notModified ? Mono.<Employee>empty() : employeeService.read(id));
+    }
+
+    @PutMapping("/employee/{id}")
+    public Mono<Employee> update(@PathVariable String id, @RequestBody Employee employee) {
+        LOG.debug("Received employee update request for id [{}] and employee [{}]", id, employee);
+
+        employee.setEmployeeId(id);
+        return employeeService.update(employee);
+    }
+
+    @GetMapping(value = "/employee/{id}/reporting-structure", params = "!expand")
+    public Mono<ReportingStructure> readReportingStructure(@PathVariable String id, ServerWebExchange exchange) {
+        LOG.debug("Received reporting structure request for id [{}]", id);
+
+        return notModified(employeeService.readVersion(id, true), exchange)
+                .flatMap(notModified -> notModified ? Mono.<ReportingStructure>empty() : employeeService.readReportingStructure(id));
+    }
+
+    private static Mono<Boolean> notModified(Mono<String> version, ServerWebExchange exchange) {
+        return version.map(exchange::checkNotModified)
+                .defaultIfEmpty(false);
+    }
+}
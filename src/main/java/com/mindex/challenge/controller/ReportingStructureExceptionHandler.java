@@ -0,0 +1,30 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.graph.ReportingStructureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestControllerAdvice
+public class ReportingStructureExceptionHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(ReportingStructureExceptionHandler.class);
+
+    @ExceptionHandler(ReportingStructureException.class)
+    public ResponseEntity<Map<String, Object>> handleReportingStructureException(ReportingStructureException e) {
+        LOG.warn("Unable to walk reporting structure: {}", e.getMessage());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        body.put("error", e.getCode());
+        body.put("message", e.getMessage());
+        body.putAll(e.getDetails());
+
+        return ResponseEntity.unprocessableEntity().body(body);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.SnapshotResult;
+import com.mindex.challenge.service.SnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+public class SnapshotController {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotController.class);
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @PostMapping("/snapshot")
+    public SnapshotResult write() throws IOException {
+        LOG.debug("Received snapshot write request");
+
+        return snapshotService.write();
+    }
+}
@@ -0,0 +1,34 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.List;
+import java.util.Set;
+
+public interface CompensationRepositoryCustom {
+    /**
+     * Inserts the compensations in a single unordered batch, so one duplicate doesn't stop the rest of the batch.
+     *
+     * @param compensations the compensations to insert.
+     * @return the positions in compensations that were rejected as duplicates.
+     */
+    Set<Integer> insertAllIgnoringDuplicates(List<Compensation> compensations);
+
+    /**
+     * Reads compensations in id order, starting after the given id, so consecutive pages are read from the _id index
+     * without skipping over earlier pages.
+     *
+     * @param employeeId id of the employee to read compensations for, or null for all employees.
+     * @param afterId id of the last compensation of the previous page, or null for the first page.
+     * @param limit maximum number of compensations to read.
+     */
+    List<Compensation> findPage(String employeeId, String afterId, int limit);
+
+    /**
+     * Reads compensations through a cursor, a batch at a time. The iterator must be closed.
+     *
+     * @param employeeId id of the employee to read compensations for, or null for all employees.
+     */
+    CloseableIterator<Compensation> streamAll(String employeeId);
+}
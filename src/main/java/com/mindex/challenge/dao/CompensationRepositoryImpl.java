@@ -0,0 +1,96 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class CompensationRepositoryImpl implements CompensationRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Set<Integer> insertAllIgnoringDuplicates(List<Compensation> compensations) {
+        if( compensations.isEmpty() ) {
+            return Collections.emptySet();
+        }
+
+        List<String> ids = new ArrayList<>(compensations.size());
+        for( Compensation compensation : compensations ) {
+            if( compensation.getId() == null ) {
+                compensation.setId(new ObjectId().toHexString());
+            }
+            ids.add(compensation.getId());
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Compensation.class)
+                    .insert(compensations)
+                    .execute();
+            return Collections.emptySet();
+        } catch (DuplicateKeyException e) {
+            if( e.getCause() instanceof MongoBulkWriteException ) {
+                for( BulkWriteError error : ((MongoBulkWriteException) e.getCause()).getWriteErrors() ) {
+                    if( ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY ) {
+                        throw e;
+                    }
+                }
+            }
+
+            // not every server reports the position of a failed write reliably, so look up which writes made it
+            Query inserted = query(where("_id").in(ids));
+            inserted.fields().include("_id");
+            Set<String> insertedIds = new HashSet<>();
+            for( Compensation compensation : mongoTemplate.find(inserted, Compensation.class) ) {
+                insertedIds.add(compensation.getId());
+            }
+
+            Set<Integer> duplicates = new LinkedHashSet<>();
+            for( int i = 0; i < ids.size(); i++ ) {
+                if( !insertedIds.contains(ids.get(i)) ) {
+                    duplicates.add(i);
+                }
+            }
+            return duplicates;
+        }
+    }
+
+    @Override
+    public List<Compensation> findPage(String employeeId, String afterId, int limit) {
+        Query query = byEmployeeId(employeeId);
+        if( afterId != null ) {
+            query.addCriteria(where("_id").gt(new ObjectId(afterId)));
+        }
+        query.with(Sort.by("_id")).limit(limit);
+
+        return mongoTemplate.find(query, Compensation.class);
+    }
+
+    @Override
+    public CloseableIterator<Compensation> streamAll(String employeeId) {
+        return mongoTemplate.stream(byEmployeeId(employeeId), Compensation.class);
+    }
+
+    private static Query byEmployeeId(String employeeId) {
+        return employeeId == null ? new Query() : query(where("employeeId").is(employeeId));
+    }
+}
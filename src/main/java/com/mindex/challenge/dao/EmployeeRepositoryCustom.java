@@ -0,0 +1,40 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePatch;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.List;
+import java.util.Set;
+
+public interface EmployeeRepositoryCustom {
+    /**
+     * Inserts the employees in a single unordered batch, so an employee already stored doesn't stop the rest of the
+     * batch.
+     *
+     * @param employees the employees to insert.
+     * @return the positions in employees that were rejected as duplicates.
+     */
+    Set<Integer> insertAllIgnoringDuplicates(List<Employee> employees);
+
+    /**
+     * Replaces the stored employee with the same employeeId in place, inserting it if there is none.
+     *
+     * @param employee the new version of the employee.
+     * @return the stored employee.
+     */
+    Employee replaceByEmployeeId(Employee employee);
+
+    /**
+     * Applies the patch to the stored employee with the employeeId in place, without rewriting the fields and direct
+     * reports it doesn't change.
+     *
+     * @return the stored employee after the patch, or null if there is none.
+     */
+    Employee patchByEmployeeId(String employeeId, EmployeePatch patch);
+
+    /**
+     * Reads every employee through a cursor, a batch at a time. The iterator must be closed.
+     */
+    CloseableIterator<Employee> streamAll();
+}
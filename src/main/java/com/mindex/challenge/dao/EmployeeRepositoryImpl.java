@@ -0,0 +1,174 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePatch;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Employees have no id property, so each is inserted as a document with an _id assigned here, which tells the
+     * documents inserted apart from those rejected.
+     */
+    @Override
+    public Set<Integer> insertAllIgnoringDuplicates(List<Employee> employees) {
+        if( employees.isEmpty() ) {
+            return Collections.emptySet();
+        }
+
+        List<Document> documents = new ArrayList<>(employees.size());
+        List<ObjectId> ids = new ArrayList<>(employees.size());
+        for( Employee employee : employees ) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(employee, document);
+            ObjectId id = new ObjectId();
+            document.put("_id", id);
+            documents.add(document);
+            ids.add(id);
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Employee.class)
+                    .insert(documents)
+                    .execute();
+            return Collections.emptySet();
+        } catch (DuplicateKeyException e) {
+            if( e.getCause() instanceof MongoBulkWriteException ) {
+                for( BulkWriteError error : ((MongoBulkWriteException) e.getCause()).getWriteErrors() ) {
+                    if( ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY ) {
+                        throw e;
+                    }
+                }
+            }
+
+            // not every server reports the position of a failed write reliably, so look up which writes made it
+            Query inserted = query(where("_id").in(ids));
+            inserted.fields().include("_id");
+            Set<Object> insertedIds = new HashSet<>();
+            for( Document document : mongoTemplate.find(inserted, Document.class, mongoTemplate.getCollectionName(Employee.class)) ) {
+                insertedIds.add(document.get("_id"));
+            }
+
+            Set<Integer> duplicates = new LinkedHashSet<>();
+            for( int i = 0; i < ids.size(); i++ ) {
+                if( !insertedIds.contains(ids.get(i)) ) {
+                    duplicates.add(i);
+                }
+            }
+            return duplicates;
+        }
+    }
+
+    @Override
+    public Employee replaceByEmployeeId(Employee employee) {
+        mongoTemplate.findAndReplace(query(where("employeeId").is(employee.getEmployeeId())),
+                employee,
+                FindAndReplaceOptions.options().upsert());
+
+        return employee;
+    }
+
+    /**
+     * Sets the changed fields and the direct reports in a single update. When the direct reports change, they are read
+     * first and the update only applies if they are still as read, so a concurrent change to them is never lost: the
+     * patch is applied again to what that change left.
+     */
+    @Override
+    public Employee patchByEmployeeId(String employeeId, EmployeePatch patch) {
+        Query byEmployeeId = query(where("employeeId").is(employeeId));
+        boolean changesReports = isNotEmpty(patch.getAddDirectReports()) || isNotEmpty(patch.getRemoveDirectReports());
+
+        while( true ) {
+            Query guarded = byEmployeeId;
+            Update update = new Update();
+            setIfPresent(update, "firstName", patch.getFirstName());
+            setIfPresent(update, "lastName", patch.getLastName());
+            setIfPresent(update, "position", patch.getPosition());
+            setIfPresent(update, "department", patch.getDepartment());
+
+            if( changesReports ) {
+                Document stored = mongoTemplate.findOne(byEmployeeId, Document.class, mongoTemplate.getCollectionName(Employee.class));
+                if( stored == null ) {
+                    return null;
+                }
+
+                @SuppressWarnings("unchecked")
+                List<Document> directReports = (List<Document>) stored.get("directReports");
+                guarded = query(where("employeeId").is(employeeId).and("directReports").is(directReports));
+                update.set("directReports", patchDirectReports(directReports, patch));
+            }
+
+            if( update.getUpdateObject().isEmpty() ) {
+                return mongoTemplate.findOne(byEmployeeId, Employee.class);
+            }
+            Employee patched = mongoTemplate.findAndModify(guarded, update, FindAndModifyOptions.options().returnNew(true), Employee.class);
+            if( patched != null || !changesReports ) {
+                return patched;
+            }
+        }
+    }
+
+    private static void setIfPresent(Update update, String key, Object value) {
+        if( value != null ) {
+            update.set(key, value);
+        }
+    }
+
+    private static boolean isNotEmpty(List<String> employeeIds) {
+        return employeeIds != null && !employeeIds.isEmpty();
+    }
+
+    /**
+     * @return the stored direct reports without those removed, followed by those added that aren't there already.
+     */
+    private static List<Document> patchDirectReports(List<Document> directReports, EmployeePatch patch) {
+        Map<Object, Document> patched = new LinkedHashMap<>();
+        if( directReports != null ) {
+            for( Document directReport : directReports ) {
+                patched.putIfAbsent(directReport.get("employeeId"), directReport);
+            }
+        }
+        if( patch.getRemoveDirectReports() != null ) {
+            patched.keySet().removeAll(patch.getRemoveDirectReports());
+        }
+        if( patch.getAddDirectReports() != null ) {
+            for( String directReportId : patch.getAddDirectReports() ) {
+                patched.putIfAbsent(directReportId, new Document("employeeId", directReportId));
+            }
+        }
+        return new ArrayList<>(patched.values());
+    }
+
+    @Override
+    public CloseableIterator<Employee> streamAll() {
+        return mongoTemplate.stream(new Query(), Employee.class);
+    }
+}
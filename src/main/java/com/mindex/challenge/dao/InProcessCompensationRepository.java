@@ -0,0 +1,133 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Compensation repository for the inprocess profile. Compensations are keyed by id, given an ObjectId when they have
+ * none as Mongo does, and indexed by employee in id order. An employee's compensations must have different effective
+ * dates, as with the unique index created by MongoConfig.
+ */
+@Repository
+@Profile("inprocess")
+public class InProcessCompensationRepository extends InProcessRepository<Compensation> implements CompensationRepository {
+    private final ConcurrentMap<String, ConcurrentNavigableMap<String, Compensation>> employees = new ConcurrentHashMap<>();
+
+    @Override
+    public Set<Integer> insertAllIgnoringDuplicates(List<Compensation> compensations) {
+        Set<Integer> duplicates = new LinkedHashSet<>();
+        for( int i = 0; i < compensations.size(); i++ ) {
+            try {
+                insert(compensations.get(i));
+            } catch (DuplicateKeyException e) {
+                duplicates.add(i);
+            }
+        }
+        return duplicates;
+    }
+
+    @Override
+    public List<Compensation> findPage(String employeeId, String afterId, int limit) {
+        NavigableMap<String, Compensation> compensations = byEmployeeId(employeeId);
+        if( afterId != null ) {
+            compensations = compensations.tailMap(afterId, false);
+        }
+        return read(compensations.values().iterator(), limit);
+    }
+
+    @Override
+    public CloseableIterator<Compensation> streamAll(String employeeId) {
+        return stream(byEmployeeId(employeeId).values().iterator());
+    }
+
+    @Override
+    protected String key(Compensation compensation) {
+        return compensation.getId();
+    }
+
+    @Override
+    protected void assignKey(Compensation compensation) {
+        if( compensation.getId() == null ) {
+            compensation.setId(new ObjectId().toHexString());
+        }
+    }
+
+    /**
+     * Copies the compensation as it would be read back from Mongo, with an employee holding only the employeeId.
+     */
+    @Override
+    protected Compensation copy(Compensation compensation) {
+        Employee employee = null;
+        if( compensation.getEmployeeId() != null ) {
+            employee = new Employee();
+            employee.setEmployeeId(compensation.getEmployeeId());
+        }
+
+        Compensation copy = new Compensation();
+        copy.setId(compensation.getId());
+        copy.setEmployee(employee);
+        copy.setSalary(compensation.getSalary());
+        copy.setEffectiveDate(compensation.getEffectiveDate());
+        return copy;
+    }
+
+    @Override
+    protected void checkUnique(Compensation compensation, Compensation previous) {
+        if( compensation.getEmployeeId() == null ) {
+            return;
+        }
+
+        for( Compensation other : byEmployeeId(compensation.getEmployeeId()).values() ) {
+            if( !other.getId().equals(compensation.getId()) && Objects.equals(other.getEffectiveDate(), compensation.getEffectiveDate()) ) {
+                throw new DuplicateKeyException("Duplicate compensation for employee " + compensation.getEmployeeId()
+                        + " on " + compensation.getEffectiveDate());
+            }
+        }
+    }
+
+    @Override
+    protected void index(Compensation compensation) {
+        if( compensation.getEmployeeId() != null ) {
+            employees.computeIfAbsent(compensation.getEmployeeId(), employeeId -> new ConcurrentSkipListMap<>())
+                    .put(compensation.getId(), compensation);
+        }
+    }
+
+    @Override
+    protected void unindex(Compensation compensation) {
+        if( compensation.getEmployeeId() != null ) {
+            employees.computeIfPresent(compensation.getEmployeeId(), (employeeId, compensations) -> {
+                compensations.remove(compensation.getId());
+                return compensations.isEmpty() ? null : compensations;
+            });
+        }
+    }
+
+    /**
+     * @return the employee's compensations in id order, or every compensation if employeeId is null.
+     */
+    private NavigableMap<String, Compensation> byEmployeeId(String employeeId) {
+        if( employeeId == null ) {
+            return entities;
+        }
+
+        NavigableMap<String, Compensation> compensations = employees.get(employeeId);
+        return compensations == null ? Collections.emptyNavigableMap() : compensations;
+    }
+}
@@ -0,0 +1,157 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePatch;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Employee repository for the inprocess profile. Employees are keyed by employeeId, which is also the id findById
+ * and deleteById take, and indexed by department.
+ */
+@Repository
+@Profile("inprocess")
+public class InProcessEmployeeRepository extends InProcessRepository<Employee> implements EmployeeRepository {
+    private final ConcurrentMap<String, Set<String>> departments = new ConcurrentHashMap<>();
+
+    @Override
+    public Set<Integer> insertAllIgnoringDuplicates(List<Employee> employees) {
+        Set<Integer> duplicates = new LinkedHashSet<>();
+        for( int i = 0; i < employees.size(); i++ ) {
+            try {
+                insert(employees.get(i));
+            } catch (DuplicateKeyException e) {
+                duplicates.add(i);
+            }
+        }
+        return duplicates;
+    }
+
+    @Override
+    public Employee findByEmployeeId(String employeeId) {
+        return employeeId == null ? null : read(entities.get(employeeId));
+    }
+
+    @Override
+    public List<Employee> findAllByEmployeeIdIn(Collection<String> employeeIds) {
+        List<Employee> employees = new ArrayList<>(employeeIds.size());
+        for( String employeeId : new LinkedHashSet<>(employeeIds) ) {
+            Employee employee = findByEmployeeId(employeeId);
+            if( employee != null ) {
+                employees.add(employee);
+            }
+        }
+        return employees;
+    }
+
+    @Override
+    public List<Employee> findAllByDepartment(String department) {
+        Set<String> employeeIds = department == null ? null : departments.get(department);
+        return employeeIds == null ? Collections.emptyList() : findAllByEmployeeIdIn(employeeIds);
+    }
+
+    @Override
+    public Employee replaceByEmployeeId(Employee employee) {
+        return save(employee);
+    }
+
+    @Override
+    public Employee patchByEmployeeId(String employeeId, EmployeePatch patch) {
+        return employeeId == null ? null : update(employeeId, employee -> {
+            if( patch.getFirstName() != null ) {
+                employee.setFirstName(patch.getFirstName());
+            }
+            if( patch.getLastName() != null ) {
+                employee.setLastName(patch.getLastName());
+            }
+            if( patch.getPosition() != null ) {
+                employee.setPosition(patch.getPosition());
+            }
+            if( patch.getDepartment() != null ) {
+                employee.setDepartment(patch.getDepartment());
+            }
+            if( patch.getRemoveDirectReports() == null && patch.getAddDirectReports() == null ) {
+                return;
+            }
+
+            // removals first, as the Mongo repository applies them
+            Map<String, Employee> directReports = new LinkedHashMap<>();
+            if( employee.getDirectReports() != null ) {
+                for( Employee directReport : employee.getDirectReports() ) {
+                    directReports.putIfAbsent(directReport.getEmployeeId(), directReport);
+                }
+            }
+            if( patch.getRemoveDirectReports() != null ) {
+                directReports.keySet().removeAll(patch.getRemoveDirectReports());
+            }
+            if( patch.getAddDirectReports() != null ) {
+                for( String directReportId : patch.getAddDirectReports() ) {
+                    Employee directReport = new Employee();
+                    directReport.setEmployeeId(directReportId);
+                    directReports.putIfAbsent(directReportId, directReport);
+                }
+            }
+            employee.setDirectReports(new ArrayList<>(directReports.values()));
+        });
+    }
+
+    @Override
+    public CloseableIterator<Employee> streamAll() {
+        return stream(entities.values().iterator());
+    }
+
+    @Override
+    protected String key(Employee employee) {
+        return employee.getEmployeeId();
+    }
+
+    @Override
+    protected Employee copy(Employee employee) {
+        Employee copy = new Employee();
+        copy.setEmployeeId(employee.getEmployeeId());
+        copy.setFirstName(employee.getFirstName());
+        copy.setLastName(employee.getLastName());
+        copy.setPosition(employee.getPosition());
+        copy.setDepartment(employee.getDepartment());
+
+        if( employee.getDirectReports() != null ) {
+            List<Employee> directReports = new ArrayList<>(employee.getDirectReports().size());
+            for( Employee directReport : employee.getDirectReports() ) {
+                directReports.add(directReport == null ? null : copy(directReport));
+            }
+            copy.setDirectReports(directReports);
+        }
+        return copy;
+    }
+
+    @Override
+    protected void index(Employee employee) {
+        if( employee.getDepartment() != null ) {
+            departments.computeIfAbsent(employee.getDepartment(), department -> ConcurrentHashMap.newKeySet())
+                    .add(employee.getEmployeeId());
+        }
+    }
+
+    @Override
+    protected void unindex(Employee employee) {
+        if( employee.getDepartment() != null ) {
+            departments.computeIfPresent(employee.getDepartment(), (department, employeeIds) -> {
+                employeeIds.remove(employee.getEmployeeId());
+                return employeeIds.isEmpty() ? null : employeeIds;
+            });
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.mindex.challenge.dao;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Base of the repositories used with the inprocess profile, which keep entities in concurrent maps in the
+ * application's own heap rather than sending every call through the Mongo wire protocol.
+ *
+ * Entities are copied when they are stored and when they are read, so changing an entity after passing it in or
+ * reading it doesn't change what is stored, as with Mongo. Reads don't lock. Writes are applied one at a time, so a
+ * unique key can be checked and claimed in one step.
+ *
+ * Sorting and query by example read the entity's fields as Mongo maps them into a document, skipping static, transient
+ * and {@link Transient} fields, and scan every entity, as Mongo does without an index. A missing or null value sorts
+ * before any other.
+ *
+ * @param <T> the entity type.
+ */
+abstract class InProcessRepository<T> implements MongoRepository<T, String> {
+    private static final ConcurrentMap<Class<?>, Map<String, Field>> FIELDS = new ConcurrentHashMap<>();
+
+    protected final ConcurrentNavigableMap<String, T> entities = new ConcurrentSkipListMap<>();
+    private final Object writeLock = new Object();
+
+    /**
+     * @return the key the entity is stored under.
+     */
+    protected abstract String key(T entity);
+
+    protected abstract T copy(T entity);
+
+    /**
+     * Gives the entity a key if it doesn't have one yet, before it is inserted or saved.
+     */
+    protected void assignKey(T entity) {
+    }
+
+    /**
+     * Throws a {@link DuplicateKeyException} if storing the entity in place of the previous one would break a unique
+     * index other than the key.
+     *
+     * @param previous the entity stored under the same key, or null if there is none.
+     */
+    protected void checkUnique(T entity, T previous) {
+    }
+
+    /**
+     * Adds the stored entity to the secondary indexes.
+     */
+    protected void index(T entity) {
+    }
+
+    /**
+     * Removes the stored entity from the secondary indexes.
+     */
+    protected void unindex(T entity) {
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        return store(entity, false);
+    }
+
+    /**
+     * Inserts the entities in order, stopping at the first duplicate, as an ordered Mongo insert does.
+     */
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        for( S entity : entities ) {
+            inserted.add(insert(entity));
+        }
+        return inserted;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        return store(entity, true);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for( S entity : entities ) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<T> findById(String key) {
+        return Optional.ofNullable(read(entities.get(key)));
+    }
+
+    @Override
+    public boolean existsById(String key) {
+        return entities.containsKey(key);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return read(entities.values().iterator(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return sort(findAll(), sort);
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        if( pageable.isUnpaged() ) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        if( pageable.getSort().isSorted() ) {
+            return page(findAll(pageable.getSort()), pageable);
+        }
+
+        Iterator<T> iterator = entities.values().iterator();
+        for( long skipped = 0; skipped < pageable.getOffset() && iterator.hasNext(); skipped++ ) {
+            iterator.next();
+        }
+        return new PageImpl<>(read(iterator, pageable.getPageSize()), pageable, entities.size());
+    }
+
+    @Override
+    public Iterable<T> findAllById(Iterable<String> keys) {
+        List<T> found = new ArrayList<>();
+        for( String key : keys ) {
+            T entity = entities.get(key);
+            if( entity != null ) {
+                found.add(copy(entity));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public void deleteById(String key) {
+        synchronized( writeLock ) {
+            T previous = entities.remove(key);
+            if( previous != null ) {
+                unindex(previous);
+            }
+        }
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(key(entity));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        for( T entity : entities ) {
+            delete(entity);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        synchronized( writeLock ) {
+            for( String key : entities.keySet() ) {
+                deleteById(key);
+            }
+        }
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        List<S> found = find(example, 1);
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return find(example, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return sort(findAll(example), sort);
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        List<S> found = findAll(example, pageable.getSort());
+        return pageable.isUnpaged() ? new PageImpl<>(found) : page(found, pageable);
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        Predicate<Object> matcher = matcher(example);
+        long count = 0;
+        for( T entity : entities.values() ) {
+            if( matcher.test(entity) ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        Predicate<Object> matcher = matcher(example);
+        for( T entity : entities.values() ) {
+            if( matcher.test(entity) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a copy of the stored entity, or null if there is none.
+     */
+    protected T read(T entity) {
+        return entity == null ? null : copy(entity);
+    }
+
+    /**
+     * @return copies of up to limit stored entities from the iterator.
+     */
+    protected List<T> read(Iterator<T> iterator, int limit) {
+        List<T> read = new ArrayList<>();
+        while( read.size() < limit && iterator.hasNext() ) {
+            read.add(copy(iterator.next()));
+        }
+        return read;
+    }
+
+    /**
+     * @return an iterator copying each stored entity as it is reached. Like a Mongo cursor, it may or may not see
+     * writes made while it is open.
+     */
+    protected CloseableIterator<T> stream(Iterator<T> iterator) {
+        return new CloseableIterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return copy(iterator.next());
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private <S extends T> S store(S entity, boolean replace) {
+        assignKey(entity);
+        String key = key(entity);
+        if( key == null ) {
+            throw new IllegalArgumentException("Can't store an entity without a key");
+        }
+
+        T stored = copy(entity);
+        synchronized( writeLock ) {
+            T previous = entities.get(key);
+            if( previous != null && !replace ) {
+                throw new DuplicateKeyException("Duplicate key: " + key);
+            }
+            checkUnique(stored, previous);
+
+            if( previous != null ) {
+                unindex(previous);
+            }
+            entities.put(key, stored);
+            index(stored);
+        }
+        return entity;
+    }
+
+    /**
+     * Applies the change to a copy of the stored entity and stores the copy in its place, atomically with any other
+     * write.
+     *
+     * @return the changed entity, or null if there is none with the key.
+     */
+    protected T update(String key, Consumer<T> change) {
+        synchronized( writeLock ) {
+            T previous = entities.get(key);
+            if( previous == null ) {
+                return null;
+            }
+
+            T stored = copy(previous);
+            change.accept(stored);
+            checkUnique(stored, previous);
+
+            unindex(previous);
+            entities.put(key, stored);
+            index(stored);
+            return read(stored);
+        }
+    }
+
+    /**
+     * @return copies of up to limit stored entities matching the example, in key order.
+     */
+    private <S extends T> List<S> find(Example<S> example, int limit) {
+        Predicate<Object> matcher = matcher(example);
+        List<S> found = new ArrayList<>();
+        Iterator<T> iterator = entities.values().iterator();
+        while( found.size() < limit && iterator.hasNext() ) {
+            T entity = iterator.next();
+            if( matcher.test(entity) ) {
+                found.add(example.getProbeType().cast(copy(entity)));
+            }
+        }
+        return found;
+    }
+
+    private static <E> List<E> sort(List<E> found, Sort sort) {
+        Comparator<Object> comparator = null;
+        for( Sort.Order order : sort ) {
+            Comparator<Object> next = (a, b) ->
+                    compare(value(a, order.getProperty()), value(b, order.getProperty()), order.isIgnoreCase());
+            if( order.isDescending() ) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        if( comparator != null ) {
+            // the sort is stable, so ties stay in key order
+            found.sort(comparator);
+        }
+        return found;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b, boolean ignoreCase) {
+        if( a == null || b == null ) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if( ignoreCase && a instanceof String && b instanceof String ) {
+            return String.CASE_INSENSITIVE_ORDER.compare((String) a, (String) b);
+        }
+        if( !(a instanceof Comparable) || !a.getClass().isInstance(b) ) {
+            throw new IllegalArgumentException("Can't compare " + a.getClass().getSimpleName() + " with " + b.getClass().getSimpleName());
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    private static <E> Page<E> page(List<E> found, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), found.size());
+        int to = (int) Math.min((long) from + pageable.getPageSize(), found.size());
+        return new PageImpl<>(new ArrayList<>(found.subList(from, to)), pageable, found.size());
+    }
+
+    /**
+     * Builds the criteria of the example as Mongo's query by example does: every field of the probe that is set, or
+     * that is null when null values are included, must match the same field of the entity, or any of them must when
+     * the matcher matches any. Primitives are always set. Strings are matched as the matcher says, nested objects
+     * field by field, and collections must be the same.
+     */
+    private static Predicate<Object> matcher(Example<?> example) {
+        Map<String, Predicate<Object>> criteria = new LinkedHashMap<>();
+        criteria(example.getProbe(), "", new ExampleMatcherAccessor(example.getMatcher()), criteria);
+
+        Class<?> probeType = example.getProbeType();
+        boolean all = example.getMatcher().isAllMatching();
+        return entity -> {
+            if( !probeType.isInstance(entity) ) {
+                return false;
+            }
+            for( Map.Entry<String, Predicate<Object>> criterion : criteria.entrySet() ) {
+                if( criterion.getValue().test(value(entity, criterion.getKey())) != all ) {
+                    return !all;
+                }
+            }
+            return all || criteria.isEmpty();
+        };
+    }
+
+    private static void criteria(Object probe, String prefix, ExampleMatcherAccessor matcher, Map<String, Predicate<Object>> criteria) {
+        for( Field field : fields(probe.getClass()).values() ) {
+            String path = prefix + field.getName();
+            if( matcher.isIgnoredPath(path) ) {
+                continue;
+            }
+
+            Object value = matcher.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(ReflectionUtils.getField(field, probe)))
+                    .orElse(null);
+            if( value == null ) {
+                if( matcher.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE ) {
+                    criteria.put(path, actual -> actual == null);
+                }
+            } else if( value instanceof String ) {
+                criteria.put(path, matcher((String) value, matcher.getStringMatcherForPath(path), matcher.isIgnoreCaseForPath(path)));
+            } else if( BeanUtils.isSimpleValueType(value.getClass()) || value instanceof Collection ) {
+                criteria.put(path, actual -> same(value, actual));
+            } else {
+                criteria(value, path + ".", matcher, criteria);
+            }
+        }
+    }
+
+    private static Predicate<Object> matcher(String probe, ExampleMatcher.StringMatcher stringMatcher, boolean ignoreCase) {
+        String regex;
+        switch( stringMatcher ) {
+            case STARTING:
+                regex = "^" + Pattern.quote(probe);
+                break;
+            case ENDING:
+                regex = Pattern.quote(probe) + "$";
+                break;
+            case CONTAINING:
+                regex = Pattern.quote(probe);
+                break;
+            case REGEX:
+                regex = probe;
+                break;
+            default:
+                if( !ignoreCase ) {
+                    return probe::equals;
+                }
+                regex = "^" + Pattern.quote(probe) + "$";
+        }
+
+        Pattern pattern = Pattern.compile(regex, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+        return actual -> actual instanceof String && pattern.matcher((String) actual).find();
+    }
+
+    /**
+     * @return true if the values are equal, comparing collections element by element and other objects field by field,
+     * as Mongo compares embedded documents.
+     */
+    private static boolean same(Object expected, Object actual) {
+        if( expected == null || actual == null ) {
+            return expected == actual;
+        }
+        if( BeanUtils.isSimpleValueType(expected.getClass()) ) {
+            return expected.equals(actual);
+        }
+        if( expected instanceof Collection ) {
+            if( !(actual instanceof Collection) || ((Collection<?>) expected).size() != ((Collection<?>) actual).size() ) {
+                return false;
+            }
+            Iterator<?> actualIterator = ((Collection<?>) actual).iterator();
+            for( Object element : (Collection<?>) expected ) {
+                if( !same(element, actualIterator.next()) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if( expected.getClass() != actual.getClass() ) {
+            return false;
+        }
+        for( Field field : fields(expected.getClass()).values() ) {
+            if( !same(ReflectionUtils.getField(field, expected), ReflectionUtils.getField(field, actual)) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param path field names separated by dots.
+     * @return the value at the path, or null if the path passes through a null.
+     */
+    private static Object value(Object entity, String path) {
+        Object value = entity;
+        for( String name : path.split("\\.") ) {
+            if( value == null ) {
+                return null;
+            }
+            Field field = fields(value.getClass()).get(name);
+            if( field == null ) {
+                throw new IllegalArgumentException("No property " + name + " found on " + value.getClass().getSimpleName());
+            }
+            value = ReflectionUtils.getField(field, value);
+        }
+        return value;
+    }
+
+    /**
+     * @return the fields Mongo would map into the type's document, by name.
+     */
+    private static Map<String, Field> fields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            Map<String, Field> fields = new LinkedHashMap<>();
+            ReflectionUtils.doWithFields(t, field -> {
+                ReflectionUtils.makeAccessible(field);
+                fields.putIfAbsent(field.getName(), field);
+            }, field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())
+                    && !field.isAnnotationPresent(Transient.class));
+            return fields;
+        });
+    }
+}
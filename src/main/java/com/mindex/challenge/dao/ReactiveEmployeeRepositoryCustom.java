@@ -0,0 +1,11 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeRepositoryCustom {
+    /**
+     * Replaces the employee with the same employee id, inserting it if there isn't one.
+     */
+    Mono<Employee> replaceByEmployeeId(Employee employee);
+}
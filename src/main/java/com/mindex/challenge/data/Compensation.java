@@ -1,5 +1,8 @@
 package com.mindex.challenge.data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 
@@ -10,6 +13,15 @@ import java.time.LocalDate;
 import java.util.Date;
 
 public class Compensation {
+    @Id
+    @JsonIgnore
+    private String id;
+
+    // only the employee's id is stored; the employee is resolved from the employee collection when read
+    @JsonIgnore
+    private String employeeId;
+
+    @Transient
     @Valid
     private Employee employee;
 
@@ -22,12 +34,25 @@ public class Compensation {
     public Compensation() {
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
     public Employee getEmployee() {
         return employee;
     }
 
     public void setEmployee(Employee employee) {
         this.employee = employee;
+        this.employeeId = employee == null ? null : employee.getEmployeeId();
     }
 
     public double getSalary() {
@@ -0,0 +1,114 @@
+package com.mindex.challenge.data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk compensation import. Records that were created are only counted; every other record is listed
+ * with its position in the payload and the reason it was skipped.
+ */
+public class CompensationImportResult {
+    public enum Status {
+        CREATED, DUPLICATE, INVALID_EMPLOYEE, INVALID
+    }
+
+    private int created;
+
+    private int duplicate;
+
+    private int invalidEmployee;
+
+    private int invalid;
+
+    private List<RecordResult> rejected = new ArrayList<>();
+
+    public CompensationImportResult() {
+    }
+
+    public void created(int count) {
+        created += count;
+    }
+
+    public void reject(int index, Compensation compensation, Status status, String message) {
+        switch( status ) {
+            case DUPLICATE:
+                duplicate++;
+                break;
+            case INVALID_EMPLOYEE:
+                invalidEmployee++;
+                break;
+            default:
+                invalid++;
+        }
+
+        if( compensation == null ) {
+            rejected.add(new RecordResult(index, null, null, status, message));
+        } else {
+            rejected.add(new RecordResult(index, compensation.getEmployeeId(), compensation.getEffectiveDate(), status, message));
+        }
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getDuplicate() {
+        return duplicate;
+    }
+
+    public int getInvalidEmployee() {
+        return invalidEmployee;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    public List<RecordResult> getRejected() {
+        return rejected;
+    }
+
+    public static class RecordResult {
+        private int index;
+
+        private String employeeId;
+
+        private LocalDate effectiveDate;
+
+        private Status status;
+
+        private String message;
+
+        public RecordResult() {
+        }
+
+        public RecordResult(int index, String employeeId, LocalDate effectiveDate, Status status, String message) {
+            this.index = index;
+            this.employeeId = employeeId;
+            this.effectiveDate = effectiveDate;
+            this.status = status;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getEmployeeId() {
+            return employeeId;
+        }
+
+        public LocalDate getEffectiveDate() {
+            return effectiveDate;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+public class CompensationPage {
+    private List<Compensation> compensations;
+
+    private String next;
+
+    public CompensationPage() {
+    }
+
+    public List<Compensation> getCompensations() {
+        return compensations;
+    }
+
+    public void setCompensations(List<Compensation> compensations) {
+        this.compensations = compensations;
+    }
+
+    /**
+     * @return the token to pass as after to read the next page, or null if this is the last page.
+     */
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mindex.challenge.data;
+
+/**
+ * Salaries in effect on a date, aggregated over an employee and every unique employee under it.
+ */
+public class CompensationRollup {
+    private String employeeId;
+
+    private int employeeCount;
+
+    private double totalSalary;
+
+    private Double minSalary;
+
+    private Double maxSalary;
+
+    private Double meanSalary;
+
+    public CompensationRollup() {
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    /**
+     * @return the number of employees in the subtree with a compensation in effect.
+     */
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    public void setEmployeeCount(int employeeCount) {
+        this.employeeCount = employeeCount;
+    }
+
+    public double getTotalSalary() {
+        return totalSalary;
+    }
+
+    public void setTotalSalary(double totalSalary) {
+        this.totalSalary = totalSalary;
+    }
+
+    public Double getMinSalary() {
+        return minSalary;
+    }
+
+    public void setMinSalary(Double minSalary) {
+        this.minSalary = minSalary;
+    }
+
+    public Double getMaxSalary() {
+        return maxSalary;
+    }
+
+    public void setMaxSalary(Double maxSalary) {
+        this.maxSalary = maxSalary;
+    }
+
+    public Double getMeanSalary() {
+        return meanSalary;
+    }
+
+    public void setMeanSalary(Double meanSalary) {
+        this.meanSalary = meanSalary;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+/**
+ * Changes to apply to a stored employee. Fields left null are not changed, and direct reports are added or removed
+ * by employeeId without replacing the rest of them.
+ */
+public class EmployeePatch {
+    private String firstName;
+    private String lastName;
+    private String position;
+    private String department;
+    private List<String> addDirectReports;
+    private List<String> removeDirectReports;
+
+    public EmployeePatch() {
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public void setPosition(String position) {
+        this.position = position;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    /**
+     * @return ids of employees to add to the direct reports, unless they are already there.
+     */
+    public List<String> getAddDirectReports() {
+        return addDirectReports;
+    }
+
+    public void setAddDirectReports(List<String> addDirectReports) {
+        this.addDirectReports = addDirectReports;
+    }
+
+    /**
+     * @return ids of employees to remove from the direct reports.
+     */
+    public List<String> getRemoveDirectReports() {
+        return removeDirectReports;
+    }
+
+    public void setRemoveDirectReports(List<String> removeDirectReports) {
+        this.removeDirectReports = removeDirectReports;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mindex.challenge.data;
+
+public class SnapshotResult {
+    private String path;
+    private int employeeCount;
+    private int compensationCount;
+    private long bytes;
+    private long durationMillis;
+
+    public SnapshotResult() {
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    public void setEmployeeCount(int employeeCount) {
+        this.employeeCount = employeeCount;
+    }
+
+    public int getCompensationCount() {
+        return compensationCount;
+    }
+
+    public void setCompensationCount(int compensationCount) {
+        this.compensationCount = compensationCount;
+    }
+
+    /**
+     * @return the size of the snapshot file.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
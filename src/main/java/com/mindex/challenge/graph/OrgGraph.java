@@ -0,0 +1,960 @@
+package com.mindex.challenge.graph;
+
+import com.mindex.challenge.data.Employee;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the reporting relationships between employees.
+ *
+ * Every employee id seen, either as an employee or as a direct report, is assigned a dense int index. The direct
+ * reports and managers of each employee are kept as int arrays of those indexes, so reporting structures can be walked
+ * without going back to the repository.
+ *
+ * The number of unique reports under every employee is kept up to date as employees are added or changed, so it can
+ * be read without walking the structure. When an employee changes, only that employee and the managers above it are
+ * adjusted: while the structure under the employee is a tree that no other manager reaches into, its count is the sum
+ * of its reports' and the difference is applied to every manager above it, otherwise their counts are marked stale and
+ * each is recounted the next time it is read.
+ *
+ * The same adjustment stamps each affected manager with the version of the change, so {@link #versionTag} can tell
+ * whether anything under an employee changed without walking its structure.
+ *
+ * Walks never recurse and are guarded against bad data: reports that loop back on themselves fail with a
+ * {@link ReportingCycleException}, and walks deeper than {@code challenge.reporting.max-depth} or visiting more than
+ * {@code challenge.reporting.max-nodes} employees fail with a {@link ReportingLimitExceededException}. The maintained
+ * count of an employee whose structure can't be walked is unknown, and reading it reports the failure.
+ *
+ * With {@code challenge.reporting.parallel.enabled} set, structures expected to hold at least
+ * {@code challenge.reporting.parallel.threshold} employees are walked across cores by a {@link ParallelReportCounter}.
+ *
+ * Values can be aggregated over the subtree of every employee at once with {@link #aggregateSubtrees}.
+ *
+ * The employees visited and the depth reached by every walk are recorded as {@code org.graph.walk.nodes} and
+ * {@code org.graph.walk.depth}, tagged with whether the walk answered a read or brought the maintained counts up to
+ * date. Reads answered from the maintained counts don't walk, and aren't recorded.
+ */
+@Component
+public class OrgGraph {
+    private static final Logger LOG = LoggerFactory.getLogger(OrgGraph.class);
+
+    private static final int[] NO_EMPLOYEES = new int[0];
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int UNKNOWN_COUNT = -1;
+    private static final byte ON_PATH = 1;
+    private static final byte DONE = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private int[][] reports = new int[INITIAL_CAPACITY][];
+    private int[][] managers = new int[INITIAL_CAPACITY][];
+    private int[] managerCounts = new int[INITIAL_CAPACITY];
+    private int[] reportCounts = new int[INITIAL_CAPACITY];
+    // report counts that changed since they were counted, kept as the last count until they are recounted
+    private boolean[] stale = new boolean[INITIAL_CAPACITY];
+    private boolean[] present = new boolean[INITIAL_CAPACITY];
+    // modification count when the employee, and when anything under it, last changed
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private long[] subtreeVersions = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // employees affected by the last change, and marks of those already collected, reused under the write lock
+    private int[] affected = new int[INITIAL_CAPACITY];
+    private int[] affectedMarks = new int[INITIAL_CAPACITY];
+    private int affectedMark;
+
+    // employees with more than one manager; while zero the report counts are additive without walking to check
+    private int sharedCount;
+    // referenced reports that have not been added yet; while non-zero the counts can't be trusted on their own
+    private int missingCount;
+    // changes to the graph, so results derived from it can tell when they are out of date
+    private volatile long modificationCount;
+    // distinguishes version tags of this graph from those of a graph built before a restart
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    @Value("${challenge.reporting.verify-counts:false}")
+    private boolean verifyCounts;
+
+    @Value("${challenge.reporting.max-depth:10000}")
+    private int maxDepth = 10000;
+
+    @Value("${challenge.reporting.max-nodes:5000000}")
+    private int maxNodes = 5000000;
+
+    @Value("${challenge.reporting.parallel.enabled:false}")
+    private boolean parallelEnabled;
+
+    @Value("${challenge.reporting.parallel.threshold:10000}")
+    private int parallelThreshold = 10000;
+
+    @Value("${challenge.reporting.parallel.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool parallelPool;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // null until registered with a meter registry
+    private DistributionSummary readWalkNodes;
+    private DistributionSummary readWalkDepth;
+    private DistributionSummary maintainWalkNodes;
+    private DistributionSummary maintainWalkDepth;
+
+    @PostConstruct
+    public void init() {
+        if( parallelEnabled ) {
+            enableParallel(parallelThreshold, parallelism);
+        }
+        if( meterRegistry != null ) {
+            readWalkNodes = walkSummary("org.graph.walk.nodes", "read");
+            readWalkDepth = walkSummary("org.graph.walk.depth", "read");
+            maintainWalkNodes = walkSummary("org.graph.walk.nodes", "maintain");
+            maintainWalkDepth = walkSummary("org.graph.walk.depth", "maintain");
+        }
+    }
+
+    private DistributionSummary walkSummary(String name, String purpose) {
+        return DistributionSummary.builder(name)
+                .tag("purpose", purpose)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if( parallelPool != null ) {
+            parallelPool.shutdown();
+        }
+    }
+
+    /**
+     * Walks structures whose last known count is at least the threshold on a fork join pool.
+     *
+     * @param threshold smallest structure to walk in parallel.
+     * @param parallelism threads in the pool, or 0 for one per processor.
+     */
+    void enableParallel(int threshold, int parallelism) {
+        shutdown();
+        this.parallelThreshold = threshold;
+        this.parallelPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Adds the employee to the graph, replacing the direct reports of any previous version of it.
+     *
+     * @param employee employee to index.
+     */
+    public void put(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            int index = indexOf(employee.getEmployeeId());
+            boolean wasAdditive = isAdditive(index);
+            int[] previousReports = reports[index];
+            int[] newReports = toIndexes(employee.getDirectReports());
+
+            if( !present[index] ) {
+                present[index] = true;
+                if( managerCounts[index] > 0 ) {
+                    missingCount--;
+                }
+            }
+
+            for( int report : previousReports ) {
+                removeManager(report, index);
+            }
+            for( int report : newReports ) {
+                addManager(report, index);
+            }
+            reports[index] = newReports;
+
+            long version = ++modificationCount;
+            versions[index] = version;
+            updateReportCounts(index, wasAdditive && isAdditive(index), version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param employeeId id of the employee.
+     * @return true if the employee has been added to the graph.
+     */
+    public boolean contains(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer index = indexById.get(employeeId);
+            return index != null && present[index];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param employeeId id of the employee.
+     * @return the employee's index in the graph, which stays the same once it is added, or -1 if it hasn't been.
+     */
+    public int findIndex(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer index = indexById.get(employeeId);
+            return index != null && present[index] ? index : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param employeeId id of the employee.
+     * @return ids of the employee's direct reports, each listed once.
+     */
+    public List<String> directReportIds(String employeeId) {
+        lock.readLock().lock();
+        try {
+            int[] directReports = reports[presentIndexOf(employeeId)];
+            List<String> directReportIds = new ArrayList<>(directReports.length);
+            for( int report : directReports ) {
+                directReportIds.add(ids[report]);
+            }
+            return directReportIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tags the current version of the employee, which changes every time the employee is put, and with withReports
+     * also every time an employee under it is put or a report is added or removed anywhere under it.
+     *
+     * @param employeeId id of the employee.
+     * @param withReports true to include the versions of everyone under the employee.
+     * @return the tag, or null if the employee hasn't been added.
+     */
+    public String versionTag(String employeeId, boolean withReports) {
+        lock.readLock().lock();
+        try {
+            Integer index = indexById.get(employeeId);
+            if( index == null || !present[index] ) {
+                return null;
+            }
+            return epoch + "-" + (withReports ? subtreeVersions[index] : versions[index]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return a count that changes every time an employee is added or changed.
+     */
+    public long modificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * @param employeeId id of the employee.
+     * @return ids of every unique employee the employee reports to, directly or through its managers.
+     */
+    public List<String> managerIds(String employeeId) {
+        lock.readLock().lock();
+        try {
+            int index = presentIndexOf(employeeId);
+            boolean[] visited = new boolean[size];
+            int[] queue = new int[INITIAL_CAPACITY];
+            int head = 0;
+            int tail = 0;
+
+            queue[tail++] = index;
+            visited[index] = true;
+            List<String> managerIds = new ArrayList<>();
+            while( head < tail ) {
+                int current = queue[head++];
+                if( tail + managerCounts[current] > queue.length ) {
+                    queue = Arrays.copyOf(queue, Math.max(queue.length * 2, tail + managerCounts[current]));
+                }
+                for( int i = 0; i < managerCounts[current]; i++ ) {
+                    int manager = managers[current][i];
+                    if( !visited[manager] ) {
+                        visited[manager] = true;
+                        queue[tail++] = manager;
+                        managerIds.add(ids[manager]);
+                    }
+                }
+            }
+            return managerIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aggregates a value over the subtree of every employee: the employee and every unique employee under it.
+     *
+     * While no employee is shared, every subtree is the disjoint union of its reports' subtrees, so all of them are
+     * aggregated in a single post-order pass from the employees without managers. Employees that pass can't reach,
+     * because they are part of a cycle, and every employee while any are shared, are aggregated with a walk of their
+     * own subtree instead.
+     *
+     * @param valueOf value of an employee, by id, or NaN if it has none.
+     * @return the aggregate of every employee in the graph, by id.
+     */
+    public Map<String, SubtreeStats> aggregateSubtrees(ToDoubleFunction<String> valueOf) {
+        lock.readLock().lock();
+        try {
+            double[] values = new double[size];
+            SubtreeStats[] stats = new SubtreeStats[size];
+            for( int i = 0; i < size; i++ ) {
+                values[i] = present[i] ? valueOf.applyAsDouble(ids[i]) : Double.NaN;
+            }
+
+            if( sharedCount == 0 ) {
+                aggregateForest(values, stats);
+            }
+
+            int[] visited = new int[size];
+            int[] queue = new int[size];
+            for( int i = 0; i < size; i++ ) {
+                if( present[i] && stats[i] == null ) {
+                    stats[i] = aggregateSubtree(i, values, visited, queue);
+                }
+            }
+
+            Map<String, SubtreeStats> statsById = new HashMap<>(size * 2);
+            for( int i = 0; i < size; i++ ) {
+                if( present[i] ) {
+                    statsById.put(ids[i], stats[i]);
+                }
+            }
+            return statsById;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aggregates every employee reachable from an employee without managers, children before their manager.
+     */
+    private void aggregateForest(double[] values, SubtreeStats[] stats) {
+        int[] path = new int[INITIAL_CAPACITY];
+        int[] nextReport = new int[INITIAL_CAPACITY];
+
+        for( int root = 0; root < size; root++ ) {
+            if( managerCounts[root] > 0 ) {
+                continue;
+            }
+
+            int depth = 0;
+            path[depth] = root;
+            nextReport[depth++] = 0;
+            while( depth > 0 ) {
+                int current = path[depth - 1];
+                int[] currentReports = reports[current];
+
+                if( nextReport[depth - 1] < currentReports.length ) {
+                    if( depth == path.length ) {
+                        path = Arrays.copyOf(path, depth * 2);
+                        nextReport = Arrays.copyOf(nextReport, depth * 2);
+                    }
+                    path[depth] = currentReports[nextReport[depth - 1]++];
+                    nextReport[depth++] = 0;
+                    continue;
+                }
+
+                SubtreeStats currentStats = new SubtreeStats();
+                if( !Double.isNaN(values[current]) ) {
+                    currentStats.add(values[current]);
+                }
+                for( int report : currentReports ) {
+                    currentStats.merge(stats[report]);
+                }
+                stats[current] = currentStats;
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Aggregates the employee's subtree with a breadth first walk.
+     *
+     * @param visited marks of the employees visited, holding root + 1 for the employees visited by this walk, so the
+     * array can be shared between walks without clearing it.
+     * @param queue space for every employee in the graph.
+     */
+    private SubtreeStats aggregateSubtree(int root, double[] values, int[] visited, int[] queue) {
+        SubtreeStats subtreeStats = new SubtreeStats();
+        int mark = root + 1;
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = root;
+        visited[root] = mark;
+        while( head < tail ) {
+            int current = queue[head++];
+            if( !Double.isNaN(values[current]) ) {
+                subtreeStats.add(values[current]);
+            }
+
+            for( int report : reports[current] ) {
+                if( visited[report] != mark ) {
+                    visited[report] = mark;
+                    queue[tail++] = report;
+                }
+            }
+        }
+        return subtreeStats;
+    }
+
+    /**
+     * Reads the number of unique employees reporting to the given employee from the maintained counts. Falls back to
+     * {@link #countReports(String)} while any referenced report is missing from the graph, so a missing report is
+     * still reported as invalid.
+     *
+     * @param employeeId id of the employee at the top of the structure.
+     * @return the number of unique reports.
+     * @throws ReportingStructureException if the structure under the employee loops or is over the limits.
+     */
+    public int numberOfReports(String employeeId) {
+        if( verifyCounts ) {
+            return verifiedNumberOfReports(employeeId);
+        }
+
+        lock.readLock().lock();
+        try {
+            int root = presentIndexOf(employeeId);
+            if( !needsRecount(root) ) {
+                return readCount(root);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            return recountStale(presentIndexOf(employeeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the number of unique reports under each of the given employees, as {@link #numberOfReports(String)} does,
+     * under a single read of the graph. Structures shared between the employees are only counted once, when their
+     * maintained counts are kept up to date, rather than once per employee above them.
+     *
+     * @param employeeIds ids of the employees at the top of each structure.
+     * @return the number of unique reports under each employee, in the same order as the ids.
+     * @throws ReportingStructureException if the structure under any of the employees loops or is over the limits.
+     */
+    public int[] numberOfReports(List<String> employeeIds) {
+        int[] numbersOfReports = new int[employeeIds.size()];
+
+        if( verifyCounts ) {
+            for( int i = 0; i < numbersOfReports.length; i++ ) {
+                numbersOfReports[i] = verifiedNumberOfReports(employeeIds.get(i));
+            }
+            return numbersOfReports;
+        }
+
+        lock.readLock().lock();
+        try {
+            boolean anyStale = false;
+            for( int i = 0; i < numbersOfReports.length && !anyStale; i++ ) {
+                int root = presentIndexOf(employeeIds.get(i));
+                anyStale = needsRecount(root);
+                if( !anyStale ) {
+                    numbersOfReports[i] = readCount(root);
+                }
+            }
+            if( !anyStale ) {
+                return numbersOfReports;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            for( int i = 0; i < numbersOfReports.length; i++ ) {
+                numbersOfReports[i] = recountStale(presentIndexOf(employeeIds.get(i)));
+            }
+            return numbersOfReports;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the employee's maintained count is read, but is stale and has to be recounted under the write lock.
+     */
+    private boolean needsRecount(int root) {
+        return missingCount == 0 && stale[root];
+    }
+
+    /**
+     * Reads the maintained count of the employee, walking the structure when it can't be trusted on its own.
+     *
+     * @throws ReportingStructureException if the structure under the employee loops or is over the limits.
+     */
+    private int readCount(int root) {
+        if( missingCount > 0 || reportCounts[root] == UNKNOWN_COUNT ) {
+            return count(root, true, false);
+        }
+        return reportCounts[root];
+    }
+
+    /**
+     * Recounts the employee's maintained count if it is stale, then reads it. Only called under the write lock.
+     */
+    private int recountStale(int root) {
+        if( needsRecount(root) ) {
+            reportCounts[root] = recount(root);
+            stale[root] = false;
+        }
+        return readCount(root);
+    }
+
+    /**
+     * Counts the unique employees reporting to the given employee, directly or through any of their reports, by
+     * walking the structure.
+     *
+     * @param employeeId id of the employee at the top of the structure.
+     * @return the number of unique reports.
+     * @throws ReportingStructureException if the structure under the employee loops or is over the limits.
+     */
+    public int countReports(String employeeId) {
+        lock.readLock().lock();
+        try {
+            return count(presentIndexOf(employeeId), true, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compares the maintained report count of every employee against a full recount, correcting any that differ.
+     *
+     * @return the number of employees whose maintained count was wrong.
+     */
+    public int verifyAll() {
+        lock.writeLock().lock();
+        try {
+            int mismatches = 0;
+            for( int i = 0; i < size; i++ ) {
+                if( present[i] ) {
+                    int counted = recount(i);
+                    if( stale[i] ) {
+                        reportCounts[i] = counted;
+                        stale[i] = false;
+                    } else if( counted != reportCounts[i] ) {
+                        LOG.error("Report count for employee [{}] was {} but recounted {}", ids[i], reportCounts[i], counted);
+                        reportCounts[i] = counted;
+                        mismatches++;
+                    }
+                }
+            }
+            return mismatches;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int verifiedNumberOfReports(String employeeId) {
+        lock.writeLock().lock();
+        try {
+            int root = presentIndexOf(employeeId);
+            int counted;
+            try {
+                counted = count(root, missingCount > 0, false);
+            } catch (ReportingStructureException e) {
+                if( !stale[root] && reportCounts[root] != UNKNOWN_COUNT ) {
+                    LOG.error("Report count for employee [{}] was {} but recount failed", employeeId, reportCounts[root], e);
+                }
+                reportCounts[root] = UNKNOWN_COUNT;
+                stale[root] = false;
+                throw e;
+            }
+
+            if( stale[root] ) {
+                reportCounts[root] = counted;
+                stale[root] = false;
+            } else if( counted != reportCounts[root] ) {
+                LOG.error("Report count for employee [{}] was {} but recounted {}", employeeId, reportCounts[root], counted);
+                reportCounts[root] = counted;
+            }
+            return counted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the report counts of the changed employee and every manager above it up to date, and sets their subtree
+     * versions to the version of the change.
+     *
+     * @param index the changed employee.
+     * @param additive true if the structure under the employee was, and still is, a tree no other manager reaches
+     * into, so the difference in its count is the difference in the count of every manager above it. The counts are
+     * marked stale anyway when one of those involved isn't known, as a difference can't be added to it.
+     */
+    private void updateReportCounts(int index, boolean additive, long version) {
+        int affectedCount = collectAffected(index);
+        if( additive && countsKnown(index, affectedCount) ) {
+            int counted = 0;
+            for( int report : reports[index] ) {
+                counted += reportCounts[report] + 1;
+            }
+
+            int delta = counted - reportCounts[index];
+            for( int i = 0; i < affectedCount; i++ ) {
+                reportCounts[affected[i]] += delta;
+                subtreeVersions[affected[i]] = version;
+            }
+            return;
+        }
+
+        // recounting here would walk the whole structure under every manager on every change, so wait for a read
+        for( int i = 0; i < affectedCount; i++ ) {
+            stale[affected[i]] = true;
+            subtreeVersions[affected[i]] = version;
+        }
+    }
+
+    /**
+     * Collects the employee and every unique employee above it into affected, the employee first.
+     *
+     * @return the number of employees collected.
+     */
+    private int collectAffected(int index) {
+        if( affectedMark == Integer.MAX_VALUE ) {
+            Arrays.fill(affectedMarks, 0);
+            affectedMark = 0;
+        }
+        int mark = ++affectedMark;
+        int head = 0;
+        int tail = 0;
+
+        affected[tail++] = index;
+        affectedMarks[index] = mark;
+        while( head < tail ) {
+            int current = affected[head++];
+            if( tail + managerCounts[current] > affected.length ) {
+                affected = Arrays.copyOf(affected, Math.max(affected.length * 2, tail + managerCounts[current]));
+            }
+            for( int i = 0; i < managerCounts[current]; i++ ) {
+                int manager = managers[current][i];
+                if( affectedMarks[manager] != mark ) {
+                    affectedMarks[manager] = mark;
+                    affected[tail++] = manager;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * @return true if the counts of the employee's direct reports and of the affected employees are all known.
+     */
+    private boolean countsKnown(int index, int affectedCount) {
+        for( int report : reports[index] ) {
+            if( !isKnown(report) ) {
+                return false;
+            }
+        }
+        for( int i = 0; i < affectedCount; i++ ) {
+            if( !isKnown(affected[i]) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isKnown(int index) {
+        return !stale[index] && reportCounts[index] != UNKNOWN_COUNT;
+    }
+
+    /**
+     * @return true if the employee isn't part of a cycle and no employee under it has another manager, so its count is
+     * the sum of its reports' and a change under it changes the count of every manager above it by the same amount.
+     * The structure under the employee is only walked to check while some employee is shared.
+     */
+    private boolean isAdditive(int index) {
+        if( sharedCount == 0 ) {
+            return !reportsToItself(index);
+        }
+
+        // every employee under a tree has the one manager it was reached from, so none is reached twice
+        int[] stack = new int[INITIAL_CAPACITY];
+        int top = 0;
+        stack[top++] = index;
+        while( top > 0 ) {
+            int[] currentReports = reports[stack[--top]];
+            if( top + currentReports.length > stack.length ) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + currentReports.length));
+            }
+            for( int report : currentReports ) {
+                if( report == index || managerCounts[report] != 1 ) {
+                    return false;
+                }
+                stack[top++] = report;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Walks the single chain of managers above the employee, which is only valid while no employee is shared.
+     *
+     * @return true if the employee is one of its own managers, or the chain above it loops.
+     */
+    private boolean reportsToItself(int index) {
+        int current = index;
+        for( int steps = 0; steps <= size && managerCounts[current] > 0; steps++ ) {
+            current = managers[current][0];
+            if( current == index ) {
+                return true;
+            }
+        }
+        return managerCounts[current] > 0;
+    }
+
+    /**
+     * Recounts the reports under the employee for the maintained counts, which can't be known while the structure
+     * under it loops or is over the limits.
+     */
+    private int recount(int root) {
+        try {
+            return count(root, false, true);
+        } catch (ReportingStructureException e) {
+            return UNKNOWN_COUNT;
+        }
+    }
+
+    /**
+     * Counts the unique reports under the employee, walking structures expected to be large in parallel when enabled.
+     * The sequential walk is always used to report cycles and other failures, so the errors don't depend on how the
+     * structure was walked.
+     *
+     * @param maintaining true if the walk is bringing the maintained counts up to date rather than answering a read.
+     */
+    private int count(int root, boolean failOnMissing, boolean maintaining) {
+        if( parallelPool != null && reportCounts[root] >= parallelThreshold ) {
+            try {
+                int counted = new ParallelReportCounter(parallelPool, reports, present, ids, size, maxDepth, maxNodes).count(root, failOnMissing);
+                if( counted != UNKNOWN_COUNT ) {
+                    // the parallel walk doesn't follow paths, so only the employees visited are known
+                    recordWalk(maintaining, counted, -1);
+                    return counted;
+                }
+            } catch (RuntimeException e) {
+                LOG.debug("Parallel walk under employee [{}] failed, walking sequentially", ids[root], e);
+            }
+        }
+
+        return sequentialCount(root, failOnMissing, maintaining);
+    }
+
+    /**
+     * Counts the unique reports under the employee with an iterative depth first walk, sharing one state array
+     * between every branch so employees reachable through several managers are only visited once.
+     *
+     * @param root the employee at the top of the structure.
+     * @param failOnMissing true to fail on reports that haven't been added to the graph.
+     * @param maintaining true if the walk is bringing the maintained counts up to date rather than answering a read.
+     * @return the number of unique reports.
+     * @throws ReportingCycleException if a report is reached again while still walking the reports under it.
+     * @throws ReportingLimitExceededException if the walk goes deeper than maxDepth or visits more than maxNodes.
+     */
+    private int sequentialCount(int root, boolean failOnMissing, boolean maintaining) {
+        // 0 = not reached yet, ON_PATH = reports still being walked, DONE = all reports walked
+        byte[] state = new byte[size];
+        int[] path = new int[INITIAL_CAPACITY];
+        int[] nextReport = new int[INITIAL_CAPACITY];
+        int depth = 0;
+        int deepest = 0;
+        int count = 0;
+
+        path[depth] = root;
+        nextReport[depth++] = 0;
+        state[root] = ON_PATH;
+
+        while( depth > 0 ) {
+            int current = path[depth - 1];
+            int[] currentReports = reports[current];
+
+            if( nextReport[depth - 1] == currentReports.length ) {
+                state[current] = DONE;
+                depth--;
+                continue;
+            }
+
+            int report = currentReports[nextReport[depth - 1]++];
+            if( state[report] == DONE ) {
+                continue;
+            }
+
+            if( state[report] == ON_PATH ) {
+                throw new ReportingCycleException(ids[root], cycle(path, depth, report));
+            }
+
+            if( failOnMissing && !present[report] ) {
+                throw new RuntimeException("Invalid employeeId: " + ids[report]);
+            }
+
+            if( ++count > maxNodes ) {
+                throw new ReportingLimitExceededException(ids[root], "max-nodes", maxNodes);
+            }
+
+            if( depth > maxDepth ) {
+                throw new ReportingLimitExceededException(ids[root], "max-depth", maxDepth);
+            }
+
+            if( depth == path.length ) {
+                path = Arrays.copyOf(path, depth * 2);
+                nextReport = Arrays.copyOf(nextReport, depth * 2);
+            }
+            path[depth] = report;
+            nextReport[depth++] = 0;
+            state[report] = ON_PATH;
+            deepest = Math.max(deepest, depth - 1);
+        }
+
+        recordWalk(maintaining, count, deepest);
+        return count;
+    }
+
+    /**
+     * @param depth the deepest level below the root reached, or -1 if it isn't known.
+     */
+    private void recordWalk(boolean maintaining, int nodes, int depth) {
+        if( readWalkNodes == null ) {
+            return;
+        }
+
+        (maintaining ? maintainWalkNodes : readWalkNodes).record(nodes);
+        if( depth >= 0 ) {
+            (maintaining ? maintainWalkDepth : readWalkDepth).record(depth);
+        }
+    }
+
+    private List<String> cycle(int[] path, int depth, int repeated) {
+        List<String> cycle = new ArrayList<>();
+        int start = depth - 1;
+        while( path[start] != repeated ) {
+            start--;
+        }
+        for( int i = start; i < depth; i++ ) {
+            cycle.add(ids[path[i]]);
+        }
+        cycle.add(ids[repeated]);
+        return cycle;
+    }
+
+    private void addManager(int report, int manager) {
+        int count = managerCounts[report];
+        int[] reportManagers = managers[report];
+        if( count == reportManagers.length ) {
+            reportManagers = Arrays.copyOf(reportManagers, Math.max(1, count * 2));
+            managers[report] = reportManagers;
+        }
+        reportManagers[count] = manager;
+        managerCounts[report] = count + 1;
+
+        if( count == 0 && !present[report] ) {
+            missingCount++;
+        } else if( count == 1 ) {
+            sharedCount++;
+        }
+    }
+
+    private void removeManager(int report, int manager) {
+        int count = managerCounts[report];
+        int[] reportManagers = managers[report];
+        for( int i = 0; i < count; i++ ) {
+            if( reportManagers[i] == manager ) {
+                reportManagers[i] = reportManagers[count - 1];
+                managerCounts[report] = count - 1;
+
+                if( count == 1 && !present[report] ) {
+                    missingCount--;
+                } else if( count == 2 ) {
+                    sharedCount--;
+                }
+                return;
+            }
+        }
+    }
+
+    private int presentIndexOf(String employeeId) {
+        Integer index = indexById.get(employeeId);
+        if( index == null || !present[index] ) {
+            throw new RuntimeException("Invalid employeeId: " + employeeId);
+        }
+        return index;
+    }
+
+    private int[] toIndexes(List<Employee> directReports) {
+        if( directReports == null || directReports.isEmpty() ) {
+            return NO_EMPLOYEES;
+        }
+
+        int[] indexes = new int[directReports.size()];
+        for( int i = 0; i < indexes.length; i++ ) {
+            indexes[i] = indexOf(directReports.get(i).getEmployeeId());
+        }
+
+        // the same report listed twice is still a single report
+        Arrays.sort(indexes);
+        int count = 1;
+        for( int i = 1; i < indexes.length; i++ ) {
+            if( indexes[i] != indexes[count - 1] ) {
+                indexes[count++] = indexes[i];
+            }
+        }
+        return count == indexes.length ? indexes : Arrays.copyOf(indexes, count);
+    }
+
+    private int indexOf(String employeeId) {
+        Integer index = indexById.get(employeeId);
+        if( index != null ) {
+            return index;
+        }
+
+        if( size == ids.length ) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            reports = Arrays.copyOf(reports, capacity);
+            managers = Arrays.copyOf(managers, capacity);
+            managerCounts = Arrays.copyOf(managerCounts, capacity);
+            reportCounts = Arrays.copyOf(reportCounts, capacity);
+            stale = Arrays.copyOf(stale, capacity);
+            present = Arrays.copyOf(present, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            subtreeVersions = Arrays.copyOf(subtreeVersions, capacity);
+            affectedMarks = Arrays.copyOf(affectedMarks, capacity);
+        }
+
+        ids[size] = employeeId;
+        reports[size] = NO_EMPLOYEES;
+        managers[size] = NO_EMPLOYEES;
+        indexById.put(employeeId, size);
+        return size++;
+    }
+}
@@ -0,0 +1,199 @@
+package com.mindex.challenge.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts the unique reports under an employee by walking the org graph on a {@link ForkJoinPool}.
+ *
+ * The walk runs in two phases. The first claims every reachable employee through a shared array of in-degrees, where
+ * the first manager to reach a report claims it and walks its reports, so shared reports are only counted once. The
+ * second peels the claimed employees off in topological order; if any are left over the structure loops and the
+ * caller falls back to the sequential walk to report the cycle.
+ *
+ * While peeling, each employee's level is the longest path to it from the root. The sequential walk only reaches an
+ * employee along one of those paths, so if no level is past maxDepth the sequential walk wouldn't be either. If one
+ * is, the walk fails and the caller falls back to the sequential walk to decide.
+ *
+ * Instances hold references to the graph's arrays and must only be used while the graph's lock is held.
+ */
+class ParallelReportCounter {
+    // work items a task keeps to itself before handing half of them to a new task
+    private static final int SPLIT_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int[][] reports;
+    private final boolean[] present;
+    private final String[] ids;
+    private final int size;
+    private final int maxDepth;
+    private final int maxNodes;
+
+    ParallelReportCounter(ForkJoinPool pool, int[][] reports, boolean[] present, String[] ids, int size, int maxDepth, int maxNodes) {
+        this.pool = pool;
+        this.reports = reports;
+        this.present = present;
+        this.ids = ids;
+        this.size = size;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @param root the employee at the top of the structure.
+     * @param failOnMissing true to fail on reports that haven't been added to the graph.
+     * @return the number of unique reports, or -1 if the structure loops.
+     * @throws ReportingLimitExceededException if more than maxNodes employees are reached, or the longest path to one
+     * is longer than maxDepth.
+     */
+    int count(int root, boolean failOnMissing) {
+        AtomicIntegerArray inDegrees = new AtomicIntegerArray(size);
+        AtomicInteger claimed = new AtomicInteger();
+
+        pool.invoke(new ClaimTask(new int[] { root }, 1, root, failOnMissing, inDegrees, claimed));
+
+        if( inDegrees.get(root) > 0 ) {
+            return -1;
+        }
+
+        // the root has no managers within the structure, so it is released first
+        AtomicInteger released = new AtomicInteger(1);
+        pool.invoke(new ReleaseTask(new int[] { root }, 1, root, inDegrees, new AtomicIntegerArray(size), released));
+
+        int count = claimed.get();
+        return released.get() == count + 1 ? count : -1;
+    }
+
+    private abstract class WalkTask extends RecursiveAction {
+        private int[] stack;
+        private int top;
+        private final List<WalkTask> forked = new ArrayList<>();
+
+        WalkTask(int[] stack, int top) {
+            this.stack = stack;
+            this.top = top;
+        }
+
+        @Override
+        protected void compute() {
+            boolean completed = false;
+            try {
+                while( top > 0 ) {
+                    int current = stack[--top];
+                    for( int report : reports[current] ) {
+                        if( reached(current, report) ) {
+                            push(report);
+                        }
+                    }
+
+                    if( top > SPLIT_SIZE ) {
+                        int half = top / 2;
+                        WalkTask task = split(Arrays.copyOfRange(stack, top - half, top), half);
+                        top -= half;
+                        forked.add(task);
+                        task.fork();
+                    }
+                }
+                completed = true;
+            } finally {
+                // never leave tasks reading the graph after the walk has returned
+                for( WalkTask task : forked ) {
+                    if( completed ) {
+                        task.join();
+                    } else {
+                        task.quietlyJoin();
+                    }
+                }
+            }
+        }
+
+        private void push(int report) {
+            if( top == stack.length ) {
+                stack = Arrays.copyOf(stack, Math.max(SPLIT_SIZE, stack.length * 2));
+            }
+            stack[top++] = report;
+        }
+
+        /**
+         * @return true if this task should go on to walk the reports of the reached employee.
+         */
+        abstract boolean reached(int manager, int report);
+
+        abstract WalkTask split(int[] stack, int top);
+    }
+
+    private class ClaimTask extends WalkTask {
+        private final int root;
+        private final boolean failOnMissing;
+        private final AtomicIntegerArray inDegrees;
+        private final AtomicInteger claimed;
+
+        ClaimTask(int[] stack, int top, int root, boolean failOnMissing, AtomicIntegerArray inDegrees, AtomicInteger claimed) {
+            super(stack, top);
+            this.root = root;
+            this.failOnMissing = failOnMissing;
+            this.inDegrees = inDegrees;
+            this.claimed = claimed;
+        }
+
+        @Override
+        boolean reached(int manager, int report) {
+            if( inDegrees.incrementAndGet(report) > 1 || report == root ) {
+                return false;
+            }
+
+            if( failOnMissing && !present[report] ) {
+                throw new RuntimeException("Invalid employeeId: " + ids[report]);
+            }
+
+            if( claimed.incrementAndGet() > maxNodes ) {
+                throw new ReportingLimitExceededException(ids[root], "max-nodes", maxNodes);
+            }
+            return true;
+        }
+
+        @Override
+        WalkTask split(int[] stack, int top) {
+            return new ClaimTask(stack, top, root, failOnMissing, inDegrees, claimed);
+        }
+    }
+
+    private class ReleaseTask extends WalkTask {
+        private final int root;
+        private final AtomicIntegerArray inDegrees;
+        private final AtomicIntegerArray levels;
+        private final AtomicInteger released;
+
+        ReleaseTask(int[] stack, int top, int root, AtomicIntegerArray inDegrees, AtomicIntegerArray levels, AtomicInteger released) {
+            super(stack, top);
+            this.root = root;
+            this.inDegrees = inDegrees;
+            this.levels = levels;
+            this.released = released;
+        }
+
+        @Override
+        boolean reached(int manager, int report) {
+            // every manager raises the level before releasing, so it is final once the last one has
+            levels.accumulateAndGet(report, levels.get(manager) + 1, Math::max);
+            if( inDegrees.decrementAndGet(report) == 0 ) {
+                if( levels.get(report) > maxDepth ) {
+                    throw new ReportingLimitExceededException(ids[root], "max-depth", maxDepth);
+                }
+                released.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        WalkTask split(int[] stack, int top) {
+            return new ReleaseTask(stack, top, root, inDegrees, levels, released);
+        }
+    }
+}
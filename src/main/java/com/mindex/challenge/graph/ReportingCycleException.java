@@ -0,0 +1,36 @@
+package com.mindex.challenge.graph;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thrown when the direct reports under an employee loop back on themselves.
+ */
+public class ReportingCycleException extends ReportingStructureException {
+    private final List<String> cycle;
+
+    public ReportingCycleException(String employeeId, List<String> cycle) {
+        super(employeeId, "Reporting structure for employee " + employeeId + " contains a cycle: " + String.join(" -> ", cycle));
+        this.cycle = Collections.unmodifiableList(cycle);
+    }
+
+    /**
+     * @return ids of the employees making up the cycle, starting and ending with the same employee.
+     */
+    public List<String> getCycle() {
+        return cycle;
+    }
+
+    @Override
+    public String getCode() {
+        return "REPORTING_CYCLE";
+    }
+
+    @Override
+    public Map<String, Object> getDetails() {
+        Map<String, Object> details = super.getDetails();
+        details.put("cycle", cycle);
+        return details;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mindex.challenge.graph;
+
+import java.util.Map;
+
+/**
+ * Thrown when walking the reporting structure under an employee goes past one of the configured limits.
+ */
+public class ReportingLimitExceededException extends ReportingStructureException {
+    private final String limit;
+    private final int value;
+
+    public ReportingLimitExceededException(String employeeId, String limit, int value) {
+        super(employeeId, "Reporting structure for employee " + employeeId + " exceeds " + limit + " of " + value);
+        this.limit = limit;
+        this.value = value;
+    }
+
+    public String getLimit() {
+        return limit;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    public String getCode() {
+        return "REPORTING_LIMIT_EXCEEDED";
+    }
+
+    @Override
+    public Map<String, Object> getDetails() {
+        Map<String, Object> details = super.getDetails();
+        details.put("limit", limit);
+        details.put("value", value);
+        return details;
+    }
+}
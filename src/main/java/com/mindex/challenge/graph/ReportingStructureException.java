@@ -0,0 +1,35 @@
+package com.mindex.challenge.graph;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thrown when the reporting structure under an employee can't be walked because the data describing it is invalid
+ * or too large.
+ */
+public abstract class ReportingStructureException extends RuntimeException {
+    private final String employeeId;
+
+    protected ReportingStructureException(String employeeId, String message) {
+        super(message);
+        this.employeeId = employeeId;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    /**
+     * @return short machine readable code identifying the problem.
+     */
+    public abstract String getCode();
+
+    /**
+     * @return details describing the problem, to be returned to the client alongside the code and message.
+     */
+    public Map<String, Object> getDetails() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("employeeId", employeeId);
+        return details;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mindex.challenge.graph;
+
+/**
+ * Aggregate of a value over an employee and every unique employee under it. Employees without a value are left out.
+ */
+public class SubtreeStats {
+    private int count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    SubtreeStats() {
+    }
+
+    void add(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(SubtreeStats other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return the number of employees in the subtree with a value.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the smallest value, or positive infinity if no employee has one.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, or negative infinity if no employee has one.
+     */
+    public double getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mindex.challenge.metrics;
+
+/**
+ * Counts the repository calls made by the thread handling a request, between {@link #begin()} and {@link #end()}.
+ */
+final class RepositoryCallCounter {
+    private static final ThreadLocal<int[]> CALLS = new ThreadLocal<>();
+
+    private RepositoryCallCounter() {
+    }
+
+    static void begin() {
+        CALLS.set(new int[1]);
+    }
+
+    static void increment() {
+        int[] calls = CALLS.get();
+        if( calls != null ) {
+            calls[0]++;
+        }
+    }
+
+    /**
+     * @return the number of calls since {@link #begin()}, or -1 if counting wasn't begun on this thread.
+     */
+    static int end() {
+        int[] calls = CALLS.get();
+        CALLS.remove();
+        return calls == null ? -1 : calls[0];
+    }
+}
@@ -0,0 +1,59 @@
+package com.mindex.challenge.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records the number of repository calls made while handling each request as {@code http.server.requests.repository.calls},
+ * tagged like {@code http.server.requests} with the method and uri pattern.
+ *
+ * Only calls made by the thread handling the request are counted, so for streamed responses the count covers the calls
+ * made before the response started streaming. The dispatch that completes an async request isn't counted again, so
+ * each request is recorded once.
+ */
+public class RepositoryCallsInterceptor implements AsyncHandlerInterceptor {
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryCallsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the request was recorded when concurrent handling started, and afterCompletion records nothing unless begun
+        if( request.getDispatcherType() != DispatcherType.ASYNC ) {
+            RepositoryCallCounter.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        record(request);
+    }
+
+    private void record(HttpServletRequest request) {
+        int calls = RepositoryCallCounter.end();
+        if( calls < 0 ) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.server.requests.repository.calls")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .register(meterRegistry)
+                .record(calls);
+    }
+}
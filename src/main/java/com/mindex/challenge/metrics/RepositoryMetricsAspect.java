@@ -0,0 +1,42 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call to the employee and compensation repositories as {@code repository.calls}, tagged with the
+ * repository and method, and counts the calls made for the current request.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(* *(..)) && (target(com.mindex.challenge.dao.EmployeeRepository) || target(com.mindex.challenge.dao.CompensationRepository))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallCounter.increment();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("repository.calls")
+                    .tag("repository", joinPoint.getTarget() instanceof EmployeeRepository ? "employee" : "compensation")
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -1,12 +1,55 @@
 package com.mindex.challenge.service;
 
 import com.mindex.challenge.data.Compensation;
-import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.CompensationImportResult;
+import com.mindex.challenge.data.CompensationPage;
+import com.mindex.challenge.data.CompensationRollup;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface CompensationService {
     Compensation create(Compensation compensation);
-    List<Compensation> search(String employeeId);
+
+    /**
+     * @param employeeId id of the employee to search for, or null for all employees.
+     * @param after the next token of the previous page, or null for the first page.
+     * @param limit maximum number of compensations in the page.
+     */
+    CompensationPage search(String employeeId, String after, int limit);
+
+    /**
+     * Writes every matching compensation as it is read, either as a JSON array or as newline delimited JSON.
+     *
+     * @param employeeId id of the employee to search for, or null for all employees.
+     */
+    void writeAll(String employeeId, boolean delimited, OutputStream outputStream) throws IOException;
+
+    /**
+     * Creates every compensation in a JSON array or newline delimited JSON body, skipping duplicates and records with
+     * invalid employees.
+     */
+    CompensationImportResult importAll(InputStream inputStream) throws IOException;
+
+    /**
+     * @return the compensation of the employee with the latest effective date on or before the date.
+     */
+    Compensation readAsOf(String employeeId, LocalDate date);
+
+    /**
+     * @return the compensation in effect on the date of each employee in the department that has one.
+     */
+    List<Compensation> readAsOfByDepartment(String department, LocalDate date);
+
+    /**
+     * @return the salaries in effect on the date, aggregated over every employee's subtree.
+     */
+    List<CompensationRollup> readRollups(LocalDate date);
+
+    CompensationRollup readRollup(String employeeId, LocalDate date);
+
     void deleteAll();
 }
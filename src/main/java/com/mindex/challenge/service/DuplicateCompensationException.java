@@ -0,0 +1,20 @@
+package com.mindex.challenge.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Thrown when a compensation already exists for the employee and effective date.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateCompensationException extends RuntimeException {
+    public DuplicateCompensationException(String employeeId, LocalDate effectiveDate, Throwable cause) {
+        super(message(employeeId, effectiveDate), cause);
+    }
+
+    public static String message(String employeeId, LocalDate effectiveDate) {
+        return "Compensation for employee with id '" + employeeId + "' and effective date " + effectiveDate + " already exists.";
+    }
+}
@@ -1,12 +1,31 @@
 package com.mindex.challenge.service;
 
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePatch;
 import com.mindex.challenge.data.ReportingStructure;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 public interface EmployeeService {
     Employee create(Employee employee);
     Employee read(String id);
     Employee update(Employee employee);
 
+    /**
+     * Applies the patch to the stored employee in place.
+     */
+    Employee patch(String id, EmployeePatch patch);
+
+    /**
+     * @param withReports true for the version of the employee's reporting structure, which also changes with everyone
+     * under the employee.
+     * @return a tag of the employee's current version, or null if it isn't known yet.
+     */
+    String readVersion(String id, boolean withReports);
+
     ReportingStructure readReportingStructure(String id);
+    List<ReportingStructure> readReportingStructures(List<String> ids);
+    void writeReportingTree(ReportingStructure reportingStructure, int depth, OutputStream outputStream) throws IOException;
 }
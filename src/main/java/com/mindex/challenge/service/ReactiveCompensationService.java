@@ -0,0 +1,24 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.Compensation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking counterpart of {@link CompensationService}, used by the reactive profile.
+ */
+public interface ReactiveCompensationService {
+    Mono<Compensation> create(Compensation compensation);
+
+    /**
+     * @param employeeId id of the employee to search for, or null for all employees.
+     */
+    Flux<Compensation> search(String employeeId);
+
+    /**
+     * @return the compensation of the employee with the latest effective date on or before the date.
+     */
+    Mono<Compensation> readAsOf(String employeeId, LocalDate date);
+}
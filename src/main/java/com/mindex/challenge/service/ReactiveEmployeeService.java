@@ -0,0 +1,23 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link EmployeeService}, used by the reactive profile.
+ */
+public interface ReactiveEmployeeService {
+    Mono<Employee> create(Employee employee);
+    Mono<Employee> read(String id);
+    Mono<Employee> update(Employee employee);
+
+    /**
+     * Reads the version off the event loop, since the org graph is locked. Empty where there is no version.
+     *
+     * @see EmployeeService#readVersion(String, boolean)
+     */
+    Mono<String> readVersion(String id, boolean withReports);
+
+    Mono<ReportingStructure> readReportingStructure(String id);
+}
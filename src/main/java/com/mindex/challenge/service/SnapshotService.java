@@ -0,0 +1,13 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.SnapshotResult;
+
+import java.io.IOException;
+
+public interface SnapshotService {
+    /**
+     * Writes the employee and compensation collections to the binary snapshot loaded at startup, replacing any
+     * previous snapshot.
+     */
+    SnapshotResult write() throws IOException;
+}
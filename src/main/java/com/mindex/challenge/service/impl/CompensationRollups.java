@@ -0,0 +1,186 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationRollup;
+import com.mindex.challenge.graph.OrgGraph;
+import com.mindex.challenge.graph.SubtreeStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the compensation rollup of every employee as of the date last asked for.
+ *
+ * Compensations must be added through {@link #add(Compensation)}, which keeps the snapshot up to date by applying the
+ * change in the employee's salary to the employee and every manager above it. A change that removes the smallest or
+ * largest salary of a subtree, and any change to the org graph, discards the snapshot, and it is recomputed on the next
+ * read.
+ */
+@Component
+public class CompensationRollups {
+    private static final Logger LOG = LoggerFactory.getLogger(CompensationRollups.class);
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private CompensationTimeline compensationTimeline;
+
+    // guarded by this
+    private Snapshot snapshot;
+
+    /**
+     * Adds the compensation to the timeline, updating the snapshot if it changes a salary in effect on its date.
+     */
+    public synchronized void add(Compensation compensation) {
+        String employeeId = compensation.getEmployeeId();
+        if( snapshot == null || compensation.getEffectiveDate().isAfter(snapshot.date) || !orgGraph.contains(employeeId) ) {
+            compensationTimeline.add(compensation);
+            return;
+        }
+
+        double previousSalary = compensationTimeline.salaryAsOf(employeeId, snapshot.date);
+        compensationTimeline.add(compensation);
+        double salary = compensationTimeline.salaryAsOf(employeeId, snapshot.date);
+
+        if( Double.compare(previousSalary, salary) != 0 && !update(employeeId, previousSalary, salary) ) {
+            LOG.debug("Discarding compensation rollups as of {}", snapshot.date);
+            snapshot = null;
+        }
+    }
+
+    /**
+     * @return the rollup of every employee as of the date.
+     */
+    public synchronized List<CompensationRollup> read(LocalDate date) {
+        Map<String, CompensationRollup> rollups = current(date).rollups;
+
+        List<CompensationRollup> copies = new ArrayList<>(rollups.size());
+        for( CompensationRollup rollup : rollups.values() ) {
+            copies.add(copy(rollup));
+        }
+        return copies;
+    }
+
+    /**
+     * @return the rollup of the employee as of the date.
+     */
+    public synchronized CompensationRollup read(String employeeId, LocalDate date) {
+        CompensationRollup rollup = current(date).rollups.get(employeeId);
+        if( rollup == null ) {
+            throw new RuntimeException("Invalid employeeId: " + employeeId);
+        }
+        return copy(rollup);
+    }
+
+    public synchronized void clear() {
+        snapshot = null;
+    }
+
+    private Snapshot current(LocalDate date) {
+        if( snapshot == null || !snapshot.date.equals(date) || snapshot.modificationCount != orgGraph.modificationCount() ) {
+            LOG.debug("Computing compensation rollups as of {}", date);
+            snapshot = compute(date);
+        }
+        return snapshot;
+    }
+
+    private Snapshot compute(LocalDate date) {
+        // read before the graph, so a change made while aggregating leaves the snapshot out of date
+        long modificationCount = orgGraph.modificationCount();
+        Map<String, SubtreeStats> statsById = orgGraph.aggregateSubtrees(employeeId -> compensationTimeline.salaryAsOf(employeeId, date));
+
+        Map<String, CompensationRollup> rollups = new HashMap<>(statsById.size() * 2);
+        for( Map.Entry<String, SubtreeStats> entry : statsById.entrySet() ) {
+            SubtreeStats stats = entry.getValue();
+
+            CompensationRollup rollup = new CompensationRollup();
+            rollup.setEmployeeId(entry.getKey());
+            rollup.setEmployeeCount(stats.getCount());
+            rollup.setTotalSalary(stats.getSum());
+            if( stats.getCount() > 0 ) {
+                rollup.setMinSalary(stats.getMin());
+                rollup.setMaxSalary(stats.getMax());
+                rollup.setMeanSalary(stats.getSum() / stats.getCount());
+            }
+            rollups.put(entry.getKey(), rollup);
+        }
+        return new Snapshot(date, modificationCount, rollups);
+    }
+
+    /**
+     * Replaces the employee's salary in the rollups of the employee and its managers.
+     *
+     * @param previousSalary the salary in effect before, or NaN if there wasn't one.
+     * @param salary the salary in effect now.
+     * @return false if the rollups can't be updated in place, because they are out of date or the previous salary
+     * was the smallest or largest of a subtree.
+     */
+    private boolean update(String employeeId, double previousSalary, double salary) {
+        if( snapshot.modificationCount != orgGraph.modificationCount() ) {
+            return false;
+        }
+
+        List<String> affectedIds = orgGraph.managerIds(employeeId);
+        affectedIds.add(employeeId);
+
+        List<CompensationRollup> affected = new ArrayList<>(affectedIds.size());
+        for( String affectedId : affectedIds ) {
+            CompensationRollup rollup = snapshot.rollups.get(affectedId);
+            if( rollup == null ) {
+                return false;
+            }
+            if( !Double.isNaN(previousSalary) && (previousSalary == rollup.getMinSalary() || previousSalary == rollup.getMaxSalary()) ) {
+                return false;
+            }
+            affected.add(rollup);
+        }
+
+        for( CompensationRollup rollup : affected ) {
+            int employeeCount = rollup.getEmployeeCount();
+            double totalSalary = rollup.getTotalSalary() + salary;
+            if( Double.isNaN(previousSalary) ) {
+                employeeCount++;
+            } else {
+                totalSalary -= previousSalary;
+            }
+
+            rollup.setEmployeeCount(employeeCount);
+            rollup.setTotalSalary(totalSalary);
+            rollup.setMinSalary(rollup.getMinSalary() == null ? salary : Math.min(rollup.getMinSalary(), salary));
+            rollup.setMaxSalary(rollup.getMaxSalary() == null ? salary : Math.max(rollup.getMaxSalary(), salary));
+            rollup.setMeanSalary(totalSalary / employeeCount);
+        }
+        return true;
+    }
+
+    private static CompensationRollup copy(CompensationRollup rollup) {
+        CompensationRollup copy = new CompensationRollup();
+        copy.setEmployeeId(rollup.getEmployeeId());
+        copy.setEmployeeCount(rollup.getEmployeeCount());
+        copy.setTotalSalary(rollup.getTotalSalary());
+        copy.setMinSalary(rollup.getMinSalary());
+        copy.setMaxSalary(rollup.getMaxSalary());
+        copy.setMeanSalary(rollup.getMeanSalary());
+        return copy;
+    }
+
+    private static class Snapshot {
+        private final LocalDate date;
+        private final long modificationCount;
+        private final Map<String, CompensationRollup> rollups;
+
+        Snapshot(LocalDate date, long modificationCount, Map<String, CompensationRollup> rollups) {
+            this.date = date;
+            this.modificationCount = modificationCount;
+            this.rollups = rollups;
+        }
+    }
+}
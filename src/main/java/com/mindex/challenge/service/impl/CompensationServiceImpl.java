@@ -1,22 +1,54 @@
 package com.mindex.challenge.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mindex.challenge.DataBootstrap;
 import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationImportResult;
+import com.mindex.challenge.data.CompensationImportResult.Status;
+import com.mindex.challenge.data.CompensationPage;
+import com.mindex.challenge.data.CompensationRollup;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.graph.OrgGraph;
 import com.mindex.challenge.service.CompensationService;
+import com.mindex.challenge.service.DuplicateCompensationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class CompensationServiceImpl implements CompensationService {
 
     private static final Logger LOG = LoggerFactory.getLogger(CompensationServiceImpl.class);
+    private static final int WRITE_BATCH_SIZE = 256;
 
     @Autowired
     private CompensationRepository compensationRepository;
@@ -24,32 +56,275 @@ public class CompensationServiceImpl implements CompensationService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private CompensationTimeline compensationTimeline;
+
+    @Autowired
+    private CompensationRollups compensationRollups;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Value("${challenge.compensation.import.batch-size:1000}")
+    private int importBatchSize = 1000;
+
+    @Value("${challenge.compensation.max-page-size:1000}")
+    private int maxPageSize = 1000;
+
     @Override
     public Compensation create(Compensation compensation) {
         LOG.debug("Creating compensation [{}]", compensation);
 
-        Employee employee = employeeRepository.findByEmployeeId(compensation.getEmployee().getEmployeeId());
-        if( employee == null ) {
-            throw new RuntimeException("Invalid employeeId:" + compensation.getEmployee().getEmployeeId());
+        String employeeId = compensation.getEmployeeId();
+        dataBootstrap.ensureLoaded(employeeId, false);
+        if( !orgGraph.contains(employeeId) ) {
+            throw new RuntimeException("Invalid employeeId:" + employeeId);
+        }
+
+        // uniqueness of employee and effective date is enforced by the compensation index in a single write
+        try {
+            compensationRepository.insert(compensation);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateCompensationException(employeeId, compensation.getEffectiveDate(), e);
+        }
+        compensationRollups.add(compensation);
+
+        // respond with the stored employee rather than the copy that was posted
+        Employee employee = employeeCache.get(employeeId, employeeRepository::findByEmployeeId);
+        if( employee != null ) {
+            compensation.setEmployee(employee);
         }
+        return compensation;
+    }
+
+    @Override
+    public CompensationImportResult importAll(InputStream inputStream) throws IOException {
+        LOG.debug("Importing compensations");
+
+        CompensationImportResult result = new CompensationImportResult();
+        List<Compensation> batch = new ArrayList<>(importBatchSize);
+        int[] batchIndexes = new int[importBatchSize];
+
+        // a reader for single values reads both a top level array and a stream of whitespace separated values
+        int index = 0;
+        try( MappingIterator<Compensation> compensations = objectMapper.readerFor(Compensation.class).readValues(inputStream) ) {
+            while( compensations.hasNextValue() ) {
+                Compensation compensation;
+                try {
+                    compensation = compensations.nextValue();
+                } catch (JsonMappingException e) {
+                    // the iterator skips the rest of a record that doesn't map to a compensation
+                    result.reject(index++, null, Status.INVALID, "Malformed compensation: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                if( isValid(index, compensation, result) ) {
+                    batchIndexes[batch.size()] = index;
+                    batch.add(compensation);
+                    if( batch.size() == importBatchSize ) {
+                        insertBatch(batch, batchIndexes, result);
+                    }
+                }
+                index++;
+            }
+        } catch (JsonParseException e) {
+            // nothing after a record that isn't JSON can be read, but the records before it are still imported
+            result.reject(index, null, Status.INVALID, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        insertBatch(batch, batchIndexes, result);
+
+        result.getRejected().sort(Comparator.comparingInt(CompensationImportResult.RecordResult::getIndex));
+        return result;
+    }
+
+    private boolean isValid(int index, Compensation compensation, CompensationImportResult result) {
+        if( compensation == null ) {
+            result.reject(index, null, Status.INVALID, "Compensation is required.");
+            return false;
+        }
+
+        Set<ConstraintViolation<Compensation>> violations = validator.validate(compensation);
+        if( !violations.isEmpty() ) {
+            result.reject(index, compensation, Status.INVALID, violations.iterator().next().getMessage());
+            return false;
+        }
+
+        String employeeId = compensation.getEmployeeId();
+        dataBootstrap.ensureLoaded(employeeId, false);
+        if( employeeId == null || !orgGraph.contains(employeeId) ) {
+            result.reject(index, compensation, Status.INVALID_EMPLOYEE, "Invalid employeeId:" + employeeId);
+            return false;
+        }
+        return true;
+    }
+
+    private void insertBatch(List<Compensation> batch, int[] batchIndexes, CompensationImportResult result) {
+        Set<Integer> duplicates = compensationRepository.insertAllIgnoringDuplicates(batch);
 
-        Compensation existingCompensation = compensationRepository.findByEmployee_EmployeeIdAndEffectiveDate(employee.getEmployeeId(), compensation.getEffectiveDate());
-        if( existingCompensation != null ) {
-            throw new RuntimeException("Compensation for employee with id '" + compensation.getEmployee().getEmployeeId() + "' and effective date " + compensation.getEffectiveDate() + " already exists.");
+        result.created(batch.size() - duplicates.size());
+        List<Compensation> created = new ArrayList<>(batch.size() - duplicates.size());
+        for( int i = 0; i < batch.size(); i++ ) {
+            Compensation compensation = batch.get(i);
+            if( duplicates.contains(i) ) {
+                result.reject(batchIndexes[i], compensation, Status.DUPLICATE,
+                        DuplicateCompensationException.message(compensation.getEmployeeId(), compensation.getEffectiveDate()));
+            } else {
+                created.add(compensation);
+            }
         }
 
-        return compensationRepository.insert(compensation);
+        // merge each employee's compensations in effective date order rather than the order they arrived in
+        created.sort(Comparator.comparing(Compensation::getEmployeeId).thenComparing(Compensation::getEffectiveDate));
+        for( Compensation compensation : created ) {
+            compensationRollups.add(compensation);
+        }
+        batch.clear();
     }
 
     @Override
-    public List<Compensation> search(String employeeId) {
-        LOG.debug("Searching compensation collection with employeeId [{}]", employeeId);
-        
-        if( employeeId != null ) {
-            return compensationRepository.findAllByEmployee_EmployeeId(employeeId);
+    public CompensationPage search(String employeeId, String after, int limit) {
+        LOG.debug("Searching compensation collection with employeeId [{}], after [{}] and limit {}", employeeId, after, limit);
+
+        if( limit < 1 ) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid limit: " + limit);
+        }
+        if( after != null && !ObjectId.isValid(after) ) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid after: " + after);
         }
 
-        return compensationRepository.findAll();
+        // read one more than the page to find out whether there is a next page
+        int pageSize = Math.min(limit, maxPageSize);
+        List<Compensation> compensations = compensationRepository.findPage(employeeId, after, pageSize + 1);
+
+        CompensationPage page = new CompensationPage();
+        if( compensations.size() > pageSize ) {
+            compensations = compensations.subList(0, pageSize);
+            page.setNext(compensations.get(pageSize - 1).getId());
+        }
+        page.setCompensations(resolveEmployees(compensations));
+        return page;
+    }
+
+    @Override
+    public void writeAll(String employeeId, boolean delimited, OutputStream outputStream) throws IOException {
+        LOG.debug("Writing compensation collection with employeeId [{}]", employeeId);
+
+        ObjectWriter writer = objectMapper.writerFor(Compensation.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        List<Compensation> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+
+        try( CloseableIterator<Compensation> compensations = compensationRepository.streamAll(employeeId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream) ) {
+            generator.setRootValueSeparator(null);
+            if( !delimited ) {
+                generator.writeStartArray();
+            }
+
+            while( compensations.hasNext() ) {
+                batch.add(compensations.next());
+                if( batch.size() == WRITE_BATCH_SIZE || !compensations.hasNext() ) {
+                    for( Compensation compensation : resolveEmployees(batch) ) {
+                        writer.writeValue(generator, compensation);
+                        if( delimited ) {
+                            generator.writeRaw('\n');
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+
+            if( !delimited ) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    /**
+     * Sets the employee of each compensation from a single lookup of all of their employees.
+     */
+    private List<Compensation> resolveEmployees(List<Compensation> compensations) {
+        Set<String> employeeIds = new HashSet<>();
+        for( Compensation compensation : compensations ) {
+            employeeIds.add(compensation.getEmployeeId());
+        }
+
+        Map<String, Employee> employees = new HashMap<>(employeeIds.size() * 2);
+        if( !employeeIds.isEmpty() ) {
+            for( Employee employee : employeeRepository.findAllByEmployeeIdIn(employeeIds) ) {
+                employees.put(employee.getEmployeeId(), employee);
+            }
+        }
+
+        for( Compensation compensation : compensations ) {
+            Employee employee = employees.get(compensation.getEmployeeId());
+            if( employee == null ) {
+                employee = new Employee();
+                employee.setEmployeeId(compensation.getEmployeeId());
+            }
+            compensation.setEmployee(employee);
+        }
+        return compensations;
+    }
+
+    @Override
+    public Compensation readAsOf(String employeeId, LocalDate date) {
+        LOG.debug("Reading compensation for employee with id [{}] as of {}", employeeId, date);
+
+        dataBootstrap.ensureLoaded(employeeId, false);
+        if( !orgGraph.contains(employeeId) ) {
+            throw new RuntimeException("Invalid employeeId:" + employeeId);
+        }
+
+        Compensation compensation = compensationTimeline.asOf(employeeId, date);
+        if( compensation == null ) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No compensation for employee with id '" + employeeId + "' as of " + date);
+        }
+
+        Employee employee = employeeCache.get(employeeId, employeeRepository::findByEmployeeId);
+        if( employee != null ) {
+            compensation.setEmployee(employee);
+        }
+        return compensation;
+    }
+
+    @Override
+    public List<Compensation> readAsOfByDepartment(String department, LocalDate date) {
+        LOG.debug("Reading compensation for department [{}] as of {}", department, date);
+
+        List<Compensation> compensations = new ArrayList<>();
+        for( Employee employee : employeeRepository.findAllByDepartment(department) ) {
+            Compensation compensation = compensationTimeline.asOf(employee.getEmployeeId(), date);
+            if( compensation != null ) {
+                compensation.setEmployee(employee);
+                compensations.add(compensation);
+            }
+        }
+        return compensations;
+    }
+
+    @Override
+    public List<CompensationRollup> readRollups(LocalDate date) {
+        LOG.debug("Reading compensation rollups as of {}", date);
+
+        return compensationRollups.read(date);
+    }
+
+    @Override
+    public CompensationRollup readRollup(String employeeId, LocalDate date) {
+        LOG.debug("Reading compensation rollup for employee with id [{}] as of {}", employeeId, date);
+
+        return compensationRollups.read(employeeId, date);
     }
 
     @Override
@@ -57,5 +332,7 @@ public class CompensationServiceImpl implements CompensationService {
         LOG.debug("Deleting compensation collection");
 
         compensationRepository.deleteAll();
+        compensationTimeline.clear();
+        compensationRollups.clear();
     }
 }
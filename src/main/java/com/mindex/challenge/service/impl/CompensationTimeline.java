@@ -0,0 +1,128 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory timeline of each employee's compensations, sorted by effective date, for answering which compensation is
+ * in effect on a date without reading the compensation collection.
+ *
+ * Each employee's timeline is a pair of arrays of effective dates, as epoch days, and salaries. They are replaced
+ * rather than modified when a compensation is added, so reads need no locking and always see a complete timeline.
+ */
+@Component
+public class CompensationTimeline {
+    private final ConcurrentMap<String, Entries> timelines = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a compensation, replacing any compensation of the employee with the same effective date.
+     */
+    public void add(Compensation compensation) {
+        int effectiveDay = Math.toIntExact(compensation.getEffectiveDate().toEpochDay());
+        double salary = compensation.getSalary();
+
+        timelines.compute(compensation.getEmployeeId(),
+                (employeeId, entries) -> entries == null ? new Entries(effectiveDay, salary) : entries.with(effectiveDay, salary));
+    }
+
+    /**
+     * @param employeeId id of the employee.
+     * @param date the date the compensation should be in effect on.
+     * @return the compensation with the latest effective date on or before the date, with an employee holding only
+     * its id, or null if there isn't one.
+     */
+    public Compensation asOf(String employeeId, LocalDate date) {
+        Entries entries = timelines.get(employeeId);
+        if( entries == null ) {
+            return null;
+        }
+
+        int index = entries.indexAsOf(Math.toIntExact(date.toEpochDay()));
+        if( index < 0 ) {
+            return null;
+        }
+
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(entries.salaries[index]);
+        compensation.setEffectiveDate(LocalDate.ofEpochDay(entries.effectiveDays[index]));
+        return compensation;
+    }
+
+    /**
+     * @return the salary of the compensation {@link #asOf} would return, or NaN if there isn't one.
+     */
+    public double salaryAsOf(String employeeId, LocalDate date) {
+        Entries entries = timelines.get(employeeId);
+        if( entries == null ) {
+            return Double.NaN;
+        }
+
+        int index = entries.indexAsOf(Math.toIntExact(date.toEpochDay()));
+        return index < 0 ? Double.NaN : entries.salaries[index];
+    }
+
+    public void clear() {
+        timelines.clear();
+    }
+
+    /**
+     * @return the number of employees with at least one compensation.
+     */
+    public int size() {
+        return timelines.size();
+    }
+
+    private static class Entries {
+        private final int[] effectiveDays;
+        private final double[] salaries;
+
+        Entries(int effectiveDay, double salary) {
+            this(new int[] { effectiveDay }, new double[] { salary });
+        }
+
+        private Entries(int[] effectiveDays, double[] salaries) {
+            this.effectiveDays = effectiveDays;
+            this.salaries = salaries;
+        }
+
+        Entries with(int effectiveDay, double salary) {
+            int index = Arrays.binarySearch(effectiveDays, effectiveDay);
+            if( index >= 0 ) {
+                double[] replacedSalaries = salaries.clone();
+                replacedSalaries[index] = salary;
+                return new Entries(effectiveDays, replacedSalaries);
+            }
+
+            int insertAt = -index - 1;
+            int[] addedDays = new int[effectiveDays.length + 1];
+            double[] addedSalaries = new double[salaries.length + 1];
+
+            System.arraycopy(effectiveDays, 0, addedDays, 0, insertAt);
+            System.arraycopy(salaries, 0, addedSalaries, 0, insertAt);
+            addedDays[insertAt] = effectiveDay;
+            addedSalaries[insertAt] = salary;
+            System.arraycopy(effectiveDays, insertAt, addedDays, insertAt + 1, effectiveDays.length - insertAt);
+            System.arraycopy(salaries, insertAt, addedSalaries, insertAt + 1, salaries.length - insertAt);
+
+            return new Entries(addedDays, addedSalaries);
+        }
+
+        /**
+         * @return the index of the latest effective day on or before the day, or -1 if there isn't one.
+         */
+        int indexAsOf(int day) {
+            int index = Arrays.binarySearch(effectiveDays, day);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mindex.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mindex.challenge.data.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.function.Function;
+
+/**
+ * Size bounded read-through cache of employees by id, in front of the employee repository.
+ *
+ * Loads for the same id are done once, atomically with storing the result, and invalidating an id waits for any load
+ * of it in progress. Writers must invalidate after writing to the repository, so a load that read the previous version
+ * is always removed and an update can't leave a stale entry behind.
+ */
+@Component
+public class EmployeeCache {
+    @Value("${challenge.employee-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    private Cache<String, Employee> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param employeeId id of the employee.
+     * @param loader loads the employee on a miss, returning null if it doesn't exist.
+     * @return the employee, or null if it doesn't exist.
+     */
+    public Employee get(String employeeId, Function<String, Employee> loader) {
+        return cache.get(employeeId, loader);
+    }
+
+    public void invalidate(String employeeId) {
+        cache.invalidate(employeeId);
+    }
+
+    /**
+     * Applies any pending evictions.
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
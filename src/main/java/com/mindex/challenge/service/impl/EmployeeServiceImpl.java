@@ -1,33 +1,72 @@
 package com.mindex.challenge.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.DataBootstrap;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePatch;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.graph.OrgGraph;
 import com.mindex.challenge.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeServiceImpl.class);
+    private static final int WRITE_LOCK_COUNT = 64;
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // an employee is written to the repository and the org graph under one lock, so the graph sees its writes in the
+    // order they were stored
+    private final Object[] writeLocks = new Object[WRITE_LOCK_COUNT];
+
+    public EmployeeServiceImpl() {
+        for( int i = 0; i < writeLocks.length; i++ ) {
+            writeLocks[i] = new Object();
+        }
+    }
+
     @Override
     public Employee create(Employee employee) {
         LOG.debug("Creating employee [{}]", employee);
 
         employee.setEmployeeId(UUID.randomUUID().toString());
         employeeRepository.insert(employee);
+        employeeCache.invalidate(employee.getEmployeeId());
+        orgGraph.put(employee);
 
         return employee;
     }
@@ -36,7 +75,8 @@ public class EmployeeServiceImpl implements EmployeeService {
     public Employee read(String id) {
         LOG.debug("Creating employee with id [{}]", id);
 
-        Employee employee = employeeRepository.findByEmployeeId(id);
+        dataBootstrap.ensureLoaded(id, false);
+        Employee employee = employeeCache.get(id, employeeRepository::findByEmployeeId);
 
         if (employee == null) {
             throw new RuntimeException("Invalid employeeId: " + id);
@@ -49,15 +89,58 @@ public class EmployeeServiceImpl implements EmployeeService {
     public Employee update(Employee employee) {
         LOG.debug("Updating employee [{}]", employee);
 
-        return employeeRepository.save(employee);
+        // loaded first, so the snapshot's version can't be inserted over the update later
+        dataBootstrap.ensureLoaded(employee.getEmployeeId(), false);
+        synchronized( writeLock(employee.getEmployeeId()) ) {
+            Employee updatedEmployee = employeeRepository.replaceByEmployeeId(employee);
+            employeeCache.invalidate(updatedEmployee.getEmployeeId());
+            orgGraph.put(updatedEmployee);
+
+            return updatedEmployee;
+        }
+    }
+
+    @Override
+    public Employee patch(String id, EmployeePatch patch) {
+        LOG.debug("Patching employee with id [{}]", id);
+
+        // loaded first, so the snapshot's version can't be inserted over the patch later
+        dataBootstrap.ensureLoaded(id, false);
+        if( !orgGraph.contains(id) ) {
+            throw new RuntimeException("Invalid employeeId: " + id);
+        }
+        if( patch.getAddDirectReports() != null ) {
+            for( String directReportId : patch.getAddDirectReports() ) {
+                dataBootstrap.ensureLoaded(directReportId, false);
+                if( id.equals(directReportId) || !orgGraph.contains(directReportId) ) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid direct report: " + directReportId);
+                }
+            }
+        }
+
+        synchronized( writeLock(id) ) {
+            Employee patchedEmployee = employeeRepository.patchByEmployeeId(id, patch);
+            if( patchedEmployee == null ) {
+                throw new RuntimeException("Invalid employeeId: " + id);
+            }
+            employeeCache.invalidate(id);
+            orgGraph.put(patchedEmployee);
+
+            return patchedEmployee;
+        }
     }
 
+    @Override
+    public String readVersion(String id, boolean withReports) {
+        return orgGraph.versionTag(id, withReports);
+    }
 
     @Override
     public ReportingStructure readReportingStructure(String id) {
         LOG.debug("Generating reporting structure for employee with id [{}]", id);
 
-        Employee employee = employeeRepository.findByEmployeeId(id);
+        dataBootstrap.ensureLoaded(id, true);
+        Employee employee = employeeCache.get(id, employeeRepository::findByEmployeeId);
 
         if (employee == null) {
             throw new RuntimeException("Invalid employeeId: " + id);
@@ -66,38 +149,54 @@ public class EmployeeServiceImpl implements EmployeeService {
         ReportingStructure reportingStructure = new ReportingStructure();
         reportingStructure.setEmployee(employee);
 
-        if( employee.getDirectReports() != null ) {
-            Set<String> uniqueReports = getUniqueReports(employee.getDirectReports());
-            reportingStructure.setNumberOfReports(uniqueReports.size());
-        }
+        reportingStructure.setNumberOfReports(orgGraph.numberOfReports(id));
+        meterRegistry.summary("reporting.structure.reports").record(reportingStructure.getNumberOfReports());
 
         return reportingStructure;
     }
 
-    /**
-     * Gathers the ids of all reports from the provided list of direct reports and any reports under them.
-     *
-     * @param directReports list of direct reports for an employee.
-     * @return a set containing the ids of all found reports.
-     */
-    private Set<String> getUniqueReports(List<Employee> directReports) {
-        Set<String> unique = new HashSet<>();
-
-        for( Employee directReport : directReports ) {
+    @Override
+    public List<ReportingStructure> readReportingStructures(List<String> ids) {
+        LOG.debug("Generating reporting structures for employees with ids [{}]", ids);
 
-            Employee employee = employeeRepository.findByEmployeeId(directReport.getEmployeeId());
+        for( String id : ids ) {
+            dataBootstrap.ensureLoaded(id, true);
+        }
+        Map<String, Employee> employeesById = new HashMap<>();
+        for( Employee employee : employeeRepository.findAllByEmployeeIdIn(ids) ) {
+            employeesById.putIfAbsent(employee.getEmployeeId(), employee);
+        }
 
-            if (employee == null) {
-                throw new RuntimeException("Invalid employeeId: " + directReport.getEmployeeId());
+        for( String id : ids ) {
+            if( !employeesById.containsKey(id) ) {
+                throw new RuntimeException("Invalid employeeId: " + id);
             }
+        }
 
-            unique.add(employee.getEmployeeId());
+        int[] numbersOfReports = orgGraph.numberOfReports(ids);
 
-            if( employee.getDirectReports() != null ) {
-                unique.addAll(getUniqueReports(employee.getDirectReports()));
-            }
+        List<ReportingStructure> reportingStructures = new ArrayList<>(ids.size());
+        for( int i = 0; i < numbersOfReports.length; i++ ) {
+            ReportingStructure reportingStructure = new ReportingStructure();
+            reportingStructure.setEmployee(employeesById.get(ids.get(i)));
+            reportingStructure.setNumberOfReports(numbersOfReports[i]);
+            meterRegistry.summary("reporting.structure.reports").record(numbersOfReports[i]);
+            reportingStructures.add(reportingStructure);
         }
 
-        return unique;
+        return reportingStructures;
+    }
+
+    @Override
+    public void writeReportingTree(ReportingStructure reportingStructure, int depth, OutputStream outputStream) throws IOException {
+        LOG.debug("Writing reporting tree for employee with id [{}] to depth {}", reportingStructure.getEmployee().getEmployeeId(), depth);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            new ReportingTreeWriter(employeeRepository, orgGraph, generator, depth).write(reportingStructure);
+        }
+    }
+
+    private Object writeLock(String id) {
+        return writeLocks[(id.hashCode() & Integer.MAX_VALUE) % writeLocks.length];
     }
 }
@@ -0,0 +1,146 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.DataBootstrap;
+import com.mindex.challenge.dao.ReactiveCompensationRepository;
+import com.mindex.challenge.dao.ReactiveEmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.graph.OrgGraph;
+import com.mindex.challenge.service.DuplicateCompensationException;
+import com.mindex.challenge.service.ReactiveCompensationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compensation service for the reactive profile. Current compensations are read from the in memory timeline, as the
+ * blocking service does, and only their employees are read from the reactive repository.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCompensationServiceImpl implements ReactiveCompensationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveCompensationServiceImpl.class);
+    private static final int RESOLVE_BATCH_SIZE = 256;
+
+    @Autowired
+    private ReactiveCompensationRepository compensationRepository;
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private CompensationTimeline compensationTimeline;
+
+    @Autowired
+    private CompensationRollups compensationRollups;
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Override
+    public Mono<Compensation> create(Compensation compensation) {
+        LOG.debug("Creating compensation [{}]", compensation);
+
+        String employeeId = compensation.getEmployeeId();
+        return ensureLoaded(employeeId)
+                .then(Mono.defer(() -> {
+                    if( !orgGraph.contains(employeeId) ) {
+                        return Mono.error(new RuntimeException("Invalid employeeId:" + employeeId));
+                    }
+
+                    // uniqueness of employee and effective date is enforced by the compensation index in a single write
+                    return compensationRepository.insert(compensation)
+                            .onErrorMap(DuplicateKeyException.class,
+                                    e -> new DuplicateCompensationException(employeeId, compensation.getEffectiveDate(), e));
+                }))
+                .doOnNext(compensationRollups::add)
+                // respond with the stored employee rather than the copy that was posted
+                .flatMap(created -> employeeRepository.findByEmployeeId(employeeId)
+                        .doOnNext(created::setEmployee)
+                        .thenReturn(created));
+    }
+
+    @Override
+    public Flux<Compensation> search(String employeeId) {
+        LOG.debug("Searching compensation collection with employeeId [{}]", employeeId);
+
+        Flux<Compensation> compensations = employeeId == null
+                ? compensationRepository.findAll()
+                : compensationRepository.findAllByEmployeeId(employeeId);
+        return compensations
+                .buffer(RESOLVE_BATCH_SIZE)
+                .concatMap(this::resolveEmployees);
+    }
+
+    /**
+     * Sets the employee of each compensation from a single lookup of all of their employees.
+     */
+    private Flux<Compensation> resolveEmployees(List<Compensation> compensations) {
+        Set<String> employeeIds = new HashSet<>();
+        for( Compensation compensation : compensations ) {
+            employeeIds.add(compensation.getEmployeeId());
+        }
+
+        return employeeRepository.findAllByEmployeeIdIn(employeeIds)
+                .collectMap(Employee::getEmployeeId)
+                .flatMapIterable(employees -> {
+                    for( Compensation compensation : compensations ) {
+                        Employee employee = employees.get(compensation.getEmployeeId());
+                        if( employee == null ) {
+                            employee = new Employee();
+                            employee.setEmployeeId(compensation.getEmployeeId());
+                        }
+                        compensation.setEmployee(employee);
+                    }
+                    return compensations;
+                });
+    }
+
+    @Override
+    public Mono<Compensation> readAsOf(String employeeId, LocalDate date) {
+        LOG.debug("Reading compensation for employee with id [{}] as of {}", employeeId, date);
+
+        return ensureLoaded(employeeId)
+                .then(Mono.defer(() -> {
+                    if( !orgGraph.contains(employeeId) ) {
+                        return Mono.error(new RuntimeException("Invalid employeeId:" + employeeId));
+                    }
+
+                    Compensation compensation = compensationTimeline.asOf(employeeId, date);
+                    if( compensation == null ) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No compensation for employee with id '" + employeeId + "' as of " + date));
+                    }
+                    return employeeRepository.findByEmployeeId(employeeId)
+                            .doOnNext(compensation::setEmployee)
+                            .thenReturn(compensation);
+                }));
+    }
+
+    /**
+     * Loads the employee from the snapshot on a thread that may block, while the snapshot is loaded lazily.
+     */
+    private Mono<Void> ensureLoaded(String employeeId) {
+        if( !dataBootstrap.isLoadingOnDemand() ) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromRunnable(() -> dataBootstrap.ensureLoaded(employeeId, false))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,141 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.DataBootstrap;
+import com.mindex.challenge.dao.ReactiveEmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.graph.OrgGraph;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.UUID;
+
+/**
+ * Employee service for the reactive profile. Employees are read from the reactive repository rather than the
+ * employee cache, since the cache loads under a lock that can't be held across a non-blocking read; writes still
+ * invalidate it, and keep the org graph up to date, as the blocking service does.
+ *
+ * Numbers of reports come from the org graph's maintained counts, which are in memory. With
+ * challenge.reporting.verify-counts set they are counted by a {@link ReactiveReportWalk} over the repository instead.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeServiceImpl.class);
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${challenge.reporting.verify-counts:false}")
+    private boolean verifyCounts;
+
+    @Value("${challenge.reporting.max-depth:10000}")
+    private int maxDepth = 10000;
+
+    @Value("${challenge.reporting.max-nodes:5000000}")
+    private int maxNodes = 5000000;
+
+    @Override
+    public Mono<Employee> create(Employee employee) {
+        LOG.debug("Creating employee [{}]", employee);
+
+        employee.setEmployeeId(UUID.randomUUID().toString());
+        return employeeRepository.insert(employee)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(this::written);
+    }
+
+    @Override
+    public Mono<Employee> read(String id) {
+        LOG.debug("Reading employee with id [{}]", id);
+
+        return ensureLoaded(id, false)
+                .then(findByEmployeeId(id));
+    }
+
+    @Override
+    public Mono<Employee> update(Employee employee) {
+        LOG.debug("Updating employee [{}]", employee);
+
+        // loaded first, so the snapshot's version can't be inserted over the update later
+        return ensureLoaded(employee.getEmployeeId(), false)
+                .then(employeeRepository.replaceByEmployeeId(employee))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(this::written);
+    }
+
+    @Override
+    public Mono<String> readVersion(String id, boolean withReports) {
+        return Mono.fromCallable(() -> orgGraph.versionTag(id, withReports))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<ReportingStructure> readReportingStructure(String id) {
+        LOG.debug("Generating reporting structure for employee with id [{}]", id);
+
+        return ensureLoaded(id, true)
+                .then(findByEmployeeId(id))
+                .flatMap(employee -> numberOfReports(employee).map(numberOfReports -> {
+                    ReportingStructure reportingStructure = new ReportingStructure();
+                    reportingStructure.setEmployee(employee);
+                    reportingStructure.setNumberOfReports(numberOfReports);
+                    meterRegistry.summary("reporting.structure.reports").record(numberOfReports);
+                    return reportingStructure;
+                }));
+    }
+
+    private Mono<Integer> numberOfReports(Employee employee) {
+        if( verifyCounts ) {
+            return new ReactiveReportWalk(employeeRepository, employee.getEmployeeId(), maxDepth, maxNodes).count(employee);
+        }
+        // a count that isn't maintained is walked, so it is taken off the event loop
+        return Mono.fromCallable(() -> orgGraph.numberOfReports(employee.getEmployeeId()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Employee> findByEmployeeId(String id) {
+        return employeeRepository.findByEmployeeId(id)
+                .switchIfEmpty(Mono.defer(() -> Mono.error(new RuntimeException("Invalid employeeId: " + id))));
+    }
+
+    /**
+     * Loads the employee from the snapshot on a thread that may block, while the snapshot is loaded lazily.
+     */
+    private Mono<Void> ensureLoaded(String id, boolean withReports) {
+        if( !dataBootstrap.isLoadingOnDemand() ) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromRunnable(() -> dataBootstrap.ensureLoaded(id, withReports))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Runs on a thread that may block, since the org graph is updated under its write lock.
+     */
+    private void written(Employee employee) {
+        employeeCache.invalidate(employee.getEmployeeId());
+        orgGraph.put(employee);
+    }
+}
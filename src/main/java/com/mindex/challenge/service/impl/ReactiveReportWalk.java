@@ -0,0 +1,133 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.ReactiveEmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.graph.ReportingCycleException;
+import com.mindex.challenge.graph.ReportingLimitExceededException;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts the unique employees under an employee by reading the structure from the repository a level at a time.
+ *
+ * Every report on a level is read with one query, issued once the previous level has arrived, so the walk fans out
+ * across the whole level without holding a thread while it waits. Employees reachable through several managers are
+ * read once. Cycles are looked for in the structure once it has all been read, since a level-order walk can't tell a
+ * report that loops back from one that is shared.
+ */
+class ReactiveReportWalk {
+    private final ReactiveEmployeeRepository employeeRepository;
+    private final String rootId;
+    private final int maxDepth;
+    private final int maxNodes;
+    private final Map<String, List<String>> reports = new HashMap<>();
+    private int depth;
+
+    ReactiveReportWalk(ReactiveEmployeeRepository employeeRepository, String rootId, int maxDepth, int maxNodes) {
+        this.employeeRepository = employeeRepository;
+        this.rootId = rootId;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @return the number of unique reports, or an error if the structure loops, is over the limits or references an
+     * employee that doesn't exist.
+     */
+    Mono<Integer> count(Employee root) {
+        return Mono.just(Collections.singletonList(root))
+                .expand(this::nextLevel)
+                .then(Mono.fromCallable(this::finish));
+    }
+
+    private Mono<List<Employee>> nextLevel(List<Employee> level) {
+        Set<String> next = new LinkedHashSet<>();
+        for( Employee employee : level ) {
+            List<String> directReportIds = new ArrayList<>();
+            if( employee.getDirectReports() != null ) {
+                for( Employee directReport : employee.getDirectReports() ) {
+                    directReportIds.add(directReport.getEmployeeId());
+                }
+            }
+            reports.put(employee.getEmployeeId(), directReportIds);
+            next.addAll(directReportIds);
+        }
+        next.removeAll(reports.keySet());
+
+        if( next.isEmpty() ) {
+            return Mono.empty();
+        }
+        if( ++depth > maxDepth ) {
+            throw new ReportingLimitExceededException(rootId, "max-depth", maxDepth);
+        }
+        if( reports.size() - 1 + next.size() > maxNodes ) {
+            throw new ReportingLimitExceededException(rootId, "max-nodes", maxNodes);
+        }
+
+        return employeeRepository.findAllByEmployeeIdIn(next)
+                .collectList()
+                .map(employees -> {
+                    for( Employee employee : employees ) {
+                        next.remove(employee.getEmployeeId());
+                    }
+                    if( !next.isEmpty() ) {
+                        throw new RuntimeException("Invalid employeeId: " + next.iterator().next());
+                    }
+                    return employees;
+                });
+    }
+
+    private int finish() {
+        Set<String> reached = new HashSet<>();
+        Deque<String> path = new ArrayDeque<>();
+        Deque<Integer> nextReport = new ArrayDeque<>();
+        Set<String> onPath = new HashSet<>();
+
+        path.push(rootId);
+        nextReport.push(0);
+        onPath.add(rootId);
+        reached.add(rootId);
+        while( !path.isEmpty() ) {
+            List<String> currentReports = reports.get(path.peek());
+            int index = nextReport.pop();
+            if( index == currentReports.size() ) {
+                onPath.remove(path.pop());
+                continue;
+            }
+            nextReport.push(index + 1);
+
+            String report = currentReports.get(index);
+            if( onPath.contains(report) ) {
+                throw new ReportingCycleException(rootId, cycle(path, report));
+            }
+            if( reached.add(report) ) {
+                path.push(report);
+                nextReport.push(0);
+                onPath.add(report);
+            }
+        }
+        return reports.size() - 1;
+    }
+
+    private static List<String> cycle(Deque<String> path, String repeated) {
+        List<String> cycle = new ArrayList<>();
+        for( String employeeId : path ) {
+            cycle.add(0, employeeId);
+            if( employeeId.equals(repeated) ) {
+                break;
+            }
+        }
+        cycle.add(repeated);
+        return cycle;
+    }
+}
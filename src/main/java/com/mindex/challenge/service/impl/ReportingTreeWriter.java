@@ -0,0 +1,151 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.graph.OrgGraph;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a reporting structure with every report resolved to a full employee, nested under its manager.
+ *
+ * The structure is written as it is walked, so only the employees on the current path, and one batch of reports for
+ * each of them, are held in memory at a time. Each batch of reports is resolved with a single repository query. An
+ * employee reachable through several managers is only expanded the first time it is written; later occurrences, and
+ * employees at the depth limit, list their direct reports by id only. Expanded employees are marked by their index in
+ * the org graph, so marking them takes at most one bit per employee in the graph.
+ */
+class ReportingTreeWriter {
+    private static final int BATCH_SIZE = 256;
+
+    private final EmployeeRepository employeeRepository;
+    private final OrgGraph orgGraph;
+    private final JsonGenerator generator;
+    private final int maxDepth;
+    private final BitSet expanded = new BitSet();
+    private final Deque<Reports> path = new ArrayDeque<>();
+
+    ReportingTreeWriter(EmployeeRepository employeeRepository, OrgGraph orgGraph, JsonGenerator generator, int maxDepth) {
+        this.employeeRepository = employeeRepository;
+        this.orgGraph = orgGraph;
+        this.generator = generator;
+        this.maxDepth = maxDepth;
+    }
+
+    void write(ReportingStructure reportingStructure) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName("employee");
+        writeEmployee(reportingStructure.getEmployee(), 0);
+
+        while( !path.isEmpty() ) {
+            Reports reports = path.peek();
+            Employee next = reports.next();
+            if( next == null ) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                path.pop();
+            } else {
+                writeEmployee(next, reports.depth);
+            }
+        }
+
+        generator.writeNumberField("numberOfReports", reportingStructure.getNumberOfReports());
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * Writes the employee's fields and starts on its direct reports. When the reports are expanded the employee's
+     * object is left open, to be closed once all of its reports have been written.
+     */
+    private void writeEmployee(Employee employee, int depth) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("employeeId", employee.getEmployeeId());
+        generator.writeStringField("firstName", employee.getFirstName());
+        generator.writeStringField("lastName", employee.getLastName());
+        generator.writeStringField("position", employee.getPosition());
+        generator.writeStringField("department", employee.getDepartment());
+
+        List<String> directReportIds = orgGraph.directReportIds(employee.getEmployeeId());
+        generator.writeArrayFieldStart("directReports");
+
+        if( depth < maxDepth && !directReportIds.isEmpty() && expand(employee.getEmployeeId()) ) {
+            path.push(new Reports(directReportIds, depth + 1));
+            return;
+        }
+
+        for( String directReportId : directReportIds ) {
+            generator.writeStartObject();
+            generator.writeStringField("employeeId", directReportId);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * @return true if the employee hasn't been expanded yet, marking it as expanded.
+     */
+    private boolean expand(String employeeId) {
+        int index = orgGraph.findIndex(employeeId);
+        if( index < 0 || expanded.get(index) ) {
+            return false;
+        }
+        expanded.set(index);
+        return true;
+    }
+
+    /**
+     * Direct reports of one employee on the current path, resolved a batch at a time.
+     */
+    private class Reports {
+        private final List<String> ids;
+        private final int depth;
+        private int nextBatch;
+        private Employee[] batch = new Employee[0];
+        private int batchIndex;
+
+        Reports(List<String> ids, int depth) {
+            this.ids = ids;
+            this.depth = depth;
+        }
+
+        Employee next() {
+            if( batchIndex == batch.length ) {
+                if( nextBatch == ids.size() ) {
+                    return null;
+                }
+                resolveBatch();
+            }
+            return batch[batchIndex++];
+        }
+
+        private void resolveBatch() {
+            List<String> batchIds = ids.subList(nextBatch, Math.min(ids.size(), nextBatch + BATCH_SIZE));
+
+            Map<String, Employee> employeesById = new HashMap<>();
+            for( Employee employee : employeeRepository.findAllByEmployeeIdIn(batchIds) ) {
+                employeesById.putIfAbsent(employee.getEmployeeId(), employee);
+            }
+
+            batch = new Employee[batchIds.size()];
+            for( int i = 0; i < batch.length; i++ ) {
+                batch[i] = employeesById.get(batchIds.get(i));
+                if( batch[i] == null ) {
+                    throw new RuntimeException("Invalid employeeId: " + batchIds.get(i));
+                }
+            }
+
+            nextBatch += batch.length;
+            batchIndex = 0;
+        }
+    }
+}
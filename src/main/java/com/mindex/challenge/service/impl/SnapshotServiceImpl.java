@@ -0,0 +1,103 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.SnapshotResult;
+import com.mindex.challenge.service.SnapshotService;
+import com.mindex.challenge.snapshot.SnapshotWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class SnapshotServiceImpl implements SnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotServiceImpl.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @Value("${challenge.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${challenge.snapshot.write-on-shutdown:false}")
+    private boolean writeOnShutdown;
+
+    @Override
+    public synchronized SnapshotResult write() throws IOException {
+        LOG.debug("Writing snapshot to [{}]", snapshotPath);
+
+        if( snapshotPath.isEmpty() ) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No snapshot path is configured");
+        }
+
+        long start = System.nanoTime();
+        Path path = Paths.get(snapshotPath).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+
+        // written next to the snapshot and moved over it, so a restart never sees a partly written snapshot
+        Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        SnapshotResult result = new SnapshotResult();
+        try {
+            try( SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(temporary));
+                 CloseableIterator<Employee> employees = employeeRepository.streamAll();
+                 CloseableIterator<Compensation> compensations = compensationRepository.streamAll(null) ) {
+                int employeeCount = 0;
+                while( employees.hasNext() ) {
+                    writer.write(employees.next());
+                    employeeCount++;
+                }
+
+                int compensationCount = 0;
+                while( compensations.hasNext() ) {
+                    writer.write(compensations.next());
+                    compensationCount++;
+                }
+
+                result.setEmployeeCount(employeeCount);
+                result.setCompensationCount(compensationCount);
+            }
+            // forced to disk first, so after a crash the move can't have survived without the data
+            try( FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE) ) {
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+
+        result.setPath(path.toString());
+        result.setBytes(Files.size(path));
+        result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOG.info("Wrote {} employees and {} compensations to snapshot {} ({} bytes) in {} ms",
+                result.getEmployeeCount(), result.getCompensationCount(), path, result.getBytes(), result.getDurationMillis());
+        return result;
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() throws IOException {
+        if( writeOnShutdown && !snapshotPath.isEmpty() ) {
+            write();
+        }
+    }
+}
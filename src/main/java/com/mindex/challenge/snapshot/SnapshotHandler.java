@@ -0,0 +1,13 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+
+/**
+ * Receives the records of a snapshot as {@link SnapshotReader} decodes them.
+ */
+public interface SnapshotHandler {
+    void employee(Employee employee);
+
+    void compensation(Compensation compensation);
+}
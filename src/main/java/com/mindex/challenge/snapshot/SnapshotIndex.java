@@ -0,0 +1,93 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of where each employee's records start in a memory mapped snapshot, for reading single employees and their
+ * compensations without reading the rest of the snapshot.
+ *
+ * The index is built by a first pass over the snapshot that skips everything but ids and dictionary entries. It can be
+ * read from any number of threads once built.
+ */
+public class SnapshotIndex {
+    private static final int[] NO_OFFSETS = new int[0];
+
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> employeeOffsets = new HashMap<>();
+    private final Map<String, int[]> compensationOffsets = new HashMap<>();
+    private List<String> dictionary;
+    private int[] definitions;
+
+    private SnapshotIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public static SnapshotIndex build(Path path) throws IOException {
+        SnapshotIndex index = new SnapshotIndex(SnapshotReader.map(path));
+
+        SnapshotReader reader = new SnapshotReader(index.buffer.duplicate());
+        reader.index(index);
+        index.dictionary = Collections.unmodifiableList(reader.getDictionary());
+        index.definitions = reader.getDefinitions();
+        return index;
+    }
+
+    void addEmployee(String employeeId, int offset) {
+        employeeOffsets.put(employeeId, offset);
+    }
+
+    void addCompensation(String employeeId, int offset) {
+        int[] offsets = compensationOffsets.getOrDefault(employeeId, NO_OFFSETS);
+        offsets = Arrays.copyOf(offsets, offsets.length + 1);
+        offsets[offsets.length - 1] = offset;
+        compensationOffsets.put(employeeId, offsets);
+    }
+
+    public boolean contains(String employeeId) {
+        return employeeOffsets.containsKey(employeeId);
+    }
+
+    /**
+     * @return the number of employees in the snapshot.
+     */
+    public int size() {
+        return employeeOffsets.size();
+    }
+
+    /**
+     * @return the employee, or null if it isn't in the snapshot.
+     */
+    public Employee readEmployee(String employeeId) throws IOException {
+        Integer offset = employeeOffsets.get(employeeId);
+        return offset == null ? null : reader().readEmployeeAt(offset);
+    }
+
+    /**
+     * @return the employee's compensations, in the order they were written.
+     */
+    public List<Compensation> readCompensations(String employeeId) throws IOException {
+        int[] offsets = compensationOffsets.getOrDefault(employeeId, NO_OFFSETS);
+
+        SnapshotReader reader = reader();
+        List<Compensation> compensations = new ArrayList<>(offsets.length);
+        for( int offset : offsets ) {
+            compensations.add(reader.readCompensationAt(offset));
+        }
+        return compensations;
+    }
+
+    private SnapshotReader reader() {
+        return new SnapshotReader(buffer.duplicate(), dictionary, definitions);
+    }
+}
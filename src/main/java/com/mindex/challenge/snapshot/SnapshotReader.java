@@ -0,0 +1,279 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a snapshot written by {@link SnapshotWriter}.
+ *
+ * The snapshot file is memory mapped rather than read through a stream, so the records are decoded straight from the
+ * page cache without copying the file into the heap first.
+ */
+public class SnapshotReader {
+    private final ByteBuffer buffer;
+    private final List<String> dictionary;
+    // position of the string defining each dictionary entry, or null if they aren't needed
+    private int[] definitions;
+
+    SnapshotReader(ByteBuffer buffer) {
+        this(buffer, new ArrayList<>(), null);
+    }
+
+    /**
+     * @param dictionary the dictionary of the whole snapshot, to read records out of order.
+     * @param definitions the position of the string defining each entry of the dictionary.
+     */
+    SnapshotReader(ByteBuffer buffer, List<String> dictionary, int[] definitions) {
+        this.buffer = buffer;
+        this.dictionary = dictionary;
+        this.definitions = definitions;
+    }
+
+    /**
+     * Passes every employee and compensation in the snapshot, in the order they were written, to the handler.
+     */
+    public static void read(Path path, SnapshotHandler handler) throws IOException {
+        new SnapshotReader(map(path)).read(handler);
+    }
+
+    static ByteBuffer map(Path path) throws IOException {
+        try( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            if( channel.size() > Integer.MAX_VALUE ) {
+                throw new IOException("Snapshot is too large to map: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    void read(SnapshotHandler handler) throws IOException {
+        try {
+            readHeader();
+
+            int tag;
+            while( (tag = buffer.get()) != SnapshotWriter.END ) {
+                if( tag == SnapshotWriter.EMPLOYEE ) {
+                    handler.employee(readEmployee());
+                } else {
+                    handler.compensation(readCompensation(tag));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated snapshot", e);
+        }
+    }
+
+    /**
+     * Reads the snapshot without decoding names, salaries or dates, recording where each record starts and building
+     * the dictionary of the whole snapshot.
+     */
+    void index(SnapshotIndex index) throws IOException {
+        definitions = new int[1024];
+        try {
+            readHeader();
+
+            int tag;
+            while( (tag = buffer.get()) != SnapshotWriter.END ) {
+                int offset = buffer.position() - 1;
+                if( tag == SnapshotWriter.EMPLOYEE ) {
+                    index.addEmployee(readReference(), offset);
+                    skipString();
+                    skipString();
+                    readReference();
+                    readReference();
+
+                    int directReportCount = readLength();
+                    for( int i = 0; i < directReportCount; i++ ) {
+                        readReference();
+                    }
+                } else {
+                    skipCompensationId(tag);
+                    index.addCompensation(readReference(), offset);
+                    buffer.position(buffer.position() + Double.BYTES + Long.BYTES);
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated snapshot", e);
+        }
+        definitions = Arrays.copyOf(definitions, dictionary.size());
+    }
+
+    List<String> getDictionary() {
+        return dictionary;
+    }
+
+    int[] getDefinitions() {
+        return definitions;
+    }
+
+    /**
+     * @return the employee record starting at the offset.
+     */
+    Employee readEmployeeAt(int offset) throws IOException {
+        buffer.position(offset);
+        if( buffer.get() != SnapshotWriter.EMPLOYEE ) {
+            throw new IOException("Corrupt snapshot: no employee at " + offset);
+        }
+        return readEmployee();
+    }
+
+    /**
+     * @return the compensation record starting at the offset.
+     */
+    Compensation readCompensationAt(int offset) throws IOException {
+        buffer.position(offset);
+        return readCompensation(buffer.get());
+    }
+
+    private void readHeader() throws IOException {
+        if( buffer.getInt() != SnapshotWriter.MAGIC ) {
+            throw new IOException("Not an employee snapshot");
+        }
+        int version = buffer.getInt();
+        if( version != SnapshotWriter.VERSION ) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+    }
+
+    private Employee readEmployee() throws IOException {
+        Employee employee = new Employee();
+        employee.setEmployeeId(readReference());
+        employee.setFirstName(readString());
+        employee.setLastName(readString());
+        employee.setPosition(readReference());
+        employee.setDepartment(readReference());
+
+        int directReportCount = readLength();
+        if( directReportCount >= 0 ) {
+            List<Employee> directReports = new ArrayList<>(directReportCount);
+            for( int i = 0; i < directReportCount; i++ ) {
+                Employee directReport = new Employee();
+                directReport.setEmployeeId(readReference());
+                directReports.add(directReport);
+            }
+            employee.setDirectReports(directReports);
+        }
+        return employee;
+    }
+
+    private Compensation readCompensation(int tag) throws IOException {
+        String id;
+        if( tag == SnapshotWriter.COMPENSATION ) {
+            byte[] bytes = new byte[12];
+            buffer.get(bytes);
+            id = new ObjectId(bytes).toHexString();
+        } else if( tag == SnapshotWriter.COMPENSATION_STRING_ID ) {
+            id = readString();
+        } else {
+            throw new IOException("Corrupt snapshot: unknown record " + tag + " at " + (buffer.position() - 1));
+        }
+
+        Employee employee = new Employee();
+        employee.setEmployeeId(readReference());
+
+        Compensation compensation = new Compensation();
+        compensation.setId(id);
+        compensation.setEmployee(employee);
+        compensation.setSalary(buffer.getDouble());
+        compensation.setEffectiveDate(LocalDate.ofEpochDay(buffer.getLong()));
+        return compensation;
+    }
+
+    private void skipCompensationId(int tag) throws IOException {
+        if( tag == SnapshotWriter.COMPENSATION ) {
+            buffer.position(buffer.position() + 12);
+        } else if( tag == SnapshotWriter.COMPENSATION_STRING_ID ) {
+            skipString();
+        } else {
+            throw new IOException("Corrupt snapshot: unknown record " + tag + " at " + (buffer.position() - 1));
+        }
+    }
+
+    /**
+     * Reads a dictionary reference. Read in order, a reference to the next entry is followed by its value. Read out of
+     * order, the dictionary is already complete, and a reference is followed by its value when this is where the entry
+     * was defined.
+     */
+    private String readReference() throws IOException {
+        int index = readVarint() - 1;
+        if( index < 0 ) {
+            return null;
+        }
+
+        if( index == dictionary.size() ) {
+            if( definitions != null ) {
+                if( index == definitions.length ) {
+                    definitions = Arrays.copyOf(definitions, index * 2);
+                }
+                definitions[index] = buffer.position();
+            }
+            String value = readString();
+            dictionary.add(value);
+            return value;
+        }
+        if( index > dictionary.size() ) {
+            throw new IOException("Corrupt snapshot: dictionary index " + index + " at " + buffer.position());
+        }
+
+        if( definitions != null && definitions[index] == buffer.position() ) {
+            skipString();
+        }
+        return dictionary.get(index);
+    }
+
+    private String readString() throws IOException {
+        int length = readLength();
+        if( length < 0 ) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void skipString() throws IOException {
+        int length = readLength();
+        if( length > 0 ) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    /**
+     * Reads the length of a string or list, written as the length plus one or 0 for null. Every byte or element takes
+     * at least a byte, so a length longer than what is left of the snapshot is corrupt.
+     *
+     * @return the length, or -1 for null.
+     */
+    private int readLength() throws IOException {
+        int length = readVarint() - 1;
+        if( length < -1 || length > buffer.remaining() ) {
+            throw new IOException("Corrupt snapshot: length " + length + " at " + buffer.position());
+        }
+        return length;
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for( int shift = 0; shift < 32; shift += 7 ) {
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if( b >= 0 ) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt snapshot: varint too long at " + buffer.position());
+    }
+}
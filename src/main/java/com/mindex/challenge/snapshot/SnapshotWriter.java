@@ -0,0 +1,132 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.types.ObjectId;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes employees and compensations to a binary snapshot, to be read back with {@link SnapshotReader}.
+ *
+ * A snapshot is a header followed by one tagged record per employee or compensation and an end tag. Strings are
+ * written as a varint length and UTF-8 bytes. Employee ids, positions and departments repeat across records, so they
+ * are dictionary encoded: the first time a value is written it is added to the dictionary, and every later occurrence
+ * is written as its varint index.
+ */
+public class SnapshotWriter implements Closeable {
+    static final int MAGIC = 0x4d58534e;
+    static final int VERSION = 1;
+
+    static final int END = 0;
+    static final int EMPLOYEE = 1;
+    // a compensation whose id is an ObjectId, written as its 12 bytes
+    static final int COMPENSATION = 2;
+    // a compensation with any other id, written as a string
+    static final int COMPENSATION_STRING_ID = 3;
+
+    private final DataOutputStream output;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    public SnapshotWriter(OutputStream outputStream) throws IOException {
+        output = new DataOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    public void write(Employee employee) throws IOException {
+        output.writeByte(EMPLOYEE);
+        writeReference(employee.getEmployeeId());
+        writeString(employee.getFirstName());
+        writeString(employee.getLastName());
+        writeReference(employee.getPosition());
+        writeReference(employee.getDepartment());
+
+        List<Employee> directReports = employee.getDirectReports();
+        if( directReports == null ) {
+            writeVarint(0);
+        } else {
+            writeVarint(directReports.size() + 1);
+            for( Employee directReport : directReports ) {
+                writeReference(directReport.getEmployeeId());
+            }
+        }
+    }
+
+    public void write(Compensation compensation) throws IOException {
+        String id = compensation.getId();
+        if( id != null && ObjectId.isValid(id) ) {
+            output.writeByte(COMPENSATION);
+            output.write(new ObjectId(id).toByteArray());
+        } else {
+            output.writeByte(COMPENSATION_STRING_ID);
+            writeString(id);
+        }
+        writeReference(compensation.getEmployeeId());
+        output.writeDouble(compensation.getSalary());
+        output.writeLong(compensation.getEffectiveDate().toEpochDay());
+    }
+
+    /**
+     * Ends the snapshot and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            output.writeByte(END);
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Writes 0 for null, the index plus one of a value already in the dictionary, or the next index plus one followed
+     * by the value itself.
+     */
+    private void writeReference(String value) throws IOException {
+        if( value == null ) {
+            writeVarint(0);
+            return;
+        }
+
+        Integer index = dictionary.get(value);
+        if( index != null ) {
+            writeVarint(index + 1);
+        } else {
+            index = dictionary.size();
+            dictionary.put(value, index);
+            writeVarint(index + 1);
+            writeString(value);
+        }
+    }
+
+    /**
+     * Writes 0 for null, or the length plus one followed by the UTF-8 bytes.
+     */
+    private void writeString(String value) throws IOException {
+        if( value == null ) {
+            writeVarint(0);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1);
+        output.write(bytes);
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while( (value & ~0x7f) != 0 ) {
+            output.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+}
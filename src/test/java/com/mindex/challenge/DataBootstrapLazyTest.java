@@ -0,0 +1,159 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.snapshot.SnapshotWriter;
+import org.bson.types.ObjectId;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "challenge.bootstrap.lazy=true",
+        "challenge.snapshot.path=${java.io.tmpdir}/challenge-lazy-test/employees.snapshot" })
+public class DataBootstrapLazyTest {
+    private static final Path SNAPSHOT_PATH = Paths.get(System.getProperty("java.io.tmpdir"), "challenge-lazy-test", "employees.snapshot");
+    private static final int EMPLOYEE_COUNT = 20000;
+    private static final int FANOUT = 10;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    // employee i manages employees 10i+1 to 10i+10, and every tenth employee has a compensation
+    @BeforeClass
+    public static void writeSnapshot() throws Exception {
+        // written from employee 0, so the background load reaches the last employees last
+        List<Employee> employees = SyntheticOrg.employees(SyntheticOrg.Shape.WIDE, EMPLOYEE_COUNT, FANOUT, "");
+        Collections.reverse(employees);
+
+        Files.createDirectories(SNAPSHOT_PATH.getParent());
+        try( SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(SNAPSHOT_PATH)) ) {
+            for( Employee employee : employees ) {
+                writer.write(employee);
+            }
+
+            for( int i = 0; i < EMPLOYEE_COUNT; i += 10 ) {
+                Compensation compensation = compensation(i, 1000 + i, LocalDate.of(2020, Month.JANUARY, 1));
+                compensation.setId(new ObjectId().toHexString());
+                writer.write(compensation);
+            }
+        }
+    }
+
+    @AfterClass
+    public static void deleteSnapshot() throws Exception {
+        Files.deleteIfExists(SNAPSHOT_PATH);
+    }
+
+    @Test
+    public void testLoadOnDemandWhileLoading() throws Exception {
+        String baseUrl = "http://localhost:" + port;
+
+        // employee 0 is in the first batch of the background load, whose snapshot compensation is stored before the
+        // employee can be written to, so it can't overwrite or collide with one posted while loading
+        assertEquals(HttpStatus.CONFLICT, restTemplate.postForEntity(baseUrl + "/compensation",
+                compensation(0, 2000, LocalDate.of(2020, Month.JANUARY, 1)), String.class).getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity(baseUrl + "/compensation",
+                compensation(0, 2000, LocalDate.of(2021, Month.JANUARY, 1)), String.class).getStatusCode());
+
+        // the last employees are the last to be loaded in the background
+        Employee employee = restTemplate.getForEntity(baseUrl + "/employee/{id}", Employee.class, SyntheticOrg.employeeId(EMPLOYEE_COUNT - 1)).getBody();
+        assertNotNull(employee);
+        assertEquals("First " + (EMPLOYEE_COUNT - 1), employee.getFirstName());
+
+        ReportingStructure reportingStructure = restTemplate.getForEntity(baseUrl + "/employee/{id}/reporting-structure",
+                ReportingStructure.class, SyntheticOrg.employeeId(1999)).getBody();
+        assertNotNull(reportingStructure);
+        assertEquals(numberOfReports(1999), reportingStructure.getNumberOfReports());
+
+        Compensation compensation = restTemplate.getForEntity(baseUrl + "/compensation/current?employeeId={id}",
+                Compensation.class, SyntheticOrg.employeeId(EMPLOYEE_COUNT - 10)).getBody();
+        assertNotNull(compensation);
+        assertEquals(1000 + EMPLOYEE_COUNT - 10, compensation.getSalary(), 0);
+
+        ResponseEntity<Map<String, Object>> status = readStatus(baseUrl);
+        long deadline = System.currentTimeMillis() + 60000;
+        while( status.getStatusCode() != HttpStatus.OK && System.currentTimeMillis() < deadline ) {
+            assertEquals("LOADING", status.getBody().get("status"));
+            Thread.sleep(100);
+            status = readStatus(baseUrl);
+        }
+
+        // each employee and compensation is inserted once, by whichever of the two loads claimed it
+        assertEquals(HttpStatus.OK, status.getStatusCode());
+        assertEquals("READY", status.getBody().get("status"));
+        assertEquals(EMPLOYEE_COUNT, status.getBody().get("employeeCount"));
+        assertEquals(EMPLOYEE_COUNT, employeeRepository.count());
+        assertEquals(EMPLOYEE_COUNT / 10 + 1, compensationRepository.count());
+        assertEquals(1000, readAsOf(baseUrl, 0, LocalDate.of(2020, Month.JUNE, 1)).getSalary(), 0);
+        assertEquals(2000, readAsOf(baseUrl, 0, LocalDate.of(2021, Month.JUNE, 1)).getSalary(), 0);
+    }
+
+    private ResponseEntity<Map<String, Object>> readStatus(String baseUrl) {
+        return restTemplate.exchange(baseUrl + "/bootstrap", HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, Object>>() {});
+    }
+
+    private Compensation readAsOf(String baseUrl, int i, LocalDate date) {
+        return restTemplate.getForEntity(baseUrl + "/compensation/current?employeeId={id}&asOf={date}",
+                Compensation.class, SyntheticOrg.employeeId(i), date).getBody();
+    }
+
+    private static int numberOfReports(int id) {
+        int count = 0;
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.add(id);
+        while( !pending.isEmpty() ) {
+            int manager = pending.poll();
+            for( int report = manager * FANOUT + 1; report <= manager * FANOUT + FANOUT && report < EMPLOYEE_COUNT; report++ ) {
+                count++;
+                pending.add(report);
+            }
+        }
+        return count;
+    }
+
+    private static Compensation compensation(int i, double salary, LocalDate effectiveDate) {
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(SyntheticOrg.employee(i));
+        compensation.setSalary(salary);
+        compensation.setEffectiveDate(effectiveDate);
+        return compensation;
+    }
+}
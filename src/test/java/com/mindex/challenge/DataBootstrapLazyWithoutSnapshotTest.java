@@ -0,0 +1,30 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "challenge.bootstrap.lazy=true")
+public class DataBootstrapLazyWithoutSnapshotTest {
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    public void testJsonSnapshotLoadedAtStartup() {
+        // without a binary snapshot to load employees from on demand, nothing is left to load once the context is up
+        assertEquals(DataBootstrap.Status.READY, dataBootstrap.getStatus());
+        assertEquals(5, dataBootstrap.getEmployeeCount());
+        assertNotNull(employeeRepository.findByEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f"));
+    }
+}
@@ -1,23 +1,62 @@
 package com.mindex.challenge;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.SnapshotResult;
+import com.mindex.challenge.graph.OrgGraph;
+import com.mindex.challenge.service.impl.CompensationTimeline;
+import com.mindex.challenge.snapshot.SnapshotWriter;
+import org.bson.types.ObjectId;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
-import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class DataBootstrapTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private OrgGraph orgGraph;
+
+    @Autowired
+    private CompensationTimeline compensationTimeline;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     public void test() {
         Employee employee = employeeRepository.findByEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f");
@@ -26,5 +65,116 @@ public class DataBootstrapTest {
         assertEquals("Lennon", employee.getLastName());
         assertEquals("Development Manager", employee.getPosition());
         assertEquals("Engineering", employee.getDepartment());
+
+        assertEquals(5, dataBootstrap.getEmployeeCount());
+        assertEquals("/static/employee_database.json", dataBootstrap.getSource());
+    }
+
+    @Test
+    public void testLoadInBatches() throws Exception {
+        String prefix = UUID.randomUUID() + "-";
+        int employeeCount = 25000;
+
+        // employee i manages employees 10i+1 to 10i+10, so the snapshot is a wide tree under employee 0
+        List<Employee> employees = SyntheticOrg.employees(SyntheticOrg.Shape.WIDE, employeeCount, 10, prefix);
+
+        int loaded = dataBootstrap.load(new ByteArrayInputStream(objectMapper.writeValueAsBytes(employees)));
+
+        assertEquals(employeeCount, loaded);
+        assertEquals(3, employeeRepository.findAllByEmployeeIdIn(Arrays.asList(prefix + SyntheticOrg.employeeId(0),
+                prefix + SyntheticOrg.employeeId(12345), prefix + SyntheticOrg.employeeId(employeeCount - 1))).size());
+        assertEquals("First 12345", employeeRepository.findByEmployeeId(prefix + SyntheticOrg.employeeId(12345)).getFirstName());
+        assertEquals(employeeCount - 1, orgGraph.numberOfReports(prefix + SyntheticOrg.employeeId(0)));
+    }
+
+    @Test
+    public void testLoadSkipsStoredEmployees() throws Exception {
+        String prefix = UUID.randomUUID() + "-";
+
+        Employee report = new Employee();
+        report.setEmployeeId(prefix + "report");
+        report.setDirectReports(Collections.emptyList());
+
+        Employee stored = new Employee();
+        stored.setEmployeeId(prefix + "manager");
+        stored.setFirstName("Stored");
+        stored.setDirectReports(Collections.emptyList());
+        employeeRepository.insert(stored);
+        orgGraph.put(stored);
+
+        Employee manager = new Employee();
+        manager.setEmployeeId(prefix + "manager");
+        manager.setFirstName("Snapshot");
+        manager.setDirectReports(Collections.singletonList(report));
+
+        int loaded = dataBootstrap.load(new ByteArrayInputStream(objectMapper.writeValueAsBytes(Arrays.asList(manager, report, report))));
+
+        assertEquals(1, loaded);
+        assertEquals("Stored", employeeRepository.findByEmployeeId(prefix + "manager").getFirstName());
+        assertNotNull(employeeRepository.findByEmployeeId(prefix + "report"));
+        assertEquals(0, orgGraph.numberOfReports(prefix + "manager"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadFailsOnValueInsteadOfEmployee() throws Exception {
+        String json = "[{\"employeeId\":\"" + UUID.randomUUID() + "\",\"directReports\":[]}, 5]";
+
+        dataBootstrap.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(timeout = 10000)
+    public void testLoadFailsOnErrorReading() throws Exception {
+        byte[] json = ("[{\"employeeId\":\"" + UUID.randomUUID() + "\",\"directReports\":[]},").getBytes(StandardCharsets.UTF_8);
+        InputStream inputStream = new SequenceInputStream(new ByteArrayInputStream(json), new InputStream() {
+            @Override
+            public int read() {
+                throw new Error("Failed reading the snapshot");
+            }
+        });
+
+        // the writer must not be left waiting for a batch that will never come
+        try {
+            dataBootstrap.load(inputStream);
+            fail("Expected the error to be thrown");
+        } catch (Error e) {
+            assertEquals("Failed reading the snapshot", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testLoadSnapshot() throws Exception {
+        String prefix = UUID.randomUUID() + "-";
+
+        Employee report = new Employee();
+        report.setEmployeeId(prefix + "report");
+        report.setFirstName("Report");
+
+        Employee manager = new Employee();
+        manager.setEmployeeId(prefix + "manager");
+        manager.setFirstName("Manager");
+        manager.setDepartment("Engineering");
+        manager.setDirectReports(Collections.singletonList(report));
+
+        Compensation compensation = new Compensation();
+        compensation.setId(new ObjectId().toHexString());
+        compensation.setEmployee(report);
+        compensation.setSalary(100.5);
+        compensation.setEffectiveDate(LocalDate.of(2020, Month.JANUARY, 1));
+
+        Path path = temporaryFolder.newFile().toPath();
+        try( SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(path)) ) {
+            writer.write(manager);
+            writer.write(report);
+            writer.write(compensation);
+        }
+
+        SnapshotResult result = dataBootstrap.loadSnapshot(path);
+
+        assertEquals(2, result.getEmployeeCount());
+        assertEquals(1, result.getCompensationCount());
+        assertEquals("Manager", employeeRepository.findByEmployeeId(prefix + "manager").getFirstName());
+        assertEquals("Engineering", employeeRepository.findByEmployeeId(prefix + "manager").getDepartment());
+        assertEquals(1, orgGraph.numberOfReports(prefix + "manager"));
+        assertEquals(100.5, compensationTimeline.asOf(prefix + "report", LocalDate.of(2021, Month.JANUARY, 1)).getSalary(), 0);
     }
 }
\ No newline at end of file
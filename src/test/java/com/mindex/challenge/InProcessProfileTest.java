@@ -0,0 +1,70 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.InProcessEmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("inprocess")
+public class InProcessProfileTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    public void testNoMongo() {
+        assertTrue(employeeRepository instanceof InProcessEmployeeRepository);
+        assertTrue(applicationContext.getBeansOfType(MongoTemplate.class).isEmpty());
+    }
+
+    @Test
+    public void testEmployeesAndCompensations() {
+        String baseUrl = "http://localhost:" + port;
+
+        ReportingStructure reportingStructure = restTemplate.getForEntity(baseUrl + "/employee/{id}/reporting-structure",
+                ReportingStructure.class, "16a596ae-edd3-4847-99fe-c4518e82c86f").getBody();
+        assertNotNull(reportingStructure);
+        assertEquals(4, reportingStructure.getNumberOfReports());
+
+        Employee createdEmployee = restTemplate.postForEntity(baseUrl + "/employee", new Employee(), Employee.class).getBody();
+        assertNotNull(createdEmployee.getEmployeeId());
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(createdEmployee);
+        compensation.setSalary(100.5);
+        compensation.setEffectiveDate(LocalDate.of(2000, Month.JANUARY, 1));
+
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity(baseUrl + "/compensation", compensation, Compensation.class).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, restTemplate.postForEntity(baseUrl + "/compensation", compensation, Compensation.class).getStatusCode());
+    }
+}
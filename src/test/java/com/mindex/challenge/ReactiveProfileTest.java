@@ -0,0 +1,125 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.controller.EmployeeController;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "challenge.reporting.verify-counts=true")
+@ActiveProfiles("reactive")
+public class ReactiveProfileTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void testReactiveStack() {
+        assertTrue(applicationContext instanceof ReactiveWebApplicationContext);
+        assertTrue(applicationContext.getBeansOfType(EmployeeController.class).isEmpty());
+    }
+
+    @Test
+    public void testUnsupportedEndpointsRejected() {
+        String employeeId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+        webTestClient.get().uri("/employee/{id}/reporting-structure?expand=tree", employeeId).exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/compensation?limit=10").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/compensation?format=ndjson").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/compensation/rollup").exchange().expectStatus().isNotFound();
+        webTestClient.patch().uri("/employee/{id}", employeeId).bodyValue(Collections.emptyMap())
+                .exchange().expectStatus().isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+    }
+
+    @Test
+    public void testEmployeesAndCompensations() {
+        ReportingStructure reportingStructure = webTestClient.get().uri("/employee/{id}/reporting-structure", "16a596ae-edd3-4847-99fe-c4518e82c86f")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReportingStructure.class).returnResult().getResponseBody();
+        assertNotNull(reportingStructure);
+        assertEquals(4, reportingStructure.getNumberOfReports());
+
+        Employee createdEmployee = webTestClient.post().uri("/employee").bodyValue(new Employee())
+                .exchange()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+        assertNotNull(createdEmployee.getEmployeeId());
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(createdEmployee);
+        compensation.setSalary(100.5);
+        compensation.setEffectiveDate(LocalDate.of(2000, Month.JANUARY, 1));
+
+        webTestClient.post().uri("/compensation").bodyValue(compensation).exchange().expectStatus().isOk();
+        webTestClient.post().uri("/compensation").bodyValue(compensation).exchange().expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        Compensation current = webTestClient.get().uri("/compensation/current?employeeId={id}", createdEmployee.getEmployeeId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Compensation.class).returnResult().getResponseBody();
+        assertEquals(100.5, current.getSalary(), 0);
+        assertEquals(createdEmployee.getEmployeeId(), current.getEmployee().getEmployeeId());
+
+        List<Compensation> compensations = webTestClient.get().uri("/compensation?employeeId={id}", createdEmployee.getEmployeeId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Compensation.class).returnResult().getResponseBody();
+        assertEquals(1, compensations.size());
+    }
+
+    @Test
+    public void testConditionalRead() {
+        String eTag = webTestClient.get().uri("/employee/{id}/reporting-structure", "16a596ae-edd3-4847-99fe-c4518e82c86f")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ReportingStructure.class).getResponseHeaders().getETag();
+        assertNotNull(eTag);
+
+        webTestClient.get().uri("/employee/{id}/reporting-structure", "16a596ae-edd3-4847-99fe-c4518e82c86f")
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    public void testReportingCycle() {
+        Employee manager = webTestClient.post().uri("/employee").bodyValue(new Employee())
+                .exchange()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+        Employee report = new Employee();
+        report.setDirectReports(Collections.singletonList(manager));
+        report = webTestClient.post().uri("/employee").bodyValue(report)
+                .exchange()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+
+        manager.setDirectReports(Collections.singletonList(report));
+        webTestClient.put().uri("/employee/{id}", manager.getEmployeeId()).bodyValue(manager).exchange().expectStatus().isOk();
+
+        webTestClient.get().uri("/employee/{id}/reporting-structure", manager.getEmployeeId())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+}
@@ -0,0 +1,139 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.data.Employee;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class JournaledMemoryBackendTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+
+    @After
+    public void tearDown() {
+        close();
+    }
+
+    @Test
+    public void testWritesSurviveRestart() throws Exception {
+        Path path = temporaryFolder.getRoot().toPath().resolve("challenge.journal");
+
+        MongoTemplate mongoTemplate = open(path, JournaledMemoryBackend.FsyncPolicy.ALWAYS);
+        MongoConfig.createIndexes(mongoTemplate);
+        mongoTemplate.insert(employee("kept", "Kept"));
+        mongoTemplate.insert(employee("updated", "Before"));
+        mongoTemplate.insert(employee("removed", "Removed"));
+        mongoTemplate.updateFirst(query(where("employeeId").is("updated")), Update.update("firstName", "After"), Employee.class);
+        mongoTemplate.remove(query(where("employeeId").is("removed")), Employee.class);
+        try {
+            mongoTemplate.insert(employee("kept", "Duplicate"));
+            fail("Expected a DuplicateKeyException");
+        } catch (DuplicateKeyException e) {
+            // expected, and replayed as a failure too
+        }
+        close();
+
+        mongoTemplate = open(path, JournaledMemoryBackend.FsyncPolicy.ALWAYS);
+        assertEquals(2, mongoTemplate.count(query(where("employeeId").exists(true)), Employee.class));
+        assertEquals("Kept", firstName(mongoTemplate, "kept"));
+        assertEquals("After", firstName(mongoTemplate, "updated"));
+        assertNull(mongoTemplate.findOne(query(where("employeeId").is("removed")), Employee.class));
+
+        // the unique index was replayed as well
+        try {
+            mongoTemplate.insert(employee("kept", "Duplicate"));
+            fail("Expected a DuplicateKeyException");
+        } catch (DuplicateKeyException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPartlyWrittenRecordDiscarded() throws Exception {
+        Path path = temporaryFolder.getRoot().toPath().resolve("challenge.journal");
+
+        MongoTemplate mongoTemplate = open(path, JournaledMemoryBackend.FsyncPolicy.INTERVAL);
+        mongoTemplate.insert(employee("first", "First"));
+        close();
+
+        // a record cut off by a crash: a length and only part of the document
+        Files.write(path, new byte[] { 100, 0, 0, 0, 3, 'd', 'b' }, StandardOpenOption.APPEND);
+
+        mongoTemplate = open(path, JournaledMemoryBackend.FsyncPolicy.INTERVAL);
+        assertEquals("First", firstName(mongoTemplate, "first"));
+        mongoTemplate.insert(employee("second", "Second"));
+        close();
+
+        mongoTemplate = open(path, JournaledMemoryBackend.FsyncPolicy.NEVER);
+        assertEquals("First", firstName(mongoTemplate, "first"));
+        assertEquals("Second", firstName(mongoTemplate, "second"));
+    }
+
+    @Test
+    public void testJournalLargerThanReplayBuffer() throws Exception {
+        Path path = temporaryFolder.getRoot().toPath().resolve("challenge.journal");
+
+        MongoTemplate mongoTemplate = open(path, JournaledMemoryBackend.FsyncPolicy.NEVER);
+        for( int i = 0; i < 2000; i++ ) {
+            mongoTemplate.insert(employee("employee-" + i, "First " + i));
+        }
+        close();
+        assertTrue(Files.size(path) > 4 * 64 * 1024);
+
+        mongoTemplate = open(path, JournaledMemoryBackend.FsyncPolicy.NEVER);
+        assertEquals(2000, mongoTemplate.count(query(where("employeeId").exists(true)), Employee.class));
+        assertEquals("First 1999", firstName(mongoTemplate, "employee-1999"));
+    }
+
+    private MongoTemplate open(Path path, JournaledMemoryBackend.FsyncPolicy fsyncPolicy) throws Exception {
+        mongoServer = new MongoServer(new JournaledMemoryBackend(path, fsyncPolicy, 1000, 65536));
+        mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb:/" + mongoServer.getLocalAddress());
+        return new MongoTemplate(new SimpleMongoClientDbFactory(mongoClient, "test"));
+    }
+
+    private void close() {
+        if( mongoClient != null ) {
+            mongoClient.close();
+            mongoClient = null;
+        }
+        if( mongoServer != null ) {
+            mongoServer.shutdown();
+            mongoServer = null;
+        }
+    }
+
+    private static String firstName(MongoTemplate mongoTemplate, String employeeId) {
+        return mongoTemplate.findOne(query(where("employeeId").is(employeeId)), Employee.class).getFirstName();
+    }
+
+    private static Employee employee(String employeeId, String firstName) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setFirstName(firstName);
+        return employee;
+    }
+}
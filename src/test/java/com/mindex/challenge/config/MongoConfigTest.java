@@ -0,0 +1,93 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class MongoConfigTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @Test
+    public void testIndexesCreated() {
+        assertTrue(hasUniqueIndex(mongoTemplate.indexOps(Employee.class).getIndexInfo(), "employeeId"));
+        assertTrue(mongoTemplate.indexOps(Employee.class).getIndexInfo().stream().anyMatch(index -> index.isIndexForFields(Collections.singletonList("department"))));
+        assertTrue(hasUniqueIndex(mongoTemplate.indexOps(Compensation.class).getIndexInfo(), "employeeId", "effectiveDate"));
+    }
+
+    @Test
+    public void testDuplicateEmployeeIdRejected() {
+        Employee employee = new Employee();
+        employee.setEmployeeId(UUID.randomUUID().toString());
+        employeeRepository.insert(employee);
+
+        try {
+            employeeRepository.insert(employee);
+            fail("Expected a DuplicateKeyException");
+        } catch (DuplicateKeyException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDuplicateCompensationRejected() {
+        Employee employee = new Employee();
+        employee.setEmployeeId(UUID.randomUUID().toString());
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(100);
+        compensation.setEffectiveDate(LocalDate.of(2000, 1, 1));
+        compensationRepository.insert(compensation);
+
+        try {
+            compensationRepository.insert(compensation);
+            fail("Expected a DuplicateKeyException");
+        } catch (DuplicateKeyException e) {
+            // expected
+        } finally {
+            compensationRepository.deleteAll();
+        }
+    }
+
+    private static boolean hasUniqueIndex(List<IndexInfo> indexes, String... keys) {
+        for( IndexInfo index : indexes ) {
+            if( index.isUnique() && index.getIndexFields().size() == keys.length ) {
+                boolean matches = true;
+                for( int i = 0; i < keys.length; i++ ) {
+                    matches &= keys[i].equals(index.getIndexFields().get(i).getKey());
+                }
+                if( matches ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,231 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.junit.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.util.CloseableIterator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InProcessRepositoryTest {
+    private static final LocalDate EFFECTIVE_DATE = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void testEmployeeLookups() {
+        InProcessEmployeeRepository employeeRepository = new InProcessEmployeeRepository();
+        employeeRepository.insert(Arrays.asList(
+                employee("a", "Engineering"),
+                employee("b", "Engineering"),
+                employee("c", "Sales")));
+
+        assertEquals("a", employeeRepository.findByEmployeeId("a").getEmployeeId());
+        assertNull(employeeRepository.findByEmployeeId("missing"));
+        assertEquals(2, employeeRepository.findAllByEmployeeIdIn(Arrays.asList("a", "c", "c", "missing")).size());
+        assertEquals(2, employeeRepository.findAllByDepartment("Engineering").size());
+
+        employeeRepository.replaceByEmployeeId(employee("b", "Sales"));
+        assertEquals(1, employeeRepository.findAllByDepartment("Engineering").size());
+        assertEquals(2, employeeRepository.findAllByDepartment("Sales").size());
+        assertEquals(3, employeeRepository.count());
+
+        try {
+            employeeRepository.insert(employee("a", "Sales"));
+            fail("Expected a DuplicateKeyException");
+        } catch (DuplicateKeyException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testEmployeesCopied() {
+        InProcessEmployeeRepository employeeRepository = new InProcessEmployeeRepository();
+        Employee employee = employee("a", "Engineering");
+        employee.setDirectReports(new ArrayList<>(Collections.singletonList(employee("b", null))));
+        employeeRepository.insert(employee);
+
+        employee.setFirstName("Changed");
+        employee.getDirectReports().clear();
+        Employee read = employeeRepository.findByEmployeeId("a");
+        assertNull(read.getFirstName());
+        assertEquals(1, read.getDirectReports().size());
+
+        read.getDirectReports().get(0).setEmployeeId("changed");
+        assertEquals("b", employeeRepository.findByEmployeeId("a").getDirectReports().get(0).getEmployeeId());
+    }
+
+    @Test
+    public void testCompensationUniqueIndex() {
+        InProcessCompensationRepository compensationRepository = new InProcessCompensationRepository();
+        Compensation compensation = compensation("a", EFFECTIVE_DATE);
+        compensationRepository.insert(compensation);
+        assertNotNull(compensation.getId());
+
+        try {
+            compensationRepository.insert(compensation("a", EFFECTIVE_DATE));
+            fail("Expected a DuplicateKeyException");
+        } catch (DuplicateKeyException e) {
+            // expected
+        }
+
+        List<Compensation> batch = Arrays.asList(
+                compensation("a", EFFECTIVE_DATE.plusDays(1)),
+                compensation("a", EFFECTIVE_DATE),
+                compensation("b", EFFECTIVE_DATE));
+        assertEquals(Collections.singleton(1), compensationRepository.insertAllIgnoringDuplicates(batch));
+        assertEquals(3, compensationRepository.count());
+
+        // saving a compensation under its own id doesn't conflict with itself
+        compensation.setSalary(200);
+        compensationRepository.save(compensation);
+        assertEquals(200, compensationRepository.findById(compensation.getId()).get().getSalary(), 0);
+
+        compensationRepository.deleteAll();
+        assertEquals(0, compensationRepository.count());
+        compensationRepository.insert(compensation("a", EFFECTIVE_DATE));
+    }
+
+    @Test
+    public void testCompensationPages() {
+        InProcessCompensationRepository compensationRepository = new InProcessCompensationRepository();
+        for( int i = 0; i < 25; i++ ) {
+            compensationRepository.insert(compensation(i % 5 == 0 ? "a" : "b", EFFECTIVE_DATE.plusDays(i)));
+        }
+
+        List<Compensation> first = compensationRepository.findPage("a", null, 3);
+        assertEquals(3, first.size());
+        List<Compensation> second = compensationRepository.findPage("a", first.get(2).getId(), 3);
+        assertEquals(2, second.size());
+        assertTrue(first.get(2).getId().compareTo(second.get(0).getId()) < 0);
+        assertEquals("a", second.get(0).getEmployee().getEmployeeId());
+
+        assertEquals(25, compensationRepository.findPage(null, null, 100).size());
+        assertEquals(0, compensationRepository.findPage("missing", null, 100).size());
+
+        int count = 0;
+        try( CloseableIterator<Compensation> compensations = compensationRepository.streamAll("b") ) {
+            while( compensations.hasNext() ) {
+                assertEquals("b", compensations.next().getEmployeeId());
+                count++;
+            }
+        }
+        assertEquals(20, count);
+    }
+
+    @Test
+    public void testSort() {
+        InProcessEmployeeRepository employeeRepository = new InProcessEmployeeRepository();
+        employeeRepository.insert(Arrays.asList(
+                employee("a", "sales"),
+                employee("b", "Engineering"),
+                employee("c", null),
+                employee("d", "Engineering")));
+
+        assertEquals(Arrays.asList("c", "b", "d", "a"), employeeIds(employeeRepository.findAll(Sort.by("department"))));
+        assertEquals(Arrays.asList("a", "d", "b", "c"),
+                employeeIds(employeeRepository.findAll(Sort.by(Sort.Order.desc("department"), Sort.Order.desc("employeeId")))));
+        assertEquals(Arrays.asList("c", "b", "d", "a"),
+                employeeIds(employeeRepository.findAll(Sort.by(Sort.Order.asc("department").ignoreCase()))));
+
+        Page<Employee> page = employeeRepository.findAll(PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "employeeId")));
+        assertEquals(Collections.singletonList("a"), employeeIds(page.getContent()));
+        assertEquals(4, page.getTotalElements());
+
+        InProcessCompensationRepository compensationRepository = new InProcessCompensationRepository();
+        compensationRepository.insert(Arrays.asList(
+                compensation("a", EFFECTIVE_DATE.plusDays(2)),
+                compensation("a", EFFECTIVE_DATE),
+                compensation("b", EFFECTIVE_DATE.plusDays(1))));
+        List<Compensation> compensations = compensationRepository.findAll(Sort.by("effectiveDate"));
+        assertEquals(EFFECTIVE_DATE, compensations.get(0).getEffectiveDate());
+        assertEquals(EFFECTIVE_DATE.plusDays(2), compensations.get(2).getEffectiveDate());
+    }
+
+    @Test
+    public void testQueryByExample() {
+        InProcessEmployeeRepository employeeRepository = new InProcessEmployeeRepository();
+        Employee manager = employee("a", "Engineering");
+        manager.setFirstName("John");
+        manager.setDirectReports(Collections.singletonList(employee("b", null)));
+        Employee report = employee("b", "Engineering");
+        report.setFirstName("Johnny");
+        employeeRepository.insert(Arrays.asList(manager, report, employee("c", "Sales")));
+
+        Employee probe = new Employee();
+        probe.setDepartment("Engineering");
+        assertEquals(Arrays.asList("a", "b"), employeeIds(employeeRepository.findAll(Example.of(probe))));
+        assertEquals(2, employeeRepository.count(Example.of(probe)));
+        assertEquals(Arrays.asList("b", "a"),
+                employeeIds(employeeRepository.findAll(Example.of(probe), Sort.by(Sort.Direction.DESC, "employeeId"))));
+
+        probe.setFirstName("john");
+        assertFalse(employeeRepository.exists(Example.of(probe)));
+        assertEquals("a", employeeRepository.findOne(Example.of(probe, ExampleMatcher.matching().withIgnoreCase())).get().getEmployeeId());
+        assertEquals(2, employeeRepository.count(Example.of(probe,
+                ExampleMatcher.matching().withIgnoreCase().withStringMatcher(ExampleMatcher.StringMatcher.STARTING))));
+
+        Employee anyProbe = new Employee();
+        anyProbe.setFirstName("John");
+        anyProbe.setDepartment("Sales");
+        assertEquals(Arrays.asList("a", "c"), employeeIds(employeeRepository.findAll(Example.of(anyProbe, ExampleMatcher.matchingAny()))));
+
+        // collections must be the same, compared field by field
+        Employee reportsProbe = new Employee();
+        reportsProbe.setDirectReports(Collections.singletonList(employee("b", null)));
+        assertEquals(Collections.singletonList("a"), employeeIds(employeeRepository.findAll(Example.of(reportsProbe))));
+
+        Page<Employee> page = employeeRepository.findAll(Example.of(new Employee()), PageRequest.of(0, 2, Sort.by("employeeId")));
+        assertEquals(Arrays.asList("a", "b"), employeeIds(page.getContent()));
+        assertEquals(3, page.getTotalElements());
+
+        // the salary is a primitive, so it is always matched, and of the transient employee only its id is stored
+        InProcessCompensationRepository compensationRepository = new InProcessCompensationRepository();
+        compensationRepository.insert(Arrays.asList(compensation("a", EFFECTIVE_DATE), compensation("b", EFFECTIVE_DATE)));
+        Compensation compensationProbe = new Compensation();
+        compensationProbe.setEffectiveDate(EFFECTIVE_DATE);
+        assertEquals(0, compensationRepository.count(Example.of(compensationProbe)));
+        compensationProbe.setSalary(100);
+        assertEquals(2, compensationRepository.count(Example.of(compensationProbe)));
+        compensationProbe.setEmployee(employee("a", "Sales"));
+        assertEquals(1, compensationRepository.count(Example.of(compensationProbe)));
+    }
+
+    private static List<String> employeeIds(List<Employee> employees) {
+        List<String> employeeIds = new ArrayList<>();
+        for( Employee employee : employees ) {
+            employeeIds.add(employee.getEmployeeId());
+        }
+        return employeeIds;
+    }
+
+    private static Employee employee(String employeeId, String department) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setDepartment(department);
+        return employee;
+    }
+
+    private static Compensation compensation(String employeeId, LocalDate effectiveDate) {
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee(employeeId, null));
+        compensation.setSalary(100);
+        compensation.setEffectiveDate(effectiveDate);
+        return compensation;
+    }
+}
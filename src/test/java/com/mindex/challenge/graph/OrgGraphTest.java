@@ -0,0 +1,533 @@
+package com.mindex.challenge.graph;
+
+import com.mindex.challenge.data.Employee;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OrgGraphTest {
+
+    private OrgGraph orgGraph;
+
+    @Before
+    public void setup() {
+        orgGraph = new OrgGraph();
+    }
+
+    @Test
+    public void testNestedStructure() {
+        orgGraph.put(employee("A", "B", "C"));
+        orgGraph.put(employee("B", "D", "E"));
+        orgGraph.put(employee("C", "F"));
+        orgGraph.put(employee("D"));
+        orgGraph.put(employee("E"));
+        orgGraph.put(employee("F"));
+
+        assertEquals(5, orgGraph.countReports("A"));
+        assertEquals(2, orgGraph.countReports("B"));
+        assertEquals(1, orgGraph.countReports("C"));
+        assertEquals(0, orgGraph.countReports("F"));
+    }
+
+    @Test
+    public void testSharedReportsCountedOnce() {
+        orgGraph.put(employee("A", "B", "C"));
+        orgGraph.put(employee("B", "D", "E"));
+        orgGraph.put(employee("C", "D", "E"));
+        orgGraph.put(employee("D"));
+        orgGraph.put(employee("E"));
+
+        assertEquals(4, orgGraph.countReports("A"));
+    }
+
+    @Test
+    public void testFindIndexStaysTheSame() {
+        orgGraph.put(employee("A", "B"));
+        assertEquals(-1, orgGraph.findIndex("B"));
+        assertEquals(-1, orgGraph.findIndex("missing"));
+
+        orgGraph.put(employee("B"));
+        int index = orgGraph.findIndex("B");
+        assertTrue(index >= 0);
+        assertNotEquals(index, orgGraph.findIndex("A"));
+
+        orgGraph.put(employee("A"));
+        orgGraph.put(employee("B", "C"));
+        assertEquals(index, orgGraph.findIndex("B"));
+    }
+
+    @Test
+    public void testPutReplacesDirectReports() {
+        orgGraph.put(employee("A", "B"));
+        orgGraph.put(employee("B", "C"));
+        orgGraph.put(employee("C"));
+        assertEquals(2, orgGraph.countReports("A"));
+
+        orgGraph.put(employee("B"));
+        assertEquals(1, orgGraph.countReports("A"));
+    }
+
+    @Test
+    public void testNumberOfReportsFollowsUpdates() {
+        orgGraph.put(employee("A", "B", "C"));
+        orgGraph.put(employee("B", "D"));
+        orgGraph.put(employee("C"));
+        orgGraph.put(employee("D"));
+        assertEquals(3, orgGraph.numberOfReports("A"));
+
+        // move D from B to C, then share it between both
+        orgGraph.put(employee("B"));
+        orgGraph.put(employee("C", "D"));
+        assertEquals(3, orgGraph.numberOfReports("A"));
+        assertEquals(0, orgGraph.numberOfReports("B"));
+
+        orgGraph.put(employee("B", "D"));
+        assertEquals(3, orgGraph.numberOfReports("A"));
+        assertEquals(1, orgGraph.numberOfReports("B"));
+
+        orgGraph.put(employee("E", "A"));
+        assertEquals(4, orgGraph.numberOfReports("E"));
+        assertEquals(0, orgGraph.verifyAll());
+    }
+
+    @Test
+    public void testVersionTagsFollowChanges() {
+        orgGraph.put(employee("A", "B"));
+        orgGraph.put(employee("B", "C"));
+        orgGraph.put(employee("C"));
+        orgGraph.put(employee("D"));
+        assertEquals(null, orgGraph.versionTag("E", true));
+
+        String a = orgGraph.versionTag("A", false);
+        String aWithReports = orgGraph.versionTag("A", true);
+        String b = orgGraph.versionTag("B", false);
+
+        // a change under A changes the tag of its reporting structure but not of A itself
+        orgGraph.put(employee("C"));
+        assertEquals(a, orgGraph.versionTag("A", false));
+        assertFalse(aWithReports.equals(orgGraph.versionTag("A", true)));
+        assertEquals(b, orgGraph.versionTag("B", false));
+
+        // as does a change once a report is shared, when the managers are marked to be recounted instead
+        aWithReports = orgGraph.versionTag("A", true);
+        orgGraph.put(employee("D", "C"));
+        orgGraph.put(employee("C"));
+        assertFalse(aWithReports.equals(orgGraph.versionTag("A", true)));
+
+        aWithReports = orgGraph.versionTag("A", true);
+        orgGraph.put(employee("D"));
+        orgGraph.put(employee("A", "B"));
+        assertFalse(a.equals(orgGraph.versionTag("A", false)));
+        assertFalse(aWithReports.equals(orgGraph.versionTag("A", true)));
+    }
+
+    @Test
+    public void testNumberOfReportsMatchesRecountAfterRandomUpdates() {
+        assertRandomUpdatesMatchRecount();
+    }
+
+    @Test
+    public void testNumberOfReportsMatchesParallelRecountAfterRandomUpdates() {
+        orgGraph.enableParallel(0, 4);
+        try {
+            assertRandomUpdatesMatchRecount();
+        } finally {
+            orgGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelCountMatchesSequentialCount() {
+        Random random = new Random(7);
+        int employeeCount = 50000;
+
+        // wide and shallow, with most employees shared by a second manager further up
+        for( int i = employeeCount - 1; i >= 0; i-- ) {
+            int first = i * 8 + 1;
+            List<String> reportIds = new ArrayList<>();
+            for( int report = first; report < first + 8 && report < employeeCount; report++ ) {
+                reportIds.add(String.valueOf(report));
+            }
+            if( first + 8 < employeeCount ) {
+                reportIds.add(String.valueOf(first + 8 + random.nextInt(employeeCount - first - 8)));
+            }
+            orgGraph.put(employee(String.valueOf(i), reportIds.toArray(new String[0])));
+        }
+
+        int[] sequentialCounts = new int[employeeCount];
+        for( int i = 0; i < employeeCount; i += 97 ) {
+            sequentialCounts[i] = orgGraph.countReports(String.valueOf(i));
+        }
+
+        orgGraph.enableParallel(0, 4);
+        try {
+            for( int i = 0; i < employeeCount; i += 97 ) {
+                assertEquals(sequentialCounts[i], orgGraph.countReports(String.valueOf(i)));
+            }
+            assertEquals(0, orgGraph.verifyAll());
+        } finally {
+            orgGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelRecountDetectsCycle() {
+        orgGraph.enableParallel(0, 4);
+        try {
+            orgGraph.put(employee("A", "B", "E"));
+            orgGraph.put(employee("E", "C"));
+            orgGraph.put(employee("B", "C"));
+            orgGraph.put(employee("C"));
+            assertEquals(3, orgGraph.numberOfReports("A"));
+
+            orgGraph.put(employee("C", "B"));
+            try {
+                orgGraph.numberOfReports("A");
+                fail("Expected a ReportingCycleException");
+            } catch (ReportingCycleException e) {
+                assertEquals(Arrays.asList("B", "C", "B"), e.getCycle());
+            }
+        } finally {
+            orgGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelCountFailsPastMaxDepth() {
+        ReflectionTestUtils.setField(orgGraph, "maxDepth", 2);
+        orgGraph.put(employee("A", "B"));
+        orgGraph.put(employee("B", "C"));
+        orgGraph.put(employee("C", "D"));
+        orgGraph.put(employee("D"));
+
+        // both walks fail on the chain too deep under A, and count the one under B
+        try {
+            for( boolean parallel : new boolean[] { false, true } ) {
+                if( parallel ) {
+                    orgGraph.enableParallel(0, 4);
+                }
+                assertEquals(2, orgGraph.countReports("B"));
+                try {
+                    orgGraph.countReports("A");
+                    fail("Expected a ReportingLimitExceededException");
+                } catch (ReportingLimitExceededException e) {
+                    assertEquals("A", e.getEmployeeId());
+                    assertEquals("max-depth", e.getLimit());
+                }
+            }
+        } finally {
+            orgGraph.shutdown();
+        }
+    }
+
+    private void assertRandomUpdatesMatchRecount() {
+        Random random = new Random(42);
+        int employeeCount = 40;
+
+        for( int round = 0; round < 2000; round++ ) {
+            int id = random.nextInt(employeeCount);
+            int reportCount = random.nextInt(4);
+            String[] reportIds = new String[reportCount];
+            for( int i = 0; i < reportCount; i++ ) {
+                // mostly reports further down the list, so the structure is usually, but not always, a tree
+                int report = random.nextInt(10) == 0
+                        ? random.nextInt(employeeCount)
+                        : id + 1 + random.nextInt(Math.max(1, employeeCount - id - 1));
+                reportIds[i] = String.valueOf(Math.min(report, employeeCount - 1));
+            }
+            orgGraph.put(employee(String.valueOf(id), reportIds));
+            assertEquals(0, orgGraph.verifyAll());
+        }
+
+        for( int i = 0; i < employeeCount; i++ ) {
+            orgGraph.put(employee(String.valueOf(i), new String[0]));
+            assertEquals(0, orgGraph.verifyAll());
+        }
+    }
+
+    @Test
+    public void testCycleFails() {
+        orgGraph.put(employee("A", "B"));
+        orgGraph.put(employee("B", "C"));
+        orgGraph.put(employee("C", "D"));
+        orgGraph.put(employee("D"));
+        assertEquals(3, orgGraph.numberOfReports("A"));
+
+        orgGraph.put(employee("D", "B"));
+        try {
+            orgGraph.numberOfReports("A");
+            fail("Expected a ReportingCycleException");
+        } catch (ReportingCycleException e) {
+            assertEquals("A", e.getEmployeeId());
+            assertEquals(Arrays.asList("B", "C", "D", "B"), e.getCycle());
+        }
+
+        // breaking the cycle restores the counts
+        orgGraph.put(employee("D"));
+        assertEquals(3, orgGraph.numberOfReports("A"));
+        assertEquals(0, orgGraph.verifyAll());
+    }
+
+    @Test(expected = ReportingCycleException.class)
+    public void testReportingToSelfFails() {
+        orgGraph.put(employee("A", "A"));
+
+        orgGraph.countReports("A");
+    }
+
+    @Test
+    public void testDeepStructure() {
+        int depth = 200000;
+        orgGraph.put(employee(String.valueOf(depth)));
+        for( int i = depth - 1; i >= 0; i-- ) {
+            orgGraph.put(employee(String.valueOf(i), String.valueOf(i + 1)));
+        }
+
+        assertEquals(depth, orgGraph.numberOfReports("0"));
+
+        ReflectionTestUtils.setField(orgGraph, "maxDepth", depth);
+        assertEquals(depth, orgGraph.countReports("0"));
+    }
+
+    @Test(expected = ReportingLimitExceededException.class)
+    public void testMaxDepthExceededFails() {
+        ReflectionTestUtils.setField(orgGraph, "maxDepth", 2);
+        orgGraph.put(employee("A", "B"));
+        orgGraph.put(employee("B", "C"));
+        orgGraph.put(employee("C", "D"));
+        orgGraph.put(employee("D"));
+
+        orgGraph.countReports("A");
+    }
+
+    @Test(expected = ReportingLimitExceededException.class)
+    public void testUnknownCountNotAdjusted() {
+        ReflectionTestUtils.setField(orgGraph, "maxDepth", 2);
+        orgGraph.put(employee("D"));
+        orgGraph.put(employee("C", "D"));
+        orgGraph.put(employee("B", "C"));
+        // sharing D makes A's count be recounted, and past the depth limit it is unknown
+        orgGraph.put(employee("A", "B", "D"));
+        orgGraph.put(employee("A", "B"));
+
+        // the counts are additive again, but adding a report under A mustn't turn its unknown count into a number
+        orgGraph.put(employee("E"));
+        orgGraph.put(employee("D", "E"));
+
+        orgGraph.numberOfReports("A");
+    }
+
+    @Test
+    public void testSharedEmployeeOnlyRecountsOnRead() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(orgGraph, "meterRegistry", meterRegistry);
+        orgGraph.init();
+        DistributionSummary maintainWalks = meterRegistry.get("org.graph.walk.nodes").tag("purpose", "maintain").summary();
+
+        // four reports per manager, built from the bottom up, with the last employee also reporting to employee 1
+        int employeeCount = 1365;
+        for( int i = employeeCount - 1; i >= 0; i-- ) {
+            List<String> reportIds = new ArrayList<>();
+            for( int report = i * 4 + 1; report <= i * 4 + 4 && report < employeeCount; report++ ) {
+                reportIds.add(String.valueOf(report));
+            }
+            if( i == 1 ) {
+                reportIds.add(String.valueOf(employeeCount - 1));
+            }
+            orgGraph.put(employee(String.valueOf(i), reportIds.toArray(new String[0])));
+        }
+        assertEquals(0, maintainWalks.count());
+
+        assertEquals(employeeCount - 1, orgGraph.numberOfReports("0"));
+        assertEquals(1, maintainWalks.count());
+
+        // a change to a tree beside the shared employee is applied up the managers without walking
+        orgGraph.put(employee("2", "9", "10", "11", "12", "new"));
+        orgGraph.put(employee("new"));
+        assertEquals(employeeCount, orgGraph.numberOfReports("0"));
+        assertEquals(1, maintainWalks.count());
+
+        // one under the shared employee leaves its managers to be recounted when next read
+        orgGraph.put(employee(String.valueOf(employeeCount - 1), "new2"));
+        orgGraph.put(employee("new2"));
+        assertEquals(1, maintainWalks.count());
+        assertEquals(employeeCount + 1, orgGraph.numberOfReports("0"));
+        assertEquals(orgGraph.countReports("1"), orgGraph.numberOfReports("1"));
+        assertEquals(0, orgGraph.verifyAll());
+    }
+
+    @Test(expected = ReportingLimitExceededException.class)
+    public void testMaxNodesExceededFails() {
+        ReflectionTestUtils.setField(orgGraph, "maxNodes", 2);
+        orgGraph.put(employee("A", "B", "C", "D"));
+        orgGraph.put(employee("B"));
+        orgGraph.put(employee("C"));
+        orgGraph.put(employee("D"));
+
+        orgGraph.countReports("A");
+    }
+
+    @Test
+    public void testAggregateSubtrees() {
+        orgGraph.put(employee("A", "B", "C"));
+        orgGraph.put(employee("B", "D", "E"));
+        orgGraph.put(employee("C"));
+        orgGraph.put(employee("D"));
+        orgGraph.put(employee("E"));
+        orgGraph.put(employee("F"));
+
+        Map<String, Double> values = new HashMap<>();
+        values.put("A", 10.0);
+        values.put("B", 5.0);
+        values.put("D", 1.0);
+        values.put("E", 2.0);
+        values.put("F", 7.0);
+
+        Map<String, SubtreeStats> stats = orgGraph.aggregateSubtrees(id -> values.getOrDefault(id, Double.NaN));
+        assertEquals(6, stats.size());
+        assertStats(stats.get("A"), 4, 18, 1, 10);
+        assertStats(stats.get("B"), 3, 8, 1, 5);
+        assertEquals(0, stats.get("C").getCount());
+        assertStats(stats.get("F"), 1, 7, 7, 7);
+    }
+
+    @Test
+    public void testAggregateSubtreesCountsSharedAndCyclicEmployeesOnce() {
+        orgGraph.put(employee("A", "B", "C"));
+        orgGraph.put(employee("B", "D"));
+        orgGraph.put(employee("C", "D"));
+        orgGraph.put(employee("D"));
+        orgGraph.put(employee("X", "Y"));
+        orgGraph.put(employee("Y", "X"));
+
+        Map<String, SubtreeStats> stats = orgGraph.aggregateSubtrees(id -> 1.0);
+        assertStats(stats.get("A"), 4, 4, 1, 1);
+        assertStats(stats.get("C"), 2, 2, 1, 1);
+        assertStats(stats.get("X"), 2, 2, 1, 1);
+
+        // no longer shared, but still cyclic
+        orgGraph.put(employee("C"));
+        stats = orgGraph.aggregateSubtrees(id -> 1.0);
+        assertStats(stats.get("A"), 4, 4, 1, 1);
+        assertStats(stats.get("C"), 1, 1, 1, 1);
+        assertStats(stats.get("Y"), 2, 2, 1, 1);
+    }
+
+    @Test
+    public void testAggregateSubtreesMatchesWalk() {
+        Random random = new Random(3);
+        int employeeCount = 300;
+
+        for( int round = 0; round < 2; round++ ) {
+            // a forest first, then with shared reports
+            for( int i = employeeCount - 1; i >= 0; i-- ) {
+                List<String> reportIds = new ArrayList<>();
+                for( int report = i + 1; report < employeeCount; report++ ) {
+                    if( (report - 1) / 4 == i || (round == 1 && random.nextInt(100) == 0) ) {
+                        reportIds.add(String.valueOf(report));
+                    }
+                }
+                orgGraph.put(employee(String.valueOf(i), reportIds.toArray(new String[0])));
+            }
+
+            Map<String, SubtreeStats> stats = orgGraph.aggregateSubtrees(Double::parseDouble);
+            for( int i = 0; i < employeeCount; i += 7 ) {
+                Set<String> subtree = new HashSet<>();
+                List<String> pending = new ArrayList<>();
+                pending.add(String.valueOf(i));
+                while( !pending.isEmpty() ) {
+                    String current = pending.remove(pending.size() - 1);
+                    if( subtree.add(current) ) {
+                        pending.addAll(orgGraph.directReportIds(current));
+                    }
+                }
+
+                double sum = 0;
+                for( String id : subtree ) {
+                    sum += Double.parseDouble(id);
+                }
+                assertEquals(subtree.size(), stats.get(String.valueOf(i)).getCount());
+                assertEquals(sum, stats.get(String.valueOf(i)).getSum(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testManagerIds() {
+        orgGraph.put(employee("A", "B", "C"));
+        orgGraph.put(employee("B", "D"));
+        orgGraph.put(employee("C", "D"));
+        orgGraph.put(employee("D"));
+
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C")), new HashSet<>(orgGraph.managerIds("D")));
+        assertTrue(orgGraph.managerIds("A").isEmpty());
+    }
+
+    @Test
+    public void testContains() {
+        orgGraph.put(employee("A", "B"));
+
+        assertTrue(orgGraph.contains("A"));
+        assertFalse(orgGraph.contains("B"));
+        assertFalse(orgGraph.contains("Z"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingReportFails() {
+        orgGraph.put(employee("A", "B"));
+
+        orgGraph.countReports("A");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingReportFailsNumberOfReports() {
+        orgGraph.put(employee("A", "B"));
+
+        orgGraph.numberOfReports("A");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingEmployeeFails() {
+        orgGraph.countReports("A");
+    }
+
+    //helper functions
+    private static void assertStats(SubtreeStats stats, int count, double sum, double min, double max) {
+        assertEquals(count, stats.getCount());
+        assertEquals(sum, stats.getSum(), 0);
+        assertEquals(min, stats.getMin(), 0);
+        assertEquals(max, stats.getMax(), 0);
+    }
+
+    static Employee employee(String id, String... directReportIds) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+
+        List<Employee> directReports = new ArrayList<>(directReportIds.length);
+        for( String directReportId : directReportIds ) {
+            Employee directReport = new Employee();
+            directReport.setEmployeeId(directReportId);
+            directReports.add(directReport);
+        }
+        employee.setDirectReports(directReports);
+
+        return employee;
+    }
+}
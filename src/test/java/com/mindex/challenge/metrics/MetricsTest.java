@@ -0,0 +1,69 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.data.ReportingStructure;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MetricsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testPrometheusEndpoint() {
+        String baseUrl = "http://localhost:" + port;
+        ReportingStructure reportingStructure = restTemplate.getForEntity(baseUrl + "/employee/{id}/reporting-structure",
+                ReportingStructure.class, "16a596ae-edd3-4847-99fe-c4518e82c86f").getBody();
+        assertNotNull(reportingStructure);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/actuator/prometheus", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        String metrics = response.getBody();
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/employee/{id}/reporting-structure\""));
+        assertTrue(metrics.contains("http_server_requests_repository_calls_count{method=\"GET\",uri=\"/employee/{id}/reporting-structure\",}"));
+        assertTrue(metrics.contains("repository_calls_seconds_count{exception=\"none\",method=\"findByEmployeeId\",repository=\"employee\",}"));
+        assertTrue(metrics.contains("reporting_structure_reports_count"));
+        assertTrue(metrics.contains("org_graph_walk_nodes_count{purpose=\"read\",}"));
+        assertTrue(metrics.contains("bootstrap_duration_seconds"));
+        assertTrue(metrics.contains("bootstrap_ready 1.0"));
+    }
+
+    @Test
+    public void testStreamedRequestRecordedOnce() {
+        String baseUrl = "http://localhost:" + port;
+        long before = repositoryCalls("/compensation");
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/compensation?employeeId={id}", String.class,
+                "16a596ae-edd3-4847-99fe-c4518e82c86f");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        assertEquals(before + 1, repositoryCalls("/compensation"));
+    }
+
+    private long repositoryCalls(String uri) {
+        DistributionSummary summary = meterRegistry.find("http.server.requests.repository.calls").tag("uri", uri).summary();
+        return summary == null ? 0 : summary.count();
+    }
+}
@@ -0,0 +1,167 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationRollup;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.graph.OrgGraph;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CompensationRollupsTest {
+    private static final LocalDate AS_OF = LocalDate.of(2020, Month.JANUARY, 1);
+
+    private OrgGraph orgGraph;
+    private CompensationTimeline compensationTimeline;
+    private CompensationRollups compensationRollups;
+
+    @Before
+    public void setup() {
+        orgGraph = new OrgGraph();
+        compensationTimeline = new CompensationTimeline();
+        compensationRollups = rollups();
+    }
+
+    @Test
+    public void testRollup() {
+        orgGraph.put(employee("A", "B", "C"));
+        orgGraph.put(employee("B", "D"));
+        orgGraph.put(employee("C"));
+        orgGraph.put(employee("D"));
+
+        compensationRollups.add(compensation("A", 400, AS_OF));
+        compensationRollups.add(compensation("B", 200, AS_OF.minusYears(1)));
+        compensationRollups.add(compensation("D", 100, AS_OF.minusYears(1)));
+        compensationRollups.add(compensation("C", 900, AS_OF.plusDays(1)));
+
+        assertRollup(compensationRollups.read("A", AS_OF), 3, 700, 100.0, 400.0);
+        assertRollup(compensationRollups.read("B", AS_OF), 2, 300, 100.0, 200.0);
+        assertRollup(compensationRollups.read("C", AS_OF), 0, 0, null, null);
+        assertRollup(compensationRollups.read("A", AS_OF.plusDays(1)), 4, 1600, 100.0, 900.0);
+        assertEquals(4, compensationRollups.read(AS_OF).size());
+    }
+
+    @Test
+    public void testSharedReportsCountedOnce() {
+        orgGraph.put(employee("A", "B", "C"));
+        orgGraph.put(employee("B", "D"));
+        orgGraph.put(employee("C", "D"));
+        orgGraph.put(employee("D"));
+
+        compensationRollups.add(compensation("D", 100, AS_OF));
+        compensationRollups.add(compensation("A", 100, AS_OF));
+
+        assertRollup(compensationRollups.read("A", AS_OF), 2, 200, 100.0, 100.0);
+        assertRollup(compensationRollups.read("C", AS_OF), 1, 100, 100.0, 100.0);
+    }
+
+    @Test
+    public void testSnapshotFollowsChanges() {
+        orgGraph.put(employee("A", "B"));
+        orgGraph.put(employee("B"));
+        orgGraph.put(employee("C"));
+        compensationRollups.add(compensation("A", 100, AS_OF.minusYears(2)));
+        compensationRollups.add(compensation("B", 50, AS_OF.minusYears(2)));
+        assertRollup(compensationRollups.read("A", AS_OF), 2, 150, 50.0, 100.0);
+
+        // a raise, a new employee and a change of structure
+        compensationRollups.add(compensation("B", 75, AS_OF.minusYears(1)));
+        assertRollup(compensationRollups.read("A", AS_OF), 2, 175, 75.0, 100.0);
+
+        compensationRollups.add(compensation("C", 10, AS_OF.minusYears(1)));
+        orgGraph.put(employee("A", "B", "C"));
+        assertRollup(compensationRollups.read("A", AS_OF), 3, 185, 10.0, 100.0);
+    }
+
+    @Test
+    public void testIncrementalUpdatesMatchRecompute() {
+        Random random = new Random(5);
+        int employeeCount = 60;
+
+        // a tree with each employee reporting to one further up the list
+        for( int i = employeeCount - 1; i >= 0; i-- ) {
+            List<String> reportIds = new ArrayList<>();
+            for( int report = i + 1; report < employeeCount; report++ ) {
+                if( (report - 1) / 3 == i ) {
+                    reportIds.add(String.valueOf(report));
+                }
+            }
+            orgGraph.put(employee(String.valueOf(i), reportIds.toArray(new String[0])));
+        }
+        compensationRollups.read(AS_OF);
+
+        for( int round = 0; round < 500; round++ ) {
+            String employeeId = String.valueOf(random.nextInt(employeeCount));
+            compensationRollups.add(compensation(employeeId, random.nextInt(1000), AS_OF.minusDays(random.nextInt(1000) - 100)));
+
+            if( round % 10 == 0 ) {
+                CompensationRollups recomputed = rollups();
+                for( int i = 0; i < employeeCount; i++ ) {
+                    CompensationRollup expected = recomputed.read(String.valueOf(i), AS_OF);
+                    assertRollup(compensationRollups.read(String.valueOf(i), AS_OF),
+                            expected.getEmployeeCount(), expected.getTotalSalary(), expected.getMinSalary(), expected.getMaxSalary());
+                }
+            }
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingEmployeeFails() {
+        compensationRollups.read("A", AS_OF);
+    }
+
+    //helper functions
+    private CompensationRollups rollups() {
+        CompensationRollups rollups = new CompensationRollups();
+        ReflectionTestUtils.setField(rollups, "orgGraph", orgGraph);
+        ReflectionTestUtils.setField(rollups, "compensationTimeline", compensationTimeline);
+        return rollups;
+    }
+
+    private static Employee employee(String id, String... directReportIds) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+
+        List<Employee> directReports = new ArrayList<>(directReportIds.length);
+        for( String directReportId : directReportIds ) {
+            Employee directReport = new Employee();
+            directReport.setEmployeeId(directReportId);
+            directReports.add(directReport);
+        }
+        employee.setDirectReports(directReports);
+
+        return employee;
+    }
+
+    private static Compensation compensation(String employeeId, double salary, LocalDate effectiveDate) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(salary);
+        compensation.setEffectiveDate(effectiveDate);
+        return compensation;
+    }
+
+    private static void assertRollup(CompensationRollup rollup, int employeeCount, double totalSalary, Double minSalary, Double maxSalary) {
+        assertEquals(employeeCount, rollup.getEmployeeCount());
+        assertEquals(totalSalary, rollup.getTotalSalary(), 0.001);
+        assertEquals(minSalary, rollup.getMinSalary());
+        assertEquals(maxSalary, rollup.getMaxSalary());
+        if( employeeCount == 0 ) {
+            assertNull(rollup.getMeanSalary());
+        } else {
+            assertEquals(totalSalary / employeeCount, rollup.getMeanSalary(), 0.001);
+        }
+    }
+}
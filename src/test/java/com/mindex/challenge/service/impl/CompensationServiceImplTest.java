@@ -1,8 +1,13 @@
 package com.mindex.challenge.service.impl;
 
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationImportResult;
+import com.mindex.challenge.data.CompensationImportResult.Status;
+import com.mindex.challenge.data.CompensationPage;
+import com.mindex.challenge.data.CompensationRollup;
 import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.service.CompensationService;
+import org.bson.Document;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -11,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.*;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -18,6 +24,10 @@ import org.springframework.web.util.UriComponentsBuilder;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -31,6 +41,9 @@ public class CompensationServiceImplTest {
     @Autowired
     private CompensationService compensationService;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @LocalServerPort
     private int port;
 
@@ -121,7 +134,164 @@ public class CompensationServiceImplTest {
 
         ResponseEntity<Compensation> compensationTwoResponse = restTemplate.postForEntity(compensationUrl, testCompensationTwo, Compensation.class);
         assertNotNull(compensationTwoResponse);
-        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, compensationTwoResponse.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, compensationTwoResponse.getStatusCode());
+    }
+
+    @Test
+    public void testConcurrentCreatesWithSameEmployeeAndDate() throws Exception {
+        Employee createdEmployee = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        assertNotNull(createdEmployee);
+
+        Compensation testCompensation = new Compensation();
+        testCompensation.setEmployee(createdEmployee);
+        testCompensation.setSalary(100.5);
+        testCompensation.setEffectiveDate(LocalDate.of(2000, Month.JANUARY, 1));
+
+        int requestCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requestCount);
+        try {
+            List<Future<ResponseEntity<Compensation>>> responses = new ArrayList<>();
+            for( int i = 0; i < requestCount; i++ ) {
+                responses.add(executor.submit(() -> restTemplate.postForEntity(compensationUrl, testCompensation, Compensation.class)));
+            }
+
+            int created = 0;
+            int conflicts = 0;
+            for( Future<ResponseEntity<Compensation>> response : responses ) {
+                HttpStatus status = response.get(10, TimeUnit.SECONDS).getStatusCode();
+                if( status == HttpStatus.OK ) {
+                    created++;
+                } else if( status == HttpStatus.CONFLICT ) {
+                    conflicts++;
+                }
+            }
+
+            assertEquals(1, created);
+            assertEquals(requestCount - 1, conflicts);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSearchResolvesCurrentEmployee() {
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("John");
+        testEmployee.setDirectReports(Collections.emptyList());
+        Employee createdEmployee = restTemplate.postForEntity(employeeUrl, testEmployee, Employee.class).getBody();
+        assertNotNull(createdEmployee);
+
+        Compensation testCompensation = new Compensation();
+        testCompensation.setEmployee(createdEmployee);
+        testCompensation.setSalary(100.5);
+        testCompensation.setEffectiveDate(LocalDate.of(2000, Month.JANUARY, 1));
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity(compensationUrl, testCompensation, Compensation.class).getStatusCode());
+
+        // only the employee's id is stored with the compensation
+        Document storedCompensation = mongoTemplate.getCollection("compensation").find().first();
+        assertNotNull(storedCompensation);
+        assertEquals(createdEmployee.getEmployeeId(), storedCompensation.get("employeeId"));
+        assertFalse(storedCompensation.containsKey("employee"));
+
+        createdEmployee.setFirstName("Johnny");
+        restTemplate.put(employeeUrl + "/" + createdEmployee.getEmployeeId(), createdEmployee);
+
+        Compensation[] searchedCompensations = restTemplate.getForEntity(compensationUrl + "?employeeId=" + createdEmployee.getEmployeeId(),
+                Compensation[].class).getBody();
+        assertNotNull(searchedCompensations);
+        assertEquals(1, searchedCompensations.length);
+        assertEquals("Johnny", searchedCompensations[0].getEmployee().getFirstName());
+    }
+
+    @Test
+    public void testBulkImport() {
+        Employee createdEmployee = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        assertNotNull(createdEmployee);
+        String employeeId = createdEmployee.getEmployeeId();
+
+        Compensation existingCompensation = new Compensation();
+        existingCompensation.setEmployee(createdEmployee);
+        existingCompensation.setSalary(100.5);
+        existingCompensation.setEffectiveDate(LocalDate.of(2000, Month.JANUARY, 1));
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity(compensationUrl, existingCompensation, Compensation.class).getStatusCode());
+
+        String body = "[" +
+                compensationJson(employeeId, 100, "2001-01-01") + "," +
+                compensationJson(employeeId, 100, "2000-01-01") + "," +
+                compensationJson(UUID.randomUUID().toString(), 100, "2001-01-01") + "," +
+                compensationJson(employeeId, -1, "2002-01-01") + "," +
+                compensationJson(employeeId, 100, "2001-01-01") + "," +
+                compensationJson(employeeId, 200, "2002-01-01") +
+                "]";
+
+        CompensationImportResult result = importAll(body, MediaType.APPLICATION_JSON);
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getDuplicate());
+        assertEquals(1, result.getInvalidEmployee());
+        assertEquals(1, result.getInvalid());
+
+        List<CompensationImportResult.RecordResult> rejected = result.getRejected();
+        assertEquals(4, rejected.size());
+        assertRejected(rejected.get(0), 1, Status.DUPLICATE);
+        assertRejected(rejected.get(1), 2, Status.INVALID_EMPLOYEE);
+        assertRejected(rejected.get(2), 3, Status.INVALID);
+        assertRejected(rejected.get(3), 4, Status.DUPLICATE);
+
+        Compensation[] searchedCompensations = restTemplate.getForEntity(compensationUrl, Compensation[].class).getBody();
+        assertNotNull(searchedCompensations);
+        assertEquals(3, searchedCompensations.length);
+    }
+
+    @Test
+    public void testBulkImportNdjson() {
+        Employee createdEmployee = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        assertNotNull(createdEmployee);
+
+        StringBuilder body = new StringBuilder();
+        LocalDate effectiveDate = LocalDate.of(2000, Month.JANUARY, 1);
+        for( int i = 0; i < 2500; i++ ) {
+            body.append(compensationJson(createdEmployee.getEmployeeId(), i, effectiveDate.plusDays(i).toString())).append('\n');
+        }
+
+        CompensationImportResult result = importAll(body.toString(), MediaType.parseMediaType("application/x-ndjson"));
+        assertEquals(2500, result.getCreated());
+        assertTrue(result.getRejected().isEmpty());
+    }
+
+    @Test
+    public void testBulkImportMalformedRecords() {
+        Employee createdEmployee = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        assertNotNull(createdEmployee);
+        String employeeId = createdEmployee.getEmployeeId();
+
+        // a record that doesn't map to a compensation is skipped
+        String body = "[" +
+                compensationJson(employeeId, 100, "2001-01-01") + "," +
+                "{\"employee\":{\"employeeId\":\"" + employeeId + "\"},\"salary\":\"lots\",\"effectiveDate\":\"2002-01-01\"}," +
+                compensationJson(employeeId, 300, "2003-01-01") +
+                "]";
+
+        CompensationImportResult result = importAll(body, MediaType.APPLICATION_JSON);
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getInvalid());
+        assertEquals(1, result.getRejected().size());
+        assertRejected(result.getRejected().get(0), 1, Status.INVALID);
+
+        // a record that isn't JSON ends the import, keeping the records before it
+        body = compensationJson(employeeId, 400, "2004-01-01") + "\n" +
+                "{\"salary\":}\n" +
+                compensationJson(employeeId, 500, "2005-01-01") + "\n";
+
+        result = importAll(body, MediaType.parseMediaType("application/x-ndjson"));
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getInvalid());
+        assertEquals(1, result.getRejected().size());
+        assertRejected(result.getRejected().get(0), 1, Status.INVALID);
+
+        Compensation[] searchedCompensations = restTemplate.getForEntity(compensationUrl + "?employeeId={id}",
+                Compensation[].class, employeeId).getBody();
+        assertNotNull(searchedCompensations);
+        assertEquals(3, searchedCompensations.length);
     }
 
     @Test
@@ -179,4 +349,233 @@ public class CompensationServiceImplTest {
         assertNotNull(searchedCompensations);
         assertEquals(2, searchedCompensations.length);
     }
+
+    @Test
+    public void testPagedSearch() {
+        Employee createdEmployeeOne = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        Employee createdEmployeeTwo = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        assertNotNull(createdEmployeeOne);
+        assertNotNull(createdEmployeeTwo);
+
+        StringBuilder body = new StringBuilder();
+        for( int i = 0; i < 5; i++ ) {
+            body.append(compensationJson(createdEmployeeOne.getEmployeeId(), i, LocalDate.of(2000 + i, Month.JANUARY, 1).toString())).append('\n');
+            body.append(compensationJson(createdEmployeeTwo.getEmployeeId(), i, LocalDate.of(2000 + i, Month.JANUARY, 1).toString())).append('\n');
+        }
+        assertEquals(10, importAll(body.toString(), MediaType.parseMediaType("application/x-ndjson")).getCreated());
+
+        List<Double> salaries = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            String url = compensationUrl + "?employeeId=" + createdEmployeeOne.getEmployeeId() + "&limit=2" + (after == null ? "" : "&after=" + after);
+            CompensationPage page = restTemplate.getForEntity(url, CompensationPage.class).getBody();
+            assertNotNull(page);
+            assertTrue(page.getCompensations().size() <= 2);
+            for( Compensation compensation : page.getCompensations() ) {
+                assertEquals(createdEmployeeOne.getEmployeeId(), compensation.getEmployee().getEmployeeId());
+                salaries.add(compensation.getSalary());
+            }
+            after = page.getNext();
+            pages++;
+        } while( after != null );
+
+        assertEquals(3, pages);
+        assertEquals(Arrays.asList(0.0, 1.0, 2.0, 3.0, 4.0), salaries);
+
+        CompensationPage allPage = restTemplate.getForEntity(compensationUrl + "?limit=100", CompensationPage.class).getBody();
+        assertNotNull(allPage);
+        assertEquals(10, allPage.getCompensations().size());
+        assertNull(allPage.getNext());
+
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(compensationUrl + "?limit=2&after=invalid", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(compensationUrl + "?limit=0", String.class).getStatusCode());
+    }
+
+    @Test
+    public void testStreamedSearch() {
+        Employee createdEmployee = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        assertNotNull(createdEmployee);
+
+        StringBuilder body = new StringBuilder();
+        LocalDate effectiveDate = LocalDate.of(2000, Month.JANUARY, 1);
+        for( int i = 0; i < 600; i++ ) {
+            body.append(compensationJson(createdEmployee.getEmployeeId(), i, effectiveDate.plusDays(i).toString())).append('\n');
+        }
+        assertEquals(600, importAll(body.toString(), MediaType.parseMediaType("application/x-ndjson")).getCreated());
+
+        ResponseEntity<String> response = restTemplate.getForEntity(compensationUrl + "?format=ndjson", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.parseMediaType("application/x-ndjson"), response.getHeaders().getContentType());
+        assertNotNull(response.getBody());
+
+        String[] lines = response.getBody().split("\n");
+        assertEquals(600, lines.length);
+        for( String line : lines ) {
+            assertTrue(line.startsWith("{") && line.contains(createdEmployee.getEmployeeId()));
+        }
+
+        Compensation[] searchedCompensations = restTemplate.getForEntity(compensationUrl, Compensation[].class).getBody();
+        assertNotNull(searchedCompensations);
+        assertEquals(600, searchedCompensations.length);
+
+        // pages aren't streamed, so a streamed page is rejected rather than matching two mappings
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(compensationUrl + "?format=ndjson&limit=10", String.class).getStatusCode());
+    }
+
+    @Test
+    public void testReadAsOf() {
+        Employee testEmployee = new Employee();
+        testEmployee.setDepartment("Payroll " + UUID.randomUUID());
+        Employee createdEmployeeOne = restTemplate.postForEntity(employeeUrl, testEmployee, Employee.class).getBody();
+        Employee createdEmployeeTwo = restTemplate.postForEntity(employeeUrl, testEmployee, Employee.class).getBody();
+        assertNotNull(createdEmployeeOne);
+        assertNotNull(createdEmployeeTwo);
+
+        String body = compensationJson(createdEmployeeOne.getEmployeeId(), 200, "2010-01-01") + "\n" +
+                compensationJson(createdEmployeeOne.getEmployeeId(), 100, "2000-01-01") + "\n" +
+                compensationJson(createdEmployeeTwo.getEmployeeId(), 300, "2005-01-01") + "\n";
+        assertEquals(3, importAll(body, MediaType.parseMediaType("application/x-ndjson")).getCreated());
+
+        Compensation testCompensation = new Compensation();
+        testCompensation.setEmployee(createdEmployeeOne);
+        testCompensation.setSalary(400);
+        testCompensation.setEffectiveDate(LocalDate.of(2020, Month.JANUARY, 1));
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity(compensationUrl, testCompensation, Compensation.class).getStatusCode());
+
+        String currentUrl = compensationUrl + "/current?employeeId=" + createdEmployeeOne.getEmployeeId();
+        Compensation current = restTemplate.getForEntity(currentUrl + "&asOf=2009-12-31", Compensation.class).getBody();
+        assertNotNull(current);
+        assertEquals(100, current.getSalary(), 0);
+        assertEquals(LocalDate.of(2000, Month.JANUARY, 1), current.getEffectiveDate());
+        assertEquals(createdEmployeeOne.getEmployeeId(), current.getEmployee().getEmployeeId());
+        assertEquals(createdEmployeeOne.getDepartment(), current.getEmployee().getDepartment());
+
+        current = restTemplate.getForEntity(currentUrl, Compensation.class).getBody();
+        assertNotNull(current);
+        assertEquals(400, current.getSalary(), 0);
+
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity(currentUrl + "&asOf=1999-12-31", String.class).getStatusCode());
+
+        Compensation[] departmentCompensations = restTemplate.getForEntity(compensationUrl + "/current?department={department}&asOf=2012-01-01",
+                Compensation[].class, testEmployee.getDepartment()).getBody();
+        assertNotNull(departmentCompensations);
+        assertEquals(2, departmentCompensations.length);
+
+        Map<String, Double> salaries = new HashMap<>();
+        for( Compensation compensation : departmentCompensations ) {
+            salaries.put(compensation.getEmployee().getEmployeeId(), compensation.getSalary());
+        }
+        assertEquals(200, salaries.get(createdEmployeeOne.getEmployeeId()), 0);
+        assertEquals(300, salaries.get(createdEmployeeTwo.getEmployeeId()), 0);
+
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(currentUrl + "&department={department}",
+                String.class, testEmployee.getDepartment()).getStatusCode());
+    }
+
+    @Test
+    public void testReadRollup() {
+        Employee report = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        assertNotNull(report);
+
+        Employee testManager = new Employee();
+        testManager.setDirectReports(Collections.singletonList(report));
+        Employee manager = restTemplate.postForEntity(employeeUrl, testManager, Employee.class).getBody();
+        assertNotNull(manager);
+
+        String body = compensationJson(manager.getEmployeeId(), 300, "2000-01-01") + "\n" +
+                compensationJson(report.getEmployeeId(), 100, "2000-01-01") + "\n" +
+                compensationJson(report.getEmployeeId(), 150, "2010-01-01") + "\n";
+        assertEquals(3, importAll(body, MediaType.parseMediaType("application/x-ndjson")).getCreated());
+
+        String rollupUrl = compensationUrl + "/rollup/" + manager.getEmployeeId();
+        CompensationRollup rollup = restTemplate.getForEntity(rollupUrl + "?asOf=2005-01-01", CompensationRollup.class).getBody();
+        assertNotNull(rollup);
+        assertEquals(manager.getEmployeeId(), rollup.getEmployeeId());
+        assertEquals(2, rollup.getEmployeeCount());
+        assertEquals(400, rollup.getTotalSalary(), 0);
+        assertEquals(100, rollup.getMinSalary(), 0);
+        assertEquals(300, rollup.getMaxSalary(), 0);
+        assertEquals(200, rollup.getMeanSalary(), 0);
+
+        rollup = restTemplate.getForEntity(rollupUrl, CompensationRollup.class).getBody();
+        assertNotNull(rollup);
+        assertEquals(450, rollup.getTotalSalary(), 0);
+
+        Compensation raise = new Compensation();
+        raise.setEmployee(manager);
+        raise.setSalary(350);
+        raise.setEffectiveDate(LocalDate.of(2015, Month.JANUARY, 1));
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity(compensationUrl, raise, Compensation.class).getStatusCode());
+
+        rollup = restTemplate.getForEntity(rollupUrl, CompensationRollup.class).getBody();
+        assertNotNull(rollup);
+        assertEquals(500, rollup.getTotalSalary(), 0);
+        assertEquals(350, rollup.getMaxSalary(), 0);
+
+        CompensationRollup[] rollups = restTemplate.getForEntity(compensationUrl + "/rollup", CompensationRollup[].class).getBody();
+        assertNotNull(rollups);
+        assertTrue(Arrays.stream(rollups).anyMatch(r -> r.getEmployeeId().equals(report.getEmployeeId()) && r.getTotalSalary() == 150));
+    }
+
+    @Test
+    public void testBulkImportOutOfOrder() {
+        Employee report = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        assertNotNull(report);
+
+        Employee testManager = new Employee();
+        testManager.setDirectReports(Collections.singletonList(report));
+        Employee manager = restTemplate.postForEntity(employeeUrl, testManager, Employee.class).getBody();
+        assertNotNull(manager);
+
+        // read the rollup first, so the import updates it rather than computing it from the timeline
+        String rollupUrl = compensationUrl + "/rollup/" + manager.getEmployeeId();
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity(rollupUrl, CompensationRollup.class).getStatusCode());
+
+        String body = compensationJson(report.getEmployeeId(), 300, "2010-01-01") + "\n" +
+                compensationJson(manager.getEmployeeId(), 500, "2000-01-01") + "\n" +
+                compensationJson(report.getEmployeeId(), 200, "2005-01-01") + "\n" +
+                compensationJson(report.getEmployeeId(), 100, "2000-01-01") + "\n";
+        assertEquals(4, importAll(body, MediaType.parseMediaType("application/x-ndjson")).getCreated());
+
+        Compensation current = restTemplate.getForEntity(compensationUrl + "/current?employeeId={id}", Compensation.class,
+                report.getEmployeeId()).getBody();
+        assertNotNull(current);
+        assertEquals(300, current.getSalary(), 0);
+        assertEquals(LocalDate.of(2010, Month.JANUARY, 1), current.getEffectiveDate());
+
+        CompensationRollup rollup = restTemplate.getForEntity(rollupUrl, CompensationRollup.class).getBody();
+        assertNotNull(rollup);
+        assertEquals(2, rollup.getEmployeeCount());
+        assertEquals(800, rollup.getTotalSalary(), 0);
+        assertEquals(300, rollup.getMinSalary(), 0);
+        assertEquals(500, rollup.getMaxSalary(), 0);
+
+        rollup = restTemplate.getForEntity(rollupUrl + "?asOf=2007-01-01", CompensationRollup.class).getBody();
+        assertNotNull(rollup);
+        assertEquals(700, rollup.getTotalSalary(), 0);
+        assertEquals(200, rollup.getMinSalary(), 0);
+    }
+
+    //helper functions
+    private CompensationImportResult importAll(String body, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+
+        ResponseEntity<CompensationImportResult> response = restTemplate.postForEntity(compensationUrl + "/bulk",
+                new HttpEntity<>(body, headers), CompensationImportResult.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        return response.getBody();
+    }
+
+    private static String compensationJson(String employeeId, double salary, String effectiveDate) {
+        return "{\"employee\":{\"employeeId\":\"" + employeeId + "\"},\"salary\":" + salary + ",\"effectiveDate\":\"" + effectiveDate + "\"}";
+    }
+
+    private static void assertRejected(CompensationImportResult.RecordResult recordResult, int index, Status status) {
+        assertEquals(index, recordResult.getIndex());
+        assertEquals(status, recordResult.getStatus());
+        assertNotNull(recordResult.getMessage());
+    }
 }
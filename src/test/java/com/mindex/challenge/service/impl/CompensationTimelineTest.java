@@ -0,0 +1,101 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CompensationTimelineTest {
+
+    private CompensationTimeline compensationTimeline;
+
+    @Before
+    public void setup() {
+        compensationTimeline = new CompensationTimeline();
+    }
+
+    @Test
+    public void testAsOf() {
+        compensationTimeline.add(compensation("A", 300, LocalDate.of(2020, Month.JANUARY, 1)));
+        compensationTimeline.add(compensation("A", 100, LocalDate.of(2000, Month.JANUARY, 1)));
+        compensationTimeline.add(compensation("A", 200, LocalDate.of(2010, Month.JANUARY, 1)));
+        compensationTimeline.add(compensation("B", 500, LocalDate.of(2010, Month.JANUARY, 1)));
+
+        assertNull(compensationTimeline.asOf("A", LocalDate.of(1999, Month.DECEMBER, 31)));
+        assertAsOf(100, LocalDate.of(2000, Month.JANUARY, 1), compensationTimeline.asOf("A", LocalDate.of(2000, Month.JANUARY, 1)));
+        assertAsOf(100, LocalDate.of(2000, Month.JANUARY, 1), compensationTimeline.asOf("A", LocalDate.of(2009, Month.DECEMBER, 31)));
+        assertAsOf(200, LocalDate.of(2010, Month.JANUARY, 1), compensationTimeline.asOf("A", LocalDate.of(2015, Month.JUNE, 1)));
+        assertAsOf(300, LocalDate.of(2020, Month.JANUARY, 1), compensationTimeline.asOf("A", LocalDate.of(2030, Month.JANUARY, 1)));
+        assertAsOf(500, LocalDate.of(2010, Month.JANUARY, 1), compensationTimeline.asOf("B", LocalDate.of(2030, Month.JANUARY, 1)));
+        assertNull(compensationTimeline.asOf("C", LocalDate.of(2030, Month.JANUARY, 1)));
+
+        assertEquals("A", compensationTimeline.asOf("A", LocalDate.of(2030, Month.JANUARY, 1)).getEmployee().getEmployeeId());
+        assertEquals(2, compensationTimeline.size());
+    }
+
+    @Test
+    public void testSameEffectiveDateReplaces() {
+        compensationTimeline.add(compensation("A", 100, LocalDate.of(2000, Month.JANUARY, 1)));
+        compensationTimeline.add(compensation("A", 200, LocalDate.of(2000, Month.JANUARY, 1)));
+
+        assertAsOf(200, LocalDate.of(2000, Month.JANUARY, 1), compensationTimeline.asOf("A", LocalDate.of(2000, Month.JANUARY, 1)));
+    }
+
+    @Test
+    public void testAsOfMatchesSortedMap() {
+        Random random = new Random(11);
+        TreeMap<LocalDate, Double> expected = new TreeMap<>();
+        LocalDate start = LocalDate.of(1990, Month.JANUARY, 1);
+
+        for( int i = 0; i < 500; i++ ) {
+            LocalDate effectiveDate = start.plusDays(random.nextInt(20000));
+            double salary = random.nextInt(1000000);
+            expected.put(effectiveDate, salary);
+            compensationTimeline.add(compensation("A", salary, effectiveDate));
+        }
+
+        for( int i = 0; i < 2000; i++ ) {
+            LocalDate date = start.plusDays(random.nextInt(21000) - 500);
+            Compensation compensation = compensationTimeline.asOf("A", date);
+            if( expected.floorKey(date) == null ) {
+                assertNull(compensation);
+            } else {
+                assertAsOf(expected.floorEntry(date).getValue(), expected.floorKey(date), compensation);
+            }
+        }
+    }
+
+    @Test
+    public void testClear() {
+        compensationTimeline.add(compensation("A", 100, LocalDate.of(2000, Month.JANUARY, 1)));
+        compensationTimeline.clear();
+
+        assertNull(compensationTimeline.asOf("A", LocalDate.of(2000, Month.JANUARY, 1)));
+        assertEquals(0, compensationTimeline.size());
+    }
+
+    //helper functions
+    private static Compensation compensation(String employeeId, double salary, LocalDate effectiveDate) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(salary);
+        compensation.setEffectiveDate(effectiveDate);
+        return compensation;
+    }
+
+    private static void assertAsOf(double salary, LocalDate effectiveDate, Compensation compensation) {
+        assertEquals(salary, compensation.getSalary(), 0);
+        assertEquals(effectiveDate, compensation.getEffectiveDate());
+    }
+}
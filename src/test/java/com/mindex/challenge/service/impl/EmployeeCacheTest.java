@@ -0,0 +1,112 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class EmployeeCacheTest {
+
+    private EmployeeCache employeeCache;
+
+    @Before
+    public void setup() {
+        employeeCache = new EmployeeCache();
+        ReflectionTestUtils.setField(employeeCache, "maximumSize", 100L);
+        employeeCache.init();
+    }
+
+    @Test
+    public void testReadThrough() {
+        AtomicInteger loads = new AtomicInteger();
+        Employee employee = employee("A", "John");
+
+        assertSame(employee, employeeCache.get("A", id -> { loads.incrementAndGet(); return employee; }));
+        assertSame(employee, employeeCache.get("A", id -> { loads.incrementAndGet(); return employee; }));
+        assertEquals(1, loads.get());
+        assertEquals(1, employeeCache.stats().hitCount());
+        assertEquals(1, employeeCache.stats().missCount());
+
+        employeeCache.invalidate("A");
+        employeeCache.get("A", id -> { loads.incrementAndGet(); return employee; });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testMissingEmployeeIsNotCached() {
+        assertNull(employeeCache.get("A", id -> null));
+
+        Employee employee = employee("A", "John");
+        assertSame(employee, employeeCache.get("A", id -> employee));
+    }
+
+    @Test
+    public void testInvalidateDuringLoadLeavesNoStaleEntry() throws Exception {
+        AtomicReference<Employee> stored = new AtomicReference<>(employee("A", "Before"));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // reader loads the previous version, then stalls until the writer has updated the store
+            Future<Employee> read = executor.submit(() -> employeeCache.get("A", id -> {
+                Employee employee = stored.get();
+                loading.countDown();
+                await(written);
+                return employee;
+            }));
+
+            loading.await();
+            Future<?> write = executor.submit(() -> {
+                stored.set(employee("A", "After"));
+                written.countDown();
+                employeeCache.invalidate("A");
+            });
+
+            assertEquals("Before", read.get(5, TimeUnit.SECONDS).getFirstName());
+            write.get(5, TimeUnit.SECONDS);
+
+            assertEquals("After", employeeCache.get("A", id -> stored.get()).getFirstName());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        for( int i = 0; i < 1000; i++ ) {
+            employeeCache.get(String.valueOf(i), id -> employee(id, id));
+        }
+        employeeCache.cleanUp();
+
+        assertFalse(employeeCache.size() > 100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Employee employee(String id, String firstName) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+        employee.setFirstName(firstName);
+        return employee;
+    }
+}
@@ -9,11 +9,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -21,9 +27,12 @@ import static org.junit.Assert.assertNotNull;
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class EmployeeServiceImplReportingStructureTest {
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<Map<String, Object>>() {};
 
     private String employeeUrl;
+    private String employeeIdUrl;
     private String reportingStructureIdUrl;
+    private String reportingStructureBatchUrl;
 
     @LocalServerPort
     private int port;
@@ -34,7 +43,9 @@ public class EmployeeServiceImplReportingStructureTest {
     @Before
     public void setup() {
         employeeUrl = "http://localhost:" + port + "/employee";
+        employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
         reportingStructureIdUrl = "http://localhost:" + port + "/employee/{id}/reporting-structure";
+        reportingStructureBatchUrl = "http://localhost:" + port + "/employee/reporting-structure";
     }
 
     @Test
@@ -130,7 +141,107 @@ public class EmployeeServiceImplReportingStructureTest {
     }
 
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExpandedTree() {
+        Employee employeeLevelThreeA = createEmployee("Level Three A");
+        Employee employeeLevelThreeB = createEmployee("Level Three B");
+        Employee employeeLevelTwoA = createEmployee("Level Two A", employeeLevelThreeA, employeeLevelThreeB);
+        Employee employeeLevelTwoB = createEmployee("Level Two B", employeeLevelThreeB);
+        Employee employeeLevelOne = createEmployee("Level One", employeeLevelTwoA, employeeLevelTwoB);
+
+        Map<String, Object> tree = readJson(reportingStructureIdUrl + "?expand=tree", employeeLevelOne.getEmployeeId()).getBody();
+
+        assertNotNull(tree);
+        assertEquals(4, tree.get("numberOfReports"));
+
+        Map<String, Object> levelOne = (Map<String, Object>) tree.get("employee");
+        assertEquals("Level One", levelOne.get("firstName"));
+
+        List<Map<String, Object>> levelTwo = (List<Map<String, Object>>) levelOne.get("directReports");
+        assertEquals(2, levelTwo.size());
+
+        Map<String, Object> levelTwoA = findById(levelTwo, employeeLevelTwoA.getEmployeeId());
+        Map<String, Object> levelTwoB = findById(levelTwo, employeeLevelTwoB.getEmployeeId());
+        assertEquals("Level Two A", levelTwoA.get("firstName"));
+        assertEquals("Level Two B", levelTwoB.get("firstName"));
+
+        List<Map<String, Object>> levelThree = (List<Map<String, Object>>) levelTwoA.get("directReports");
+        assertEquals(2, levelThree.size());
+        assertEquals("Level Three A", findById(levelThree, employeeLevelThreeA.getEmployeeId()).get("firstName"));
+        assertEquals("Level Three B", findById(levelThree, employeeLevelThreeB.getEmployeeId()).get("firstName"));
+
+        // Level Three B was already expanded under Level Two A
+        List<Map<String, Object>> sharedLevelThree = (List<Map<String, Object>>) levelTwoB.get("directReports");
+        assertEquals(1, sharedLevelThree.size());
+        assertEquals("Level Three B", sharedLevelThree.get(0).get("firstName"));
+
+        // depth limited tree lists reports below the limit by id only
+        tree = readJson(reportingStructureIdUrl + "?expand=tree&depth=1", employeeLevelOne.getEmployeeId()).getBody();
+        levelTwo = (List<Map<String, Object>>) ((Map<String, Object>) tree.get("employee")).get("directReports");
+        levelThree = (List<Map<String, Object>>) findById(levelTwo, employeeLevelTwoA.getEmployeeId()).get("directReports");
+        assertEquals(2, levelThree.size());
+        assertEquals(Collections.singleton("employeeId"), levelThree.get(0).keySet());
+    }
+
+    @Test
+    public void testBatchOfStructures() {
+        Employee employeeLevelThreeA = createEmployee("Level Three A");
+        Employee employeeLevelThreeB = createEmployee("Level Three B");
+        Employee employeeLevelTwoA = createEmployee("Level Two A", employeeLevelThreeA, employeeLevelThreeB);
+        Employee employeeLevelTwoB = createEmployee("Level Two B", employeeLevelThreeB);
+        Employee employeeLevelOne = createEmployee("Level One", employeeLevelTwoA, employeeLevelTwoB);
+
+        List<String> ids = Arrays.asList(employeeLevelOne.getEmployeeId(), employeeLevelTwoB.getEmployeeId(),
+                employeeLevelThreeA.getEmployeeId(), employeeLevelTwoA.getEmployeeId());
+
+        ReportingStructure[] readReportingStructures = restTemplate.postForEntity(reportingStructureBatchUrl, ids, ReportingStructure[].class).getBody();
+
+        assertNotNull(readReportingStructures);
+        assertEquals(ids.size(), readReportingStructures.length);
+        for( int i = 0; i < ids.size(); i++ ) {
+            assertEquals(ids.get(i), readReportingStructures[i].getEmployee().getEmployeeId());
+        }
+        assertEquals(4, readReportingStructures[0].getNumberOfReports());
+        assertEquals(1, readReportingStructures[1].getNumberOfReports());
+        assertEquals(0, readReportingStructures[2].getNumberOfReports());
+        assertEquals(2, readReportingStructures[3].getNumberOfReports());
+    }
+
+    @Test
+    public void testCycleInStructure() {
+        Employee employeeLevelThree = createEmployee("Level Three");
+        Employee employeeLevelTwo = createEmployee("Level Two", employeeLevelThree);
+        Employee employeeLevelOne = createEmployee("Level One", employeeLevelTwo);
+
+        // Level Three now reports back up to Level Two
+        employeeLevelThree.setDirectReports(Collections.singletonList(employeeLevelTwo));
+        restTemplate.put(employeeIdUrl, employeeLevelThree, employeeLevelThree.getEmployeeId());
+
+        ResponseEntity<Map<String, Object>> response = readJson(reportingStructureIdUrl, employeeLevelOne.getEmployeeId());
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals("REPORTING_CYCLE", response.getBody().get("error"));
+        assertEquals(employeeLevelOne.getEmployeeId(), response.getBody().get("employeeId"));
+        assertEquals(Arrays.asList(employeeLevelTwo.getEmployeeId(), employeeLevelThree.getEmployeeId(), employeeLevelTwo.getEmployeeId()),
+                response.getBody().get("cycle"));
+    }
+
+
     //helper functions
+    private ResponseEntity<Map<String, Object>> readJson(String url, Object... uriVariables) {
+        return restTemplate.exchange(url, HttpMethod.GET, null, JSON_OBJECT, uriVariables);
+    }
+
+    private static Map<String, Object> findById(List<Map<String, Object>> employees, String employeeId) {
+        for( Map<String, Object> employee : employees ) {
+            if( employeeId.equals(employee.get("employeeId")) ) {
+                return employee;
+            }
+        }
+        throw new AssertionError("No employee with id " + employeeId);
+    }
+
     private Employee createEmployee(String name, Employee... directReports ) {
         Employee employee = new Employee();
         employee.setFirstName(name);
@@ -1,6 +1,9 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePatch;
+import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.service.EmployeeService;
 import org.junit.Before;
 import org.junit.Test;
@@ -12,11 +15,25 @@ import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -28,6 +45,9 @@ public class EmployeeServiceImplTest {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
     @LocalServerPort
     private int port;
 
@@ -75,6 +95,124 @@ public class EmployeeServiceImplTest {
                         readEmployee.getEmployeeId()).getBody();
 
         assertEmployeeEquivalence(readEmployee, updatedEmployee);
+
+        // Read after update checks
+        Employee reReadEmployee = restTemplate.getForEntity(employeeIdUrl, Employee.class, createdEmployee.getEmployeeId()).getBody();
+        assertEmployeeEquivalence(updatedEmployee, reReadEmployee);
+    }
+
+    @Test
+    public void testConditionalReads() {
+        Employee report = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        Employee manager = new Employee();
+        manager.setDirectReports(Collections.singletonList(report));
+        manager = restTemplate.postForEntity(employeeUrl, manager, Employee.class).getBody();
+        String reportingStructureUrl = employeeIdUrl + "/reporting-structure";
+
+        ResponseEntity<Employee> read = restTemplate.getForEntity(employeeIdUrl, Employee.class, manager.getEmployeeId());
+        ResponseEntity<ReportingStructure> readReportingStructure =
+                restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, manager.getEmployeeId());
+        assertNotNull(read.getHeaders().getETag());
+        assertNotNull(readReportingStructure.getHeaders().getETag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalRead(employeeIdUrl, read, manager.getEmployeeId()));
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalRead(reportingStructureUrl, readReportingStructure, manager.getEmployeeId()));
+
+        // updating the report changes the manager's reporting structure, but not the manager
+        report.setPosition("Developer");
+        restTemplate.put(employeeIdUrl, report, report.getEmployeeId());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalRead(employeeIdUrl, read, manager.getEmployeeId()));
+        assertEquals(HttpStatus.OK, conditionalRead(reportingStructureUrl, readReportingStructure, manager.getEmployeeId()));
+    }
+
+    @Test
+    public void testPatch() {
+        Employee oldReport = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        Employee newReport = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        Employee manager = new Employee();
+        manager.setFirstName("Jane");
+        manager.setPosition("Developer");
+        manager.setDirectReports(Collections.singletonList(oldReport));
+        manager = restTemplate.postForEntity(employeeUrl, manager, Employee.class).getBody();
+
+        // adding the same report twice only adds it once
+        EmployeePatch patch = new EmployeePatch();
+        patch.setPosition("Development Manager");
+        patch.setRemoveDirectReports(Collections.singletonList(oldReport.getEmployeeId()));
+        patch.setAddDirectReports(Arrays.asList(newReport.getEmployeeId(), newReport.getEmployeeId()));
+        employeeService.patch(manager.getEmployeeId(), patch);
+
+        Employee readEmployee = restTemplate.getForEntity(employeeIdUrl, Employee.class, manager.getEmployeeId()).getBody();
+        assertEquals("Jane", readEmployee.getFirstName());
+        assertEquals("Development Manager", readEmployee.getPosition());
+        assertEquals(1, readEmployee.getDirectReports().size());
+        assertEquals(newReport.getEmployeeId(), readEmployee.getDirectReports().get(0).getEmployeeId());
+
+        ReportingStructure reportingStructure = restTemplate.getForEntity(employeeIdUrl + "/reporting-structure",
+                ReportingStructure.class, manager.getEmployeeId()).getBody();
+        assertEquals(1, reportingStructure.getNumberOfReports());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testPatchInvalidEmployee() {
+        employeeService.patch("not-an-employee", new EmployeePatch());
+    }
+
+    @Test
+    public void testPatchInvalidDirectReports() {
+        Employee employee = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+
+        for( String directReportId : Arrays.asList(employee.getEmployeeId(), "not-an-employee") ) {
+            EmployeePatch patch = new EmployeePatch();
+            patch.setPosition("Development Manager");
+            patch.setAddDirectReports(Collections.singletonList(directReportId));
+            try {
+                employeeService.patch(employee.getEmployeeId(), patch);
+                fail("Expected direct report " + directReportId + " to be rejected");
+            } catch (ResponseStatusException e) {
+                assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+            }
+        }
+
+        // nothing of a rejected patch is applied
+        Employee readEmployee = restTemplate.getForEntity(employeeIdUrl, Employee.class, employee.getEmployeeId()).getBody();
+        assertNull(readEmployee.getPosition());
+        assertNull(readEmployee.getDirectReports());
+    }
+
+    @Test
+    public void testConcurrentPatches() throws Exception {
+        Employee manager = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+
+        // each patch both adds and removes, so each reads the direct reports and writes them back
+        List<Callable<Employee>> patches = new ArrayList<>();
+        for( int i = 0; i < 8; i++ ) {
+            Employee report = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+            EmployeePatch patch = new EmployeePatch();
+            patch.setAddDirectReports(Collections.singletonList(report.getEmployeeId()));
+            patch.setRemoveDirectReports(Collections.singletonList("not-an-employee"));
+            patches.add(() -> employeeRepository.patchByEmployeeId(manager.getEmployeeId(), patch));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(patches.size());
+        try {
+            for( Future<Employee> patched : executor.invokeAll(patches) ) {
+                assertNotNull(patched.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // none of the concurrent patches overwrote another's report
+        assertEquals(patches.size(), employeeRepository.findByEmployeeId(manager.getEmployeeId()).getDirectReports().size());
+    }
+
+    private HttpStatus conditionalRead(String url, ResponseEntity<?> previous, String id) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(previous.getHeaders().getETag());
+
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class, id).getStatusCode();
     }
 
     private static void assertEmployeeEquivalence(Employee expected, Employee actual) {
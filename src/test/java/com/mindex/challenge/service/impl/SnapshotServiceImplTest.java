@@ -0,0 +1,104 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.SnapshotResult;
+import com.mindex.challenge.service.CompensationService;
+import com.mindex.challenge.snapshot.SnapshotHandler;
+import com.mindex.challenge.snapshot.SnapshotReader;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "challenge.snapshot.path=${java.io.tmpdir}/challenge-snapshot-test/employees.snapshot")
+public class SnapshotServiceImplTest {
+    private static final Path SNAPSHOT_PATH = Paths.get(System.getProperty("java.io.tmpdir"), "challenge-snapshot-test", "employees.snapshot");
+
+    @Autowired
+    private CompensationService compensationService;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    // a snapshot left behind would be loaded when the context starts
+    @BeforeClass
+    @AfterClass
+    public static void deleteSnapshot() throws Exception {
+        Files.deleteIfExists(SNAPSHOT_PATH);
+    }
+
+    @After
+    public void cleanUpDatabase() {
+        compensationService.deleteAll();
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        Employee employee = new Employee();
+        employee.setEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f");
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployee(employee);
+        compensation.setSalary(100.5);
+        compensation.setEffectiveDate(LocalDate.of(2020, Month.JANUARY, 1));
+        compensationService.create(compensation);
+
+        SnapshotResult result = restTemplate.postForEntity("http://localhost:" + port + "/snapshot", null, SnapshotResult.class).getBody();
+
+        assertNotNull(result);
+        assertEquals(5, result.getEmployeeCount());
+        assertEquals(1, result.getCompensationCount());
+        assertEquals(Files.size(SNAPSHOT_PATH), result.getBytes());
+
+        Map<String, Employee> employees = new HashMap<>();
+        List<Compensation> compensations = new ArrayList<>();
+        SnapshotReader.read(SNAPSHOT_PATH, new SnapshotHandler() {
+            @Override
+            public void employee(Employee employee) {
+                employees.put(employee.getEmployeeId(), employee);
+            }
+
+            @Override
+            public void compensation(Compensation compensation) {
+                compensations.add(compensation);
+            }
+        });
+
+        Employee john = employees.get("16a596ae-edd3-4847-99fe-c4518e82c86f");
+        assertEquals(5, employees.size());
+        assertEquals("John", john.getFirstName());
+        assertEquals("Development Manager", john.getPosition());
+        assertEquals(2, john.getDirectReports().size());
+
+        assertEquals(1, compensations.size());
+        assertEquals(compensation.getId(), compensations.get(0).getId());
+        assertEquals("16a596ae-edd3-4847-99fe-c4518e82c86f", compensations.get(0).getEmployeeId());
+        assertEquals(100.5, compensations.get(0).getSalary(), 0);
+        assertEquals(LocalDate.of(2020, Month.JANUARY, 1), compensations.get(0).getEffectiveDate());
+    }
+}
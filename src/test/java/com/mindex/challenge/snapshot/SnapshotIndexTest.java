@@ -0,0 +1,91 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.types.ObjectId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReadOutOfOrder() throws Exception {
+        int employeeCount = 1000;
+        Path path = temporaryFolder.newFile().toPath();
+
+        // written from employee 0, so ids are first written as direct reports, and departments repeat, so most
+        // references are to earlier records
+        List<Employee> employees = SyntheticOrg.employees(SyntheticOrg.Shape.WIDE, employeeCount, 10, "");
+        Collections.reverse(employees);
+        try( SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(path)) ) {
+            for( Employee employee : employees ) {
+                writer.write(employee);
+            }
+            for( int i = 0; i < employeeCount; i += 10 ) {
+                writer.write(compensation(i, 100 + i, LocalDate.of(2020, Month.JANUARY, 1)));
+                writer.write(compensation(i, 200 + i, LocalDate.of(2021, Month.JANUARY, 1)));
+            }
+        }
+
+        SnapshotIndex index = SnapshotIndex.build(path);
+
+        assertEquals(employeeCount, index.size());
+        assertTrue(index.contains(SyntheticOrg.employeeId(0)));
+        assertFalse(index.contains(SyntheticOrg.employeeId(employeeCount)));
+        assertNull(index.readEmployee(SyntheticOrg.employeeId(employeeCount)));
+
+        for( int i = employeeCount - 1; i >= 0; i -= 7 ) {
+            Employee expected = employees.get(i);
+            Employee actual = index.readEmployee(SyntheticOrg.employeeId(i));
+
+            assertEquals(expected.getEmployeeId(), actual.getEmployeeId());
+            assertEquals(expected.getFirstName(), actual.getFirstName());
+            assertEquals(expected.getLastName(), actual.getLastName());
+            assertEquals(expected.getPosition(), actual.getPosition());
+            assertEquals(expected.getDepartment(), actual.getDepartment());
+            assertEquals(directReportIds(expected), directReportIds(actual));
+        }
+
+        List<Compensation> compensations = index.readCompensations(SyntheticOrg.employeeId(990));
+        assertEquals(2, compensations.size());
+        assertEquals(SyntheticOrg.employeeId(990), compensations.get(1).getEmployeeId());
+        assertEquals(1190, compensations.get(1).getSalary(), 0);
+        assertEquals(LocalDate.of(2021, Month.JANUARY, 1), compensations.get(1).getEffectiveDate());
+        assertTrue(index.readCompensations(SyntheticOrg.employeeId(1)).isEmpty());
+    }
+
+    private static Compensation compensation(int id, double salary, LocalDate effectiveDate) {
+        Compensation compensation = new Compensation();
+        compensation.setId(new ObjectId().toHexString());
+        compensation.setEmployee(SyntheticOrg.employee(id));
+        compensation.setSalary(salary);
+        compensation.setEffectiveDate(effectiveDate);
+        return compensation;
+    }
+
+    private static List<String> directReportIds(Employee employee) {
+        List<String> ids = new ArrayList<>();
+        for( Employee directReport : employee.getDirectReports() ) {
+            ids.add(directReport.getEmployeeId());
+        }
+        return ids;
+    }
+}
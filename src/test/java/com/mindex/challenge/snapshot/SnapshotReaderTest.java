@@ -0,0 +1,177 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.types.ObjectId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SnapshotReaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Employee manager = employee("manager", "Zoë", "Ünal", "Development Manager", "Engineering");
+        manager.setDirectReports(Arrays.asList(employee("first"), employee("second")));
+        Employee first = employee("first", "First", null, "Developer", "Engineering");
+        Employee second = employee("second", null, "Second", "Developer", null);
+        second.setDirectReports(new ArrayList<>());
+
+        String objectId = new ObjectId().toHexString();
+        Compensation byObjectId = compensation(objectId, "first", 100.5, LocalDate.of(2020, Month.JANUARY, 1));
+        Compensation byStringId = compensation("not-an-object-id", "manager", 200, LocalDate.of(1969, Month.JULY, 20));
+
+        Path path = temporaryFolder.newFile().toPath();
+        try( SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(path)) ) {
+            writer.write(manager);
+            writer.write(first);
+            writer.write(second);
+            writer.write(byObjectId);
+            writer.write(byStringId);
+        }
+
+        List<Employee> employees = new ArrayList<>();
+        List<Compensation> compensations = new ArrayList<>();
+        SnapshotReader.read(path, new SnapshotHandler() {
+            @Override
+            public void employee(Employee employee) {
+                employees.add(employee);
+            }
+
+            @Override
+            public void compensation(Compensation compensation) {
+                compensations.add(compensation);
+            }
+        });
+
+        assertEquals(3, employees.size());
+        assertEmployeeEquivalence(manager, employees.get(0));
+        assertEmployeeEquivalence(first, employees.get(1));
+        assertEmployeeEquivalence(second, employees.get(2));
+        assertEquals(Arrays.asList("first", "second"), directReportIds(employees.get(0)));
+        assertNull(employees.get(1).getDirectReports());
+        assertEquals(0, employees.get(2).getDirectReports().size());
+
+        assertEquals(2, compensations.size());
+        assertCompensationEquivalence(byObjectId, compensations.get(0));
+        assertCompensationEquivalence(byStringId, compensations.get(1));
+    }
+
+    @Test
+    public void testTruncatedSnapshot() throws Exception {
+        Path path = temporaryFolder.newFile().toPath();
+        try( SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(path)) ) {
+            writer.write(employee("employee", "First", "Last", "Developer", "Engineering"));
+        }
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertReadFails(path);
+    }
+
+    @Test
+    public void testNotASnapshot() throws Exception {
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, "[{\"employeeId\":\"employee\"}]".getBytes());
+
+        assertReadFails(path);
+    }
+
+    @Test
+    public void testCorruptLength() throws Exception {
+        // an employee whose id is followed by a first name as long as the largest varint, and one with a negative length
+        for( byte last : new byte[] { 0x07, 0x0f } ) {
+            ByteBuffer bytes = ByteBuffer.allocate(32);
+            bytes.putInt(SnapshotWriter.MAGIC).putInt(SnapshotWriter.VERSION).put((byte) SnapshotWriter.EMPLOYEE);
+            bytes.put(new byte[] { 1, 2, 'i', 'd' });
+            bytes.put(new byte[] { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, last });
+
+            Path path = temporaryFolder.newFile().toPath();
+            Files.write(path, Arrays.copyOf(bytes.array(), bytes.position()));
+
+            assertReadFails(path);
+        }
+    }
+
+    private static void assertReadFails(Path path) {
+        try {
+            SnapshotReader.read(path, new SnapshotHandler() {
+                @Override
+                public void employee(Employee employee) {
+                }
+
+                @Override
+                public void compensation(Compensation compensation) {
+                }
+            });
+            fail("Expected the snapshot to be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static List<String> directReportIds(Employee employee) {
+        List<String> ids = new ArrayList<>();
+        for( Employee directReport : employee.getDirectReports() ) {
+            ids.add(directReport.getEmployeeId());
+        }
+        return ids;
+    }
+
+    private static Employee employee(String employeeId) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        return employee;
+    }
+
+    private static Employee employee(String employeeId, String firstName, String lastName, String position, String department) {
+        Employee employee = employee(employeeId);
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setPosition(position);
+        employee.setDepartment(department);
+        return employee;
+    }
+
+    private static Compensation compensation(String id, String employeeId, double salary, LocalDate effectiveDate) {
+        Compensation compensation = new Compensation();
+        compensation.setId(id);
+        compensation.setEmployee(employee(employeeId));
+        compensation.setSalary(salary);
+        compensation.setEffectiveDate(effectiveDate);
+        return compensation;
+    }
+
+    private static void assertEmployeeEquivalence(Employee expected, Employee actual) {
+        assertEquals(expected.getEmployeeId(), actual.getEmployeeId());
+        assertEquals(expected.getFirstName(), actual.getFirstName());
+        assertEquals(expected.getLastName(), actual.getLastName());
+        assertEquals(expected.getPosition(), actual.getPosition());
+        assertEquals(expected.getDepartment(), actual.getDepartment());
+    }
+
+    private static void assertCompensationEquivalence(Compensation expected, Compensation actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getEmployeeId(), actual.getEmployeeId());
+        assertEquals(expected.getSalary(), actual.getSalary(), 0);
+        assertEquals(expected.getEffectiveDate(), actual.getEffectiveDate());
+    }
+}
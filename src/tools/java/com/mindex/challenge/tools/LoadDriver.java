@@ -0,0 +1,297 @@
+package com.mindex.challenge.tools;
+
+import com.mindex.challenge.SyntheticOrg;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a mixed read and write workload against a running {@code ChallengeApplication} loaded with an org from
+ * {@link OrgGenerator}, and reports the throughput and latency percentiles of each endpoint.
+ *
+ * Each of --threads threads sends one request at a time, picking the endpoint by the --mix weights and the employee
+ * uniformly from the --employees generated employees. Requests sent during the --warmup seconds are not recorded.
+ * Any response other than 2xx counts as an error, as does a request that times out connecting or reading.
+ *
+ * Without --rate each thread sends its next request as soon as the last one completes, and latency is measured from
+ * sending the request to reading the whole response. That is the service time: a stall holds back the requests that
+ * would have been sent during it, so it is recorded once rather than by every request it delays. With --rate the
+ * threads send requests on a fixed schedule, that many per second between them, and latency is measured from when
+ * each request was due to be sent, so time spent waiting behind a slow request is counted.
+ */
+public class LoadDriver {
+    private static final String DEFAULT_MIX = "read:60,reporting:25,compensation:10,create-compensation:3,update:2";
+    // new compensations are dated after any generated ones, one day apart so no two collide
+    private static final LocalDate FIRST_CREATED_DATE = LocalDate.of(2100, 1, 1);
+
+    enum Operation {
+        READ("read", "GET /employee/{id}"),
+        REPORTING("reporting", "GET /employee/{id}/reporting-structure"),
+        COMPENSATION("compensation", "GET /compensation/current"),
+        CREATE_COMPENSATION("create-compensation", "POST /compensation"),
+        UPDATE("update", "PUT /employee/{id}");
+
+        private final String option;
+        private final String endpoint;
+
+        Operation(String option, String endpoint) {
+            this.option = option;
+            this.endpoint = endpoint;
+        }
+
+        static Operation forOption(String option) {
+            for( Operation operation : values() ) {
+                if( operation.option.equals(option) ) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown --mix operation " + option);
+        }
+    }
+
+    private static class Stats {
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private final String url;
+    private final int employeeCount;
+    private final int threadCount;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final long seed;
+    private final double rate;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicLong createdDates;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    LoadDriver(ToolArguments arguments) {
+        url = arguments.get("url", "http://localhost:8080");
+        employeeCount = arguments.getInt("employees", 10000);
+        threadCount = arguments.getInt("threads", 8);
+        durationNanos = TimeUnit.SECONDS.toNanos(arguments.getLong("duration", 60));
+        warmupNanos = TimeUnit.SECONDS.toNanos(arguments.getLong("warmup", 10));
+        seed = arguments.getLong("seed", 42);
+        rate = arguments.getDouble("rate", 0);
+        connectTimeoutMillis = arguments.getInt("connect-timeout-ms", 5000);
+        readTimeoutMillis = arguments.getInt("read-timeout-ms", 30000);
+        createdDates = new AtomicLong(arguments.getLong("date-offset", 0));
+
+        String[] weights = arguments.get("mix", DEFAULT_MIX).split(",");
+        operations = new Operation[weights.length];
+        cumulativeWeights = new int[weights.length];
+        int total = 0;
+        for( int i = 0; i < weights.length; i++ ) {
+            String[] weight = weights[i].split(":");
+            if( weight.length != 2 ) {
+                throw new IllegalArgumentException("Expected --mix of operation:weight pairs but got " + weights[i]);
+            }
+            operations[i] = Operation.forOption(weight[0]);
+            total += Integer.parseInt(weight[1]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new Stats());
+        }
+
+        if( employeeCount < 1 || threadCount < 1 || total < 1 ) {
+            throw new IllegalArgumentException("Expected --employees, --threads and the total --mix weight to be at least 1");
+        }
+        if( rate < 0 || connectTimeoutMillis < 0 || readTimeoutMillis < 0 ) {
+            throw new IllegalArgumentException("Expected --rate, --connect-timeout-ms and --read-timeout-ms not to be negative");
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ToolArguments arguments = new ToolArguments(args);
+        LoadDriver driver = new LoadDriver(arguments);
+        arguments.checkAllRead();
+
+        driver.run();
+        driver.report();
+    }
+
+    void run() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>(threadCount);
+        // with a rate, each thread sends every threadCount / rate seconds, the threads staggered across the interval
+        long intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(threadCount) / rate) : 0;
+        long start = System.nanoTime();
+        for( int i = 0; i < threadCount; i++ ) {
+            Random random = new Random(seed + i);
+            long firstStart = start + intervalNanos / threadCount * i;
+            Thread thread = new Thread(() -> work(random, firstStart, intervalNanos), "load-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        System.out.printf("Warming up %d threads against %s%s for %d s%n", threadCount, url,
+                rate > 0 ? String.format(" at %.1f req/s", rate) : "", TimeUnit.NANOSECONDS.toSeconds(warmupNanos));
+        TimeUnit.NANOSECONDS.sleep(warmupNanos);
+        recording = true;
+        System.out.printf("Measuring for %d s%n", TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        TimeUnit.NANOSECONDS.sleep(durationNanos);
+        running = false;
+
+        for( Thread thread : threads ) {
+            thread.join();
+        }
+    }
+
+    void report() {
+        double seconds = durationNanos / 1e9;
+        System.out.printf("%n%-40s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long allErrors = 0;
+        for( Map.Entry<Operation, Stats> entry : stats.entrySet() ) {
+            Histogram latencies = entry.getValue().latencies;
+            long errors = entry.getValue().errors.sum();
+            printRow(entry.getKey().endpoint, latencies, errors, seconds);
+            all.add(latencies);
+            allErrors += errors;
+        }
+        printRow("all", all, allErrors, seconds);
+    }
+
+    private static void printRow(String endpoint, Histogram latencies, long errors, double seconds) {
+        System.out.printf("%-40s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                endpoint, latencies.getTotalCount(), errors, latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0, latencies.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * @param intervalNanos the time between this thread's requests, or 0 to send each as soon as the last completes.
+     */
+    private void work(Random random, long firstStart, long intervalNanos) {
+        long due = firstStart;
+        while( running ) {
+            Operation operation = pick(random);
+            String employeeId = SyntheticOrg.employeeId(random.nextInt(employeeCount));
+
+            long start;
+            if( intervalNanos > 0 ) {
+                long wait;
+                while( (wait = due - System.nanoTime()) > 0 && running ) {
+                    LockSupport.parkNanos(wait);
+                }
+                // a request sent late because the last one was slow is timed from when it was due
+                start = due;
+                due += intervalNanos;
+            } else {
+                start = System.nanoTime();
+            }
+            if( !running ) {
+                break;
+            }
+
+            boolean succeeded;
+            try {
+                succeeded = send(operation, employeeId, random);
+            } catch (IOException e) {
+                succeeded = false;
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+            if( recording && running ) {
+                Stats operationStats = stats.get(operation);
+                operationStats.latencies.recordValue(Math.min(micros, operationStats.latencies.getHighestTrackableValue()));
+                if( !succeeded ) {
+                    operationStats.errors.increment();
+                }
+            }
+        }
+    }
+
+    private Operation pick(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while( value >= cumulativeWeights[i] ) {
+            i++;
+        }
+        return operations[i];
+    }
+
+    /**
+     * @return whether the request succeeded.
+     */
+    private boolean send(Operation operation, String employeeId, Random random) throws IOException {
+        switch( operation ) {
+            case READ:
+                return request("GET", "/employee/" + employeeId, null) != null;
+            case REPORTING:
+                return request("GET", "/employee/" + employeeId + "/reporting-structure", null) != null;
+            case COMPENSATION:
+                return request("GET", "/compensation/current?employeeId=" + employeeId, null) != null;
+            case CREATE_COMPENSATION:
+                LocalDate effectiveDate = FIRST_CREATED_DATE.plusDays(createdDates.getAndIncrement());
+                return request("POST", "/compensation", "{\"employee\":{\"employeeId\":\"" + employeeId + "\"},"
+                        + "\"salary\":" + (40000 + random.nextInt(160000)) + ",\"effectiveDate\":\"" + effectiveDate + "\"}") != null;
+            case UPDATE:
+                // the employee is sent back with a new position, so the update doesn't change the structure
+                String employee = request("GET", "/employee/" + employeeId, null);
+                return employee != null && request("PUT", "/employee/" + employeeId,
+                        employee.replaceFirst("\"position\":\"[^\"]*\"", "\"position\":\"Developer " + (1 + random.nextInt(3)) + "\"")) != null;
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    /**
+     * @return the response body, or null if the response wasn't 2xx.
+     */
+    private String request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + path).openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        if( body != null ) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try( OutputStream outputStream = connection.getOutputStream() ) {
+                outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int status = connection.getResponseCode();
+        boolean succeeded = status >= 200 && status < 300;
+        // the whole response is read, including errors, so the connection is kept alive for the next request
+        try( InputStream inputStream = succeeded ? connection.getInputStream() : connection.getErrorStream() ) {
+            String response = inputStream == null ? "" : read(inputStream);
+            return succeeded ? response : null;
+        }
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while( (read = inputStream.read(buffer)) >= 0 ) {
+            response.write(buffer, 0, read);
+        }
+        return new String(response.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,260 @@
+package com.mindex.challenge.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a synthetic org that {@code DataBootstrap} can load, either as a binary snapshot with compensation history
+ * or as a JSON employee snapshot. The same options and seed always generate the same org.
+ *
+ * The org is built breadth first from employee 0 at the root. Each manager gets between --fanout-min and --fanout-max
+ * direct reports, spread evenly or skewed towards small teams, until there are --employees employees. Managers at
+ * --max-depth get no reports. A --shared fraction of employees also report to a second, earlier manager, and --cycles
+ * employees have their own manager added to their direct reports. Each employee gets --compensations yearly
+ * compensations ending on --as-of.
+ *
+ * Employee ids are {@link SyntheticOrg#employeeId(int)} of their position, so {@link LoadDriver} can address them.
+ */
+public class OrgGenerator {
+    private static final String[] FIRST_NAMES = { "John", "Paul", "George", "Ringo", "Pete", "Yoko", "Linda", "Cynthia" };
+    private static final String[] LAST_NAMES = { "Lennon", "McCartney", "Harrison", "Starr", "Best", "Ono", "Eastman" };
+    private static final String[] DEPARTMENTS = { "Engineering", "Sales", "Finance", "Support", "Marketing", "Legal" };
+
+    private final int employeeCount;
+    private final int fanoutMin;
+    private final int fanoutMax;
+    private final boolean skewed;
+    private final int maxDepth;
+    private final double shared;
+    private final int cycles;
+    private final int compensations;
+    private final LocalDate asOf;
+    private final Random random;
+
+    private List<List<Integer>> reports;
+    private int[] managers;
+    private int[] depths;
+    private int sharedCount;
+
+    OrgGenerator(ToolArguments arguments) {
+        employeeCount = arguments.getInt("employees", 10000);
+        fanoutMin = arguments.getInt("fanout-min", 1);
+        fanoutMax = arguments.getInt("fanout-max", 8);
+        skewed = parseDistribution(arguments.get("fanout-distribution", "uniform"));
+        maxDepth = arguments.getInt("max-depth", 64);
+        shared = arguments.getDouble("shared", 0);
+        cycles = arguments.getInt("cycles", 0);
+        compensations = arguments.getInt("compensations", 0);
+        asOf = LocalDate.parse(arguments.get("as-of", "2020-01-01"));
+        random = new Random(arguments.getLong("seed", 42));
+
+        if( employeeCount < 1 || fanoutMin < 1 || fanoutMax < fanoutMin || maxDepth < 1 ) {
+            throw new IllegalArgumentException("Expected --employees, --fanout-min and --max-depth of at least 1, and --fanout-max of at least --fanout-min");
+        }
+        if( shared < 0 || shared > 1 || cycles < 0 || compensations < 0 ) {
+            throw new IllegalArgumentException("Expected --shared between 0 and 1, and --cycles and --compensations of at least 0");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ToolArguments arguments = new ToolArguments(args);
+        Path output = Paths.get(arguments.get("output", "data/employees.snapshot"));
+        String format = arguments.get("format", "snapshot");
+        OrgGenerator generator = new OrgGenerator(arguments);
+        arguments.checkAllRead();
+
+        if( output.toAbsolutePath().getParent() != null ) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+
+        long start = System.nanoTime();
+        if( format.equals("snapshot") ) {
+            generator.writeSnapshot(output);
+        } else if( format.equals("json") ) {
+            generator.writeJson(output);
+        } else {
+            throw new IllegalArgumentException("Unknown --format " + format + ", expected snapshot or json");
+        }
+
+        System.out.printf("Wrote %d employees (depth %d, %d shared, %d cycles) and %d compensations to %s: %d bytes in %d ms%n",
+                generator.employeeCount, generator.depth(), generator.sharedCount, generator.cycles,
+                generator.employeeCount * generator.compensations, output, Files.size(output),
+                (System.nanoTime() - start) / 1000000);
+    }
+
+    /**
+     * Writes the employees and their compensations, reports before managers, so each manager's report count is
+     * complete when it is loaded.
+     */
+    void writeSnapshot(Path output) throws IOException {
+        List<Employee> employees = employees();
+        try( SnapshotWriter writer = new SnapshotWriter(Files.newOutputStream(output)) ) {
+            for( Employee employee : employees ) {
+                writer.write(employee);
+            }
+            for( Employee employee : employees ) {
+                for( Compensation compensation : compensations(employee) ) {
+                    writer.write(compensation);
+                }
+            }
+        }
+    }
+
+    void writeJson(Path output) throws IOException {
+        if( compensations > 0 ) {
+            throw new IllegalArgumentException("The JSON snapshot only holds employees, use --format=snapshot for --compensations");
+        }
+        new ObjectMapper().writeValue(output.toFile(), employees());
+    }
+
+    /**
+     * @return the employees, from the last generated to the root.
+     */
+    List<Employee> employees() {
+        buildTree();
+        addSharedReports();
+        addCycles();
+
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        for( int i = employeeCount - 1; i >= 0; i-- ) {
+            List<Employee> directReports = new ArrayList<>(reports.get(i).size());
+            for( int report : reports.get(i) ) {
+                directReports.add(reference(report));
+            }
+
+            Employee employee = reference(i);
+            employee.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+            employee.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            employee.setPosition(position(i));
+            employee.setDepartment(DEPARTMENTS[department(i) % DEPARTMENTS.length]);
+            employee.setDirectReports(directReports);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    private void buildTree() {
+        reports = new ArrayList<>(employeeCount);
+        for( int i = 0; i < employeeCount; i++ ) {
+            reports.add(new ArrayList<>());
+        }
+        managers = new int[employeeCount];
+        depths = new int[employeeCount];
+        managers[0] = -1;
+
+        int next = 1;
+        for( int manager = 0; next < employeeCount; manager++ ) {
+            if( manager == next ) {
+                throw new IllegalArgumentException("Can't fit " + employeeCount + " employees within --max-depth=" + maxDepth
+                        + " with --fanout-max=" + fanoutMax);
+            }
+            if( depths[manager] == maxDepth ) {
+                continue;
+            }
+
+            int fanout = fanoutMin + (int) ((fanoutMax - fanoutMin + 1) * (skewed ? Math.pow(random.nextDouble(), 3) : random.nextDouble()));
+            for( int i = 0; i < fanout && next < employeeCount; i++, next++ ) {
+                reports.get(manager).add(next);
+                managers[next] = manager;
+                depths[next] = depths[manager] + 1;
+            }
+        }
+    }
+
+    /**
+     * Adds a second manager to a fraction of the employees. The second manager always comes earlier in the breadth
+     * first order, so it can't be one of the employee's own reports and no cycle is made.
+     */
+    private void addSharedReports() {
+        sharedCount = 0;
+        for( int i = 2; i < employeeCount; i++ ) {
+            if( random.nextDouble() < shared ) {
+                int manager = random.nextInt(i);
+                if( manager != managers[i] ) {
+                    reports.get(manager).add(i);
+                    sharedCount++;
+                }
+            }
+        }
+    }
+
+    private void addCycles() {
+        for( int i = 0; i < cycles && employeeCount > 1; i++ ) {
+            int employee = 1 + random.nextInt(employeeCount - 1);
+            reports.get(employee).add(managers[employee]);
+        }
+    }
+
+    private List<Compensation> compensations(Employee employee) {
+        List<Compensation> history = new ArrayList<>(compensations);
+        double salary = 40000 + random.nextInt(160000);
+        for( int i = compensations - 1; i >= 0; i-- ) {
+            Compensation compensation = new Compensation();
+            compensation.setEmployee(reference(employee.getEmployeeId()));
+            compensation.setSalary(Math.round(salary));
+            compensation.setEffectiveDate(asOf.minusYears(i));
+            history.add(compensation);
+            salary *= 1.03;
+        }
+        return history;
+    }
+
+    private String position(int index) {
+        if( index == 0 ) {
+            return "CEO";
+        } else if( depths[index] == 1 ) {
+            return "VP";
+        }
+        return reports.get(index).isEmpty() ? "Developer " + (1 + index % 3) : "Manager";
+    }
+
+    /**
+     * @return the index of the VP the employee is under, so each VP's org is one department.
+     */
+    private int department(int index) {
+        int current = index;
+        while( current > 0 && depths[current] > 1 ) {
+            current = managers[current];
+        }
+        return current;
+    }
+
+    private int depth() {
+        int depth = 0;
+        for( int i = 0; i < employeeCount; i++ ) {
+            depth = Math.max(depth, depths[i]);
+        }
+        return depth;
+    }
+
+    private static boolean parseDistribution(String distribution) {
+        if( distribution.equals("uniform") ) {
+            return false;
+        } else if( distribution.equals("skewed") ) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unknown --fanout-distribution " + distribution + ", expected uniform or skewed");
+    }
+
+    private static Employee reference(int index) {
+        return reference(SyntheticOrg.employeeId(index));
+    }
+
+    private static Employee reference(String employeeId) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        return employee;
+    }
+}
@@ -0,0 +1,52 @@
+package com.mindex.challenge.tools;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of the command line tools, given as --name=value.
+ */
+final class ToolArguments {
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private final Set<String> read = new HashSet<>();
+
+    ToolArguments(String[] args) {
+        for( String arg : args ) {
+            int equals = arg.indexOf('=');
+            if( !arg.startsWith("--") || equals < 0 ) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        read.add(name);
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        return Integer.parseInt(get(name, Integer.toString(defaultValue)));
+    }
+
+    long getLong(String name, long defaultValue) {
+        return Long.parseLong(get(name, Long.toString(defaultValue)));
+    }
+
+    double getDouble(String name, double defaultValue) {
+        return Double.parseDouble(get(name, Double.toString(defaultValue)));
+    }
+
+    /**
+     * Fails on any option that was given but never read, so a misspelled option isn't silently ignored.
+     */
+    void checkAllRead() {
+        for( String name : values.keySet() ) {
+            if( !read.contains(name) ) {
+                throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+    }
+}